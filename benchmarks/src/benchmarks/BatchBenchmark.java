@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.event.OrderBookListener;
+import main.order.OrderMessage;
+
+/**
+ * Per-message cost of {@link LimitOrderBook#processBatch} for batches of 1, 16 and 256 messages, against
+ * one {@link LimitOrderBook#process(OrderMessage)} call per message.
+ *
+ * Each invocation applies the same {@link #MESSAGES} seeded messages, so scores are per message whatever the
+ * batch size. Messages come in groups of four that leave the book as they found it: a passive add, an
+ * aggressor that trades part of the order at the touch, an update that refills that order and a cancel of
+ * the passive add. A listener and top-of-book publishing are on, since those are what batching defers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    static final int MESSAGES = 256;
+    static final long MID_PRICE = 10_000;
+    static final long TOUCH_SIZE = 100;
+    static final int LEVELS = 32;
+
+    @State(Scope.Thread)
+    public static class BatchState {
+        @Param({ "1", "16", "256" })
+        public int batchSize;
+
+        LimitOrderBook lob;
+        OrderMessage[] messages;
+        OrderMessage[][] batches;
+        long[][] buffers;
+        ProcessResult[] results;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            lob = new LimitOrderBook();
+            lob.setListener(new OrderBookListener() { });
+            lob.setTopOfBookPublishing(true);
+            OrderMessage message = new OrderMessage();
+            for (int level = 1; level <= LEVELS; level++) {
+                lob.process(message.set(-level, true, TOUCH_SIZE, MID_PRICE - level));
+                lob.process(message.set(-LEVELS - level, false, TOUCH_SIZE, MID_PRICE + level));
+            }
+
+            messages = new OrderMessage[MESSAGES];
+            Random random = new Random(42);
+            for (int i = 0; i < MESSAGES; i += 4) {
+                long uid = i + 1;
+                boolean isBid = random.nextBoolean();
+                long price = MID_PRICE + (isBid ? -1 : 1) * (2 + random.nextInt(LEVELS - 1));
+                boolean buys = random.nextBoolean();
+                long touchUid = buys ? -LEVELS - 1 : -1;
+                long touchPrice = buys ? MID_PRICE + 1 : MID_PRICE - 1;
+                messages[i] = new OrderMessage().set(uid, isBid, 1 + random.nextInt(20), price);
+                messages[i + 1] = new OrderMessage().set(uid + 1, buys, 1 + random.nextInt(20), touchPrice);
+                messages[i + 2] = new OrderMessage().set(touchUid, !buys, TOUCH_SIZE, touchPrice);
+                messages[i + 3] = new OrderMessage().set(uid, isBid, 0, price);
+            }
+
+            batches = new OrderMessage[MESSAGES / batchSize][batchSize];
+            buffers = new long[MESSAGES / batchSize][batchSize * OrderMessage.LONGS];
+            for (int i = 0; i < MESSAGES; i++) {
+                OrderMessage source = messages[i];
+                batches[i / batchSize][i % batchSize] = source;
+                OrderMessage.write(buffers[i / batchSize], i % batchSize, source.getUid(), source.isBid(),
+                        source.getSize(), source.getPrice());
+            }
+            results = new ProcessResult[batchSize];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public ProcessResult single(BatchState state) {
+        ProcessResult result = null;
+        for (OrderMessage message : state.messages) {
+            result = state.lob.process(message);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public ProcessResult[] batch(BatchState state) {
+        for (OrderMessage[] batch : state.batches) {
+            state.lob.processBatch(batch, batch.length, state.results);
+        }
+        return state.results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public ProcessResult[] batchBuffer(BatchState state) {
+        for (long[] buffer : state.buffers) {
+            state.lob.processBatch(buffer, state.batchSize, state.results);
+        }
+        return state.results;
+    }
+}
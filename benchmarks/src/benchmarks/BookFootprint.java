@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Consumer;
+
+import main.LimitOrderBook;
+import main.offheap.OffHeapOrderBook;
+import main.order.OrderMessage;
+
+/**
+ * Compares the memory footprint of the heap {@link LimitOrderBook} and the {@link OffHeapOrderBook} for
+ * deep books, and how long a full GC takes while each book is live.
+ *
+ * Run with {@code gradle :benchmarks:footprint} or {@code -Porders=N} to change the number of orders.
+ */
+public class BookFootprint {
+    static final long MID_PRICE = 100_000;
+    static final int LEVELS_PER_SIDE = 500;
+    static final int GC_RUNS = 3;
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        System.out.printf("%-10s %12s %14s %14s %12s%n", "book", "orders", "heap B/order", "direct B/order", "full GC ms");
+
+        measureHeapBook(orders);
+        measureOffHeapBook(orders);
+    }
+
+    static void measureHeapBook(int orders) {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        LimitOrderBook book = new LimitOrderBook();
+        fill(orders, message -> book.process(message));
+        report("heap", orders, heapBefore, directBefore);
+        consume(book.getOrders().size());
+    }
+
+    static void measureOffHeapBook(int orders) {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        OffHeapOrderBook book = new OffHeapOrderBook(orders, MID_PRICE - LEVELS_PER_SIDE, MID_PRICE + LEVELS_PER_SIDE);
+        fill(orders, message -> book.process(message));
+        report("off-heap", orders, heapBefore, directBefore);
+        consume(book.getOrderCount());
+    }
+
+    static void fill(int orders, Consumer<OrderMessage> book) {
+        OrderMessage message = new OrderMessage();
+        for (int uid = 0; uid < orders; uid++) {
+            boolean isBid = (uid & 1) == 0;
+            long offset = 1 + (uid >> 1) % (LEVELS_PER_SIDE - 1);
+            book.accept(message.set(uid, isBid, 1 + uid % 100, isBid ? MID_PRICE - offset : MID_PRICE + offset));
+        }
+    }
+
+    static void report(String name, int orders, long heapBefore, long directBefore) {
+        // usedHeap() runs GC_RUNS full collections with the book live.
+        long gcStart = System.nanoTime();
+        long heap = usedHeap() - heapBefore;
+        long gcMillis = (System.nanoTime() - gcStart) / 1_000_000 / GC_RUNS;
+        long direct = usedDirect() - directBefore;
+        System.out.printf("%-10s %12d %14.1f %14.1f %12d%n", name, orders, (double) heap / orders,
+                (double) direct / orders, gcMillis);
+    }
+
+    static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < GC_RUNS; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    static volatile long sink;
+
+    static void consume(long value) {
+        sink = value;
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.limits.DepthIndex;
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+import main.order.OrderMessage;
+
+/**
+ * Cumulative depth queries on a book of {@code levels} ask levels, answered by the {@link DepthIndex} and
+ * by walking the levels best first, and the cost of keeping the index up to date on the hot path.
+ *
+ * Queries reach half-way into the side, so a walk visits half of its levels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DepthIndexBenchmark {
+    static final long BASE_PRICE = 10_000;
+    static final long ORDER_SIZE = 10;
+
+    @Param({ "100", "1000" })
+    public int levels;
+
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    LimitOrderBook lob;
+    LimitLevelTree asks;
+    DepthIndex depth;
+    OrderMessage message;
+    long price;
+    long quantity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lob = new LimitOrderBook();
+        lob.setDepthIndexing(indexed);
+        message = new OrderMessage();
+        for (int level = 0; level < levels; level++) {
+            lob.process(message.set(level + 1, false, ORDER_SIZE, BASE_PRICE + level));
+        }
+        asks = lob.getAsks();
+        depth = lob.getDepthIndex(false);
+        price = BASE_PRICE + levels / 2;
+        quantity = ORDER_SIZE * levels / 2;
+    }
+
+    @Benchmark
+    public long sizeUpTo() {
+        if (indexed) {
+            return depth.getSizeUpTo(price);
+        }
+        long size = 0;
+        for (LimitLevel level = asks.getRoot(); level != null && level.getPrice() <= price;
+                level = asks.getNextLevel(level)) {
+            size += level.getSize();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public long priceForSize() {
+        if (indexed) {
+            return depth.getPriceForSize(quantity);
+        }
+        long size = 0;
+        for (LimitLevel level = asks.getRoot(); level != null; level = asks.getNextLevel(level)) {
+            size += level.getSize();
+            if (size >= quantity) {
+                return level.getPrice();
+            }
+        }
+        return DepthIndex.NO_PRICE;
+    }
+
+    /**
+     * Adds an order to a resting level and cancels it, two level size changes, to show the cost of
+     * indexing on the hot path.
+     */
+    @Benchmark
+    public LimitOrderBook addCancel() {
+        lob.process(message.set(levels + 1, false, ORDER_SIZE, price));
+        lob.process(message.set(levels + 1, false, 0, price));
+        return lob;
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.order.LongOrderMap;
+import main.order.Order;
+
+/**
+ * Measures what the add path of {@link LimitOrderBook#process(Order)} gains from branching on a single
+ * order lookup instead of attempting an update and catching the {@link NullPointerException} it throws
+ * for a new order ID.
+ *
+ * The exception variants reproduce the old dispatch against the same order index, once with the JVM's
+ * default fast-throw optimisation and once in a fork with full stack traces, as seen before the JIT
+ * kicks in or with {@code -XX:-OmitStackTraceInFastThrow}. {@code book} runs the real add path for
+ * reference. Each invocation adds a new order and removes it again so the index stays the same size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+    static final int RESTING_ORDERS = 1000;
+
+    LongOrderMap index;
+    LimitOrderBook lob;
+    Order message;
+    Order cancel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new LongOrderMap();
+        lob = new LimitOrderBook();
+        for (long uid = 1; uid <= RESTING_ORDERS; uid++) {
+            Order order = new Order(uid, true, 1, 100 - uid % 10);
+            index.put(uid, order);
+            lob.process(order);
+        }
+        message = new Order(RESTING_ORDERS + 1, true, 1, 95);
+        cancel = new Order(RESTING_ORDERS + 1, true, 0, 95);
+    }
+
+    @Benchmark
+    public Order lookupDispatch() {
+        Order existingOrder = index.get(message.getUid());
+        if (existingOrder != null) {
+            existingOrder.setSize(message.getSize());
+        } else {
+            index.put(message.getUid(), message);
+        }
+        return index.remove(message.getUid());
+    }
+
+    @Benchmark
+    public Order exceptionDispatch() {
+        try {
+            Order existingOrder = index.get(message.getUid());
+            existingOrder.setSize(message.getSize());
+        } catch (NullPointerException e) {
+            index.put(message.getUid(), message);
+        }
+        return index.remove(message.getUid());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:-OmitStackTraceInFastThrow")
+    public Order exceptionDispatchWithStackTrace() {
+        return exceptionDispatch();
+    }
+
+    @Benchmark
+    public LimitOrderBook book() {
+        lob.process(message);
+        lob.process(cancel);
+        return lob;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.order.OrderMessage;
+
+/**
+ * Trading against iceberg orders, whose displayed size is replenished inside the matching loop.
+ *
+ * The touch level holds {@code queue} iceberg orders with a reserve so large it never runs out. Each
+ * invocation sends a bid for exactly one displayed size, which fills the head order's tip; the order is
+ * replenished and moved to the tail of the queue. The cost should not depend on the queue length or on
+ * the size of the reserve.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IcebergBenchmark {
+    static final long BASE_PRICE = 10_000;
+    static final long DISPLAY_SIZE = 10;
+
+    @Param({ "1", "100" })
+    public int queue;
+
+    @Param({ "1000000000", "1000000000000000" })
+    public long reserve;
+
+    LimitOrderBook lob;
+    OrderMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lob = new LimitOrderBook();
+        message = new OrderMessage();
+        for (int i = 0; i < queue; i++) {
+            lob.process(message.set(i + 1, false, reserve, BASE_PRICE).setDisplaySize(DISPLAY_SIZE));
+        }
+    }
+
+    @Benchmark
+    public LimitOrderBook tradeTip() {
+        lob.process(message.set(queue + 1, true, DISPLAY_SIZE, BASE_PRICE));
+        return lob;
+    }
+
+    /**
+     * Sends a bid for five displayed sizes, which replenishes five tips in a single pass.
+     */
+    @Benchmark
+    public LimitOrderBook tradeFiveTips() {
+        lob.process(message.set(queue + 1, true, 5 * DISPLAY_SIZE, BASE_PRICE));
+        return lob;
+    }
+}
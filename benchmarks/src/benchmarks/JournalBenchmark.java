@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.journal.Journal;
+import main.journal.JournalSync;
+import main.order.OrderMessage;
+
+/**
+ * Per-message cost of journaling in {@link LimitOrderBook#process(OrderMessage)}.
+ *
+ * Each invocation adds or cancels a passive order, alternately, without a journal and with a journal under
+ * each {@link JournalSync} policy but {@link JournalSync#EVERY_RECORD}, whose cost is that of the device.
+ * Every iteration journals to a fresh temporary file, deleted afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+    static final long MID_PRICE = 10_000;
+    static final int SYNC_BATCH_SIZE = 4096;
+    static final int REGION_RECORDS = 1 << 20;
+
+    @State(Scope.Thread)
+    public static class JournalState {
+        @Param({ "OFF", "NONE", "BATCH" })
+        public String sync;
+
+        LimitOrderBook lob;
+        Journal journal;
+        Path path;
+        final OrderMessage message = new OrderMessage();
+        long uid = 1;
+        boolean resting;
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            lob = new LimitOrderBook();
+            if (!sync.equals("OFF")) {
+                path = Files.createTempFile("lob-bench", ".journal");
+                journal = new Journal(path, JournalSync.valueOf(sync), SYNC_BATCH_SIZE, REGION_RECORDS);
+                lob.setJournal(journal);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object process(JournalState state) {
+        OrderMessage message = state.message;
+        if (state.resting) {
+            message.set(state.uid++, true, 0, MID_PRICE);
+        } else {
+            message.set(state.uid, true, 10, MID_PRICE - (state.uid & 63));
+        }
+        state.resting = !state.resting;
+        return state.lob.process(message);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.limits.LadderLimitLevelTree;
+import main.limits.TreeMapLimitLevelTree;
+import main.order.OrderMessage;
+
+/**
+ * Level churn benchmarks: every message either opens or closes a price level.
+ *
+ * The book holds {@code bookDepth} levels per side around a fixed spread. Each invocation rests orders on
+ * {@link #CHURN} empty ticks inside the spread and then cancels them, so every message creates or deletes
+ * a level and exercises the per-side level index rather than the order queues.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelChurnBenchmark {
+    static final long MID_PRICE = 10_000;
+    static final long SPREAD = 64;
+    static final int CHURN = 16;
+
+    @State(Scope.Thread)
+    public static class ChurnState {
+        @Param({ "10", "1000" })
+        public int bookDepth;
+
+        @Param({ "treemap", "ladder" })
+        public String levelTree;
+
+        LimitOrderBook lob;
+        OrderMessage message;
+        long nextUid;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            lob = "ladder".equals(levelTree)
+                    ? new LimitOrderBook(new LadderLimitLevelTree(true), new LadderLimitLevelTree(false))
+                    : new LimitOrderBook(new TreeMapLimitLevelTree(true), new TreeMapLimitLevelTree(false));
+            message = new OrderMessage();
+            for (int level = 0; level < bookDepth; level++) {
+                lob.process(message.set(++nextUid, true, 10, MID_PRICE - SPREAD / 2 - level));
+                lob.process(message.set(++nextUid, false, 10, MID_PRICE + SPREAD / 2 + level));
+            }
+        }
+    }
+
+    @Benchmark
+    public LimitOrderBook openAndCloseLevels(ChurnState state) {
+        LimitOrderBook lob = state.lob;
+        OrderMessage message = state.message;
+        long firstUid = state.nextUid + 1;
+        for (int i = 0; i < CHURN; i++) {
+            boolean isBid = (i & 1) == 0;
+            long price = isBid ? MID_PRICE - 1 - i : MID_PRICE + 1 + i;
+            lob.process(message.set(++state.nextUid, isBid, 10, price));
+        }
+        for (int i = 0; i < CHURN; i++) {
+            lob.process(message.set(firstUid + i, (i & 1) == 0, 0, 0));
+        }
+        return lob;
+    }
+}
@@ -0,0 +1,240 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.limits.LadderLimitLevelTree;
+import main.limits.TreeMapLimitLevelTree;
+import main.marketdata.DepthSnapshot;
+import main.marketdata.LevelDeltaHandler;
+import main.order.Order;
+
+/**
+ * JMH benchmarks for {@link LimitOrderBook#process(Order)} split by message type.
+ *
+ * Every benchmark runs against a book pre-loaded with {@code bookDepth} resting orders and keeps that
+ * book in a steady state: whatever a measured message adds or removes is undone (or prepared) in an
+ * un-timed per-invocation setup. Throughput mode reports ops/us, sample-time mode reports the
+ * p50/p99/p99.9 latency distribution of a single message.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimitOrderBookBenchmark {
+    static final long SEED = 42L;
+    static final long MID_PRICE = 10_000;
+    static final int MAX_LEVELS_PER_SIDE = 200;
+    static final int MAX_ORDER_SIZE = 100;
+
+    /**
+     * A book loaded with {@code bookDepth} resting orders, half bids and half asks, spread round-robin
+     * over up to {@link #MAX_LEVELS_PER_SIDE} price levels on each side of {@link #MID_PRICE}. The
+     * {@code levelTree} parameter selects the TreeMap or tick ladder level index.
+     */
+    @State(Scope.Thread)
+    public static class BookState {
+        @Param({ "10", "1000", "100000" })
+        public int bookDepth;
+
+        @Param({ "treemap", "ladder" })
+        public String levelTree;
+
+        LimitOrderBook lob;
+        Random random;
+        int levelsPerSide;
+        long nextUid;
+        Order[] resting;
+
+        @Setup(Level.Trial)
+        public void setUpBook() {
+            lob = newBook(levelTree);
+            random = new Random(SEED);
+            int perSide = Math.max(1, bookDepth / 2);
+            levelsPerSide = Math.min(perSide, MAX_LEVELS_PER_SIDE);
+            resting = new Order[perSide * 2];
+            for (int i = 0; i < perSide; i++) {
+                resting[2 * i] = new Order(++nextUid, true, randomSize(), bidPrice(i % levelsPerSide));
+                resting[2 * i + 1] = new Order(++nextUid, false, randomSize(), askPrice(i % levelsPerSide));
+                lob.process(resting[2 * i]);
+                lob.process(resting[2 * i + 1]);
+            }
+        }
+
+        static LimitOrderBook newBook(String levelTree) {
+            switch (levelTree) {
+                case "treemap":
+                    return new LimitOrderBook(new TreeMapLimitLevelTree(true), new TreeMapLimitLevelTree(false));
+                case "ladder":
+                    return new LimitOrderBook(new LadderLimitLevelTree(true), new LadderLimitLevelTree(false));
+                default:
+                    throw new IllegalArgumentException("Unknown level tree: " + levelTree);
+            }
+        }
+
+        long bidPrice(int level) {
+            return MID_PRICE - 1 - level;
+        }
+
+        long askPrice(int level) {
+            return MID_PRICE + 1 + level;
+        }
+
+        int randomSize() {
+            return 1 + random.nextInt(MAX_ORDER_SIZE);
+        }
+
+        /**
+         * Creates a new non-crossing order at a random existing level.
+         */
+        Order passiveOrder() {
+            boolean isBid = random.nextBoolean();
+            int level = random.nextInt(levelsPerSide);
+            return new Order(++nextUid, isBid, randomSize(), isBid ? bidPrice(level) : askPrice(level));
+        }
+    }
+
+    /**
+     * Holds a fresh passive order to add; the order added by the previous invocation is cancelled first.
+     */
+    public static class AddState extends BookState {
+        Order pending;
+
+        @Setup(Level.Invocation)
+        public void prepare() {
+            if (pending != null) {
+                lob.process(new Order(pending.getUid(), pending.isBid(), 0, pending.getPrice()));
+            }
+            pending = passiveOrder();
+        }
+    }
+
+    /**
+     * Rests a fresh passive order and prepares the cancel message for it.
+     */
+    public static class CancelState extends BookState {
+        Order cancel;
+
+        @Setup(Level.Invocation)
+        public void prepare() {
+            Order order = passiveOrder();
+            lob.process(order);
+            cancel = new Order(order.getUid(), order.isBid(), 0, order.getPrice());
+        }
+    }
+
+    /**
+     * A seeded tape of size updates for orders already resting in the book.
+     */
+    public static class UpdateState extends BookState {
+        static final int TAPE_SIZE = 1 << 12;
+
+        Order[] tape;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUpTape() {
+            tape = new Order[TAPE_SIZE];
+            for (int i = 0; i < TAPE_SIZE; i++) {
+                Order target = resting[random.nextInt(resting.length)];
+                tape[i] = new Order(target.getUid(), target.isBid(), randomSize(), target.getPrice());
+            }
+        }
+
+        Order next() {
+            return tape[cursor++ & (TAPE_SIZE - 1)];
+        }
+    }
+
+    /**
+     * Replenishes the touch on alternating sides and prepares an aggressive order that consumes exactly
+     * the replenished size, so matching never empties the best level.
+     */
+    public static class MatchState extends BookState {
+        Order aggressor;
+        boolean aggressorIsBid;
+
+        @Setup(Level.Invocation)
+        public void prepare() {
+            aggressorIsBid = !aggressorIsBid;
+            int size = randomSize();
+            long touch = aggressorIsBid ? askPrice(0) : bidPrice(0);
+            lob.process(new Order(++nextUid, !aggressorIsBid, size, touch));
+            aggressor = new Order(++nextUid, aggressorIsBid, size, touch);
+        }
+    }
+
+    /**
+     * A reusable snapshot of the top {@link #DEPTH} levels, as taken by a market-data publisher after
+     * every update.
+     */
+    public static class DepthState extends BookState {
+        static final int DEPTH = 5;
+
+        DepthSnapshot snapshot = new DepthSnapshot(DEPTH);
+    }
+
+    /**
+     * The update tape with level tracking on; each update is followed by a publish of the changed levels.
+     */
+    public static class PublishState extends UpdateState {
+        long published;
+        LevelDeltaHandler handler = (action, isBid, price, size, orderCount) -> published += size;
+
+        @Setup(Level.Trial)
+        public void enableTracking() {
+            lob.setLevelTracking(true);
+        }
+    }
+
+    @Benchmark
+    public LimitOrderBook add(AddState state) {
+        state.lob.process(state.pending);
+        return state.lob;
+    }
+
+    @Benchmark
+    public LimitOrderBook update(UpdateState state) {
+        state.lob.process(state.next());
+        return state.lob;
+    }
+
+    @Benchmark
+    public LimitOrderBook cancel(CancelState state) {
+        state.lob.process(state.cancel);
+        return state.lob;
+    }
+
+    @Benchmark
+    public LimitOrderBook match(MatchState state) {
+        state.lob.process(state.aggressor);
+        return state.lob;
+    }
+
+    @Benchmark
+    public DepthSnapshot depth(DepthState state) {
+        return state.lob.getDepth(state.snapshot);
+    }
+
+    @Benchmark
+    public long updateAndPublish(PublishState state) {
+        state.lob.process(state.next());
+        state.lob.drainChangedLevels(state.handler);
+        return state.published;
+    }
+}
@@ -0,0 +1,138 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.event.OrderBookListener;
+import main.event.TradeEvent;
+import main.order.Order;
+import main.order.OrderMessage;
+
+/**
+ * Steady-state matching benchmarks meant to be run with {@code -prof gc}.
+ *
+ * All orders are pre-allocated and recycled once they have traded, or sent through a single reused
+ * {@link OrderMessage}, so any allocation reported by the GC profiler comes from the book itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchingBenchmark {
+    static final long BASE_PRICE = 10_000;
+    static final long ORDER_SIZE = 10;
+    static final int RING = 64;
+
+    /**
+     * A touch level holding {@link #QUEUE_LENGTH} orders. Each invocation appends one recycled order and
+     * an aggressor fills exactly the order at the head of the queue, so the level is never emptied.
+     */
+    @State(Scope.Thread)
+    public static class TouchState {
+        static final int QUEUE_LENGTH = 8;
+
+        LimitOrderBook lob;
+        Order[] replenish;
+        Order aggressor;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            lob = new LimitOrderBook();
+            long uid = 0;
+            for (int i = 0; i < QUEUE_LENGTH; i++) {
+                lob.process(new Order(++uid, false, ORDER_SIZE, BASE_PRICE));
+            }
+            replenish = new Order[RING];
+            for (int i = 0; i < RING; i++) {
+                replenish[i] = new Order(++uid, false, ORDER_SIZE, BASE_PRICE);
+            }
+            aggressor = new Order(++uid, true, ORDER_SIZE, BASE_PRICE);
+        }
+    }
+
+    /**
+     * An empty book. Each invocation rests one recycled order on each of {@code levels} ask levels and
+     * sends a bid that sweeps all of them, either as caller-owned orders or through one reused message.
+     * With {@code listen} set, a listener consuming every trade is subscribed to the book.
+     */
+    @State(Scope.Thread)
+    public static class SweepState {
+        @Param({ "10", "100" })
+        public int levels;
+
+        @Param({ "false", "true" })
+        public boolean listen;
+
+        long tradedVolume;
+
+        LimitOrderBook lob;
+        Order[] resting;
+        Order aggressor;
+        OrderMessage message;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            lob = new LimitOrderBook();
+            if (listen) {
+                lob.setListener(new OrderBookListener() {
+                    @Override
+                    public void onTrade(TradeEvent event) {
+                        tradedVolume += event.getSize();
+                    }
+                });
+            }
+            message = new OrderMessage();
+            resting = new Order[levels];
+            for (int level = 0; level < levels; level++) {
+                resting[level] = new Order(level + 1, false, ORDER_SIZE, BASE_PRICE + level);
+            }
+            aggressor = new Order(levels + 1, true, ORDER_SIZE * levels, BASE_PRICE + levels - 1);
+        }
+    }
+
+    @Benchmark
+    public LimitOrderBook matchTouch(TouchState state) {
+        Order order = state.replenish[state.cursor++ & (RING - 1)];
+        order.setSize(ORDER_SIZE);
+        state.lob.process(order);
+        state.aggressor.setSize(ORDER_SIZE);
+        state.lob.process(state.aggressor);
+        return state.lob;
+    }
+
+    @Benchmark
+    public LimitOrderBook sweep(SweepState state) {
+        for (Order order : state.resting) {
+            order.setSize(ORDER_SIZE);
+            state.lob.process(order);
+        }
+        state.aggressor.setSize(ORDER_SIZE * state.levels);
+        state.lob.process(state.aggressor);
+        return state.lob;
+    }
+
+    @Benchmark
+    public LimitOrderBook sweepMessages(SweepState state) {
+        OrderMessage message = state.message;
+        for (int level = 0; level < state.levels; level++) {
+            state.lob.process(message.set(level + 1, false, ORDER_SIZE, BASE_PRICE + level));
+        }
+        state.lob.process(message.set(state.levels + 1, true, ORDER_SIZE * state.levels, BASE_PRICE + state.levels - 1));
+        return state.lob;
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.metrics.BookMetrics;
+import main.order.OrderMessage;
+
+/**
+ * Per-message cost of {@link BookMetrics} recording.
+ *
+ * Each invocation adds, trades against or cancels an order near the touch. {@code process} runs without
+ * metrics and with metrics set; {@code processCompiledOut} sets metrics in a JVM started with
+ * {@code -Dlob.metrics.disabled=true} and should match the run without metrics.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    static final long MID_PRICE = 10_000;
+
+    @State(Scope.Thread)
+    public static class BookState {
+        @Param({ "false", "true" })
+        public boolean metered;
+
+        final LimitOrderBook lob = new LimitOrderBook();
+        final OrderMessage message = new OrderMessage();
+        long uid = 1;
+        int step;
+
+        @Setup
+        public void setUp() {
+            for (int level = 1; level <= 16; level++) {
+                lob.process(message.set(-level, false, 1_000_000, MID_PRICE + level));
+            }
+            if (metered) {
+                lob.setMetrics(new BookMetrics());
+            }
+        }
+
+        Object next() {
+            switch (step++ & 3) {
+                case 0:
+                    return lob.process(message.set(uid, true, 10, MID_PRICE - (uid & 15)));
+                case 1:
+                    return lob.process(message.set(uid++, true, 0, MID_PRICE));
+                case 2:
+                    return lob.process(message.set(0, true, 1, MID_PRICE + 1));
+                default:
+                    return lob.process(message.set(-1, false, 1_000_000, MID_PRICE + 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public Object process(BookState state) {
+        return state.next();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dlob.metrics.disabled=true")
+    public Object processCompiledOut(BookState state) {
+        return state.next();
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.order.LongOrderMap;
+import main.order.Order;
+
+/**
+ * Compares the order ID index used by {@link main.LimitOrderBook} against the boxed TreeMap it replaced,
+ * for lookups and for the remove/re-insert churn of cancel and add messages. Run with {@code -prof gc} to
+ * compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class OrderIndexBenchmark {
+    static final int KEY_MASK = (1 << 16) - 1;
+
+    @Param({ "1000", "1000000" })
+    public int orders;
+
+    TreeMap<Long, Order> treeMap;
+    LongOrderMap longOrderMap;
+    long[] keys;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        treeMap = new TreeMap<>();
+        longOrderMap = new LongOrderMap();
+        Random random = new Random(42);
+        for (long uid = 1; uid <= orders; uid++) {
+            Order order = new Order(uid, true, 1, 100);
+            treeMap.put(uid, order);
+            longOrderMap.put(uid, order);
+        }
+        keys = new long[KEY_MASK + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1 + random.nextInt(orders);
+        }
+    }
+
+    @Benchmark
+    public Order treeMapGet() {
+        return treeMap.get(keys[cursor++ & KEY_MASK]);
+    }
+
+    @Benchmark
+    public Order longOrderMapGet() {
+        return longOrderMap.get(keys[cursor++ & KEY_MASK]);
+    }
+
+    @Benchmark
+    public Order treeMapRemovePut() {
+        long uid = keys[cursor++ & KEY_MASK];
+        Order order = treeMap.remove(uid);
+        treeMap.put(uid, order);
+        return order;
+    }
+
+    @Benchmark
+    public Order longOrderMapRemovePut() {
+        long uid = keys[cursor++ & KEY_MASK];
+        Order order = longOrderMap.remove(uid);
+        longOrderMap.put(uid, order);
+        return order;
+    }
+}
@@ -0,0 +1,135 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.order.OrderMessage;
+import main.pipeline.OrderBookPipeline;
+import main.pipeline.WaitStrategy;
+
+/**
+ * Multi-producer throughput of {@link OrderBookPipeline} against a book shared behind a synchronized block.
+ *
+ * Every benchmark thread is a producer that alternately adds and cancels its own passive order, so the
+ * book stays small and every message reaches the book. The pipeline's engine thread is not a benchmark
+ * thread and needs a core of its own for the results to be meaningful.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+    static final int RING_CAPACITY = 1 << 16;
+    static final int BATCH_SIZE = 256;
+    static final long MID_PRICE = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class PipelineState {
+        @Param({ "BUSY_SPIN", "YIELDING" })
+        public WaitStrategy waitStrategy;
+
+        OrderBookPipeline pipeline;
+
+        @Setup(Level.Trial)
+        public void start() {
+            pipeline = new OrderBookPipeline(new LimitOrderBook(), RING_CAPACITY, 0, BATCH_SIZE, waitStrategy);
+            pipeline.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            pipeline.stop();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SynchronizedState {
+        final LimitOrderBook lob = new LimitOrderBook();
+    }
+
+    /**
+     * A producer's own order ID range and reused message.
+     */
+    @State(Scope.Thread)
+    public static class ProducerState {
+        static final AtomicInteger PRODUCERS = new AtomicInteger();
+
+        final OrderMessage message = new OrderMessage();
+        final long firstUid = (long) PRODUCERS.incrementAndGet() << 40;
+        long uid = firstUid;
+        boolean resting;
+
+        OrderMessage next() {
+            if (resting) {
+                message.set(uid++, true, 0, MID_PRICE);
+            } else {
+                message.set(uid, true, 10, MID_PRICE - (uid & 63));
+            }
+            resting = !resting;
+            return message;
+        }
+    }
+
+    static long submit(PipelineState state, ProducerState producer) {
+        return state.pipeline.submit(producer.next());
+    }
+
+    static Object process(SynchronizedState state, ProducerState producer) {
+        synchronized (state.lob) {
+            return state.lob.process(producer.next());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long pipeline1(PipelineState state, ProducerState producer) {
+        return submit(state, producer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long pipeline4(PipelineState state, ProducerState producer) {
+        return submit(state, producer);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long pipeline16(PipelineState state, ProducerState producer) {
+        return submit(state, producer);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object synchronized1(SynchronizedState state, ProducerState producer) {
+        return process(state, producer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object synchronized4(SynchronizedState state, ProducerState producer) {
+        return process(state, producer);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object synchronized16(SynchronizedState state, ProducerState producer) {
+        return process(state, producer);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.order.OrderMessage;
+
+/**
+ * Time to write a binary snapshot of a deep book, and to restore a fresh book from it.
+ *
+ * The book holds {@code orders} resting orders spread over 1000 levels per side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class SnapshotBenchmark {
+    static final long MID_PRICE = 100_000;
+    static final int LEVELS_PER_SIDE = 1000;
+
+    @State(Scope.Thread)
+    public static class SnapshotState {
+        @Param({ "100000", "1000000" })
+        public int orders;
+
+        LimitOrderBook lob;
+        Path path;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            lob = new LimitOrderBook();
+            OrderMessage message = new OrderMessage();
+            for (int i = 0; i < orders; i++) {
+                boolean isBid = i % 2 == 0;
+                long offset = 1 + i / 2 % LEVELS_PER_SIDE;
+                lob.process(message.set(i + 1, isBid, 10, isBid ? MID_PRICE - offset : MID_PRICE + offset));
+            }
+            path = Files.createTempFile("lob-bench", ".snapshot");
+            lob.writeSnapshot(path, orders);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public Path write(SnapshotState state) throws IOException {
+        state.lob.writeSnapshot(state.path, state.orders);
+        return state.path;
+    }
+
+    @Benchmark
+    public LimitOrderBook restore(SnapshotState state) throws IOException {
+        LimitOrderBook restored = new LimitOrderBook();
+        restored.restoreSnapshot(state.path);
+        return restored;
+    }
+}
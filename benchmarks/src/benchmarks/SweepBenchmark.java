@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.order.OrderMessage;
+import main.order.OrderType;
+
+/**
+ * Large aggressive immediate orders sweeping {@code levels} ask levels in one pass.
+ *
+ * Each invocation rests one order on each level through a reused message and then sends an order of the
+ * given type for the whole side, so a sweep and the refill it needs are measured together; compare with
+ * {@link MatchingBenchmark#sweepMessages}, which sends the same aggressor as a limit order.
+ * {@link #fillOrKillRejected} measures the feasibility check alone, for an order one lot larger than the
+ * side, which leaves the book untouched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweepBenchmark {
+    static final long BASE_PRICE = 10_000;
+    static final long ORDER_SIZE = 10;
+
+    /**
+     * Rests one order of {@link #ORDER_SIZE} lots on each of {@code levels} ask levels.
+     */
+    static void refill(LimitOrderBook book, OrderMessage message, int levels) {
+        for (int level = 0; level < levels; level++) {
+            book.process(message.set(level + 1, false, ORDER_SIZE, BASE_PRICE + level));
+        }
+    }
+
+    /**
+     * An empty book, refilled by every invocation before the sweep.
+     */
+    @State(Scope.Thread)
+    public static class SweepState {
+        @Param({ "100", "500" })
+        public int levels;
+
+        @Param({ "MARKET", "IMMEDIATE_OR_CANCEL", "FILL_OR_KILL" })
+        public OrderType type;
+
+        LimitOrderBook lob;
+        OrderMessage message;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            lob = new LimitOrderBook();
+            message = new OrderMessage();
+        }
+    }
+
+    /**
+     * A book holding {@code levels} ask levels that no benchmark changes.
+     */
+    @State(Scope.Thread)
+    public static class FullState {
+        @Param({ "100", "500" })
+        public int levels;
+
+        LimitOrderBook lob;
+        OrderMessage message;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            lob = new LimitOrderBook();
+            message = new OrderMessage();
+            refill(lob, message, levels);
+        }
+    }
+
+    @Benchmark
+    public LimitOrderBook sweep(SweepState state) {
+        refill(state.lob, state.message, state.levels);
+        state.lob.process(state.message.set(state.levels + 1, true, ORDER_SIZE * state.levels,
+                BASE_PRICE + state.levels - 1).setType(state.type));
+        return state.lob;
+    }
+
+    @Benchmark
+    public LimitOrderBook fillOrKillRejected(FullState state) {
+        state.lob.process(state.message.set(state.levels + 1, true, ORDER_SIZE * state.levels + 1,
+                BASE_PRICE + state.levels - 1).setType(OrderType.FILL_OR_KILL));
+        return state.lob;
+    }
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.LimitOrderBook;
+import main.marketdata.TopOfBook;
+import main.marketdata.TopOfBookSnapshot;
+import main.order.OrderMessage;
+
+/**
+ * Engine throughput of {@link LimitOrderBook#process(OrderMessage)} while reader threads poll its
+ * {@link TopOfBook}.
+ *
+ * The engine alternately adds and cancels an order at a new best bid, so every message publishes a record.
+ * Compare the engine's score in the {@code alone} group with its score in the groups with 4 and 16 readers;
+ * the machine needs a core per thread for the comparison to be meaningful.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopOfBookBenchmark {
+    static final long MID_PRICE = 10_000;
+
+    @State(Scope.Group)
+    public static class EngineState {
+        final LimitOrderBook lob = new LimitOrderBook();
+        final OrderMessage message = new OrderMessage();
+        final TopOfBook top;
+        long uid = 1;
+        boolean resting;
+
+        public EngineState() {
+            lob.process(message.set(0, true, 10, MID_PRICE));
+            lob.process(message.set(Long.MAX_VALUE, false, 10, MID_PRICE + 100));
+            lob.setTopOfBookPublishing(true);
+            top = lob.getTopOfBook();
+        }
+
+        Object next() {
+            if (resting) {
+                message.set(uid++, true, 0, MID_PRICE + 1);
+            } else {
+                message.set(uid, true, 10, MID_PRICE + 1);
+            }
+            resting = !resting;
+            return lob.process(message);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReaderState {
+        final TopOfBookSnapshot snapshot = new TopOfBookSnapshot();
+    }
+
+    @Benchmark
+    @Group("alone")
+    @GroupThreads(1)
+    public Object aloneEngine(EngineState state) {
+        return state.next();
+    }
+
+    @Benchmark
+    @Group("readers4")
+    @GroupThreads(1)
+    public Object readers4Engine(EngineState state) {
+        return state.next();
+    }
+
+    @Benchmark
+    @Group("readers4")
+    @GroupThreads(4)
+    public double readers4Reader(EngineState state, ReaderState reader) {
+        return state.top.read(reader.snapshot).getMidPrice();
+    }
+
+    @Benchmark
+    @Group("readers16")
+    @GroupThreads(1)
+    public Object readers16Engine(EngineState state) {
+        return state.next();
+    }
+
+    @Benchmark
+    @Group("readers16")
+    @GroupThreads(16)
+    public double readers16Reader(EngineState state, ReaderState reader) {
+        return state.top.read(reader.snapshot).getMidPrice();
+    }
+}
@@ -0,0 +1,207 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+import main.order.Order;
+import main.pool.ObjectPool;
+
+/**
+ * Writes and restores binary snapshots of every resting order in a {@link LimitOrderBook}.
+ *
+ * A snapshot is a header followed by the bid levels, best first, then the ask levels, best first. Each
+ * level is its price, displayed size and order count followed by its orders' IDs, displayed sizes,
+ * timestamps, display sizes and hidden sizes in queue-priority order.
+ * All values are little-endian longs streamed through a direct buffer and a {@link FileChannel}, so no
+ * order is serialized as an object. Restoring rebuilds each level and its order queue directly, without
+ * matching, and checks every level's size against the recorded one.
+ *
+ * A snapshot is written to a temporary sibling file, forced to the device and then atomically moved over
+ * the previous one, so a crash while writing leaves the last good snapshot in place.
+ */
+final class BookSnapshot {
+    private static final long MAGIC = 0x3150_414E_5342_4F4CL; // "LOBSNAP1" as little-endian bytes
+    private static final int VERSION = 3; // Format version, 2 adding order timestamps and 3 iceberg sizes
+    private static final int HEADER_SIZE = 48; // Magic, version, reserved, sequence, level and order counts
+    private static final int LEVEL_SIZE = 24; // Price, size and order count
+    private static final int ORDER_SIZE = 40; // Order ID, size, timestamp, display size and hidden size
+    private static final int BUFFER_SIZE = 1 << 20; // Bytes streamed per channel write or read
+
+    private BookSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a book to a file, atomically replacing any previous snapshot once the new one is
+     * durable.
+     *
+     * @param book     The book to snapshot.
+     * @param path     The snapshot file.
+     * @param sequence The sequence number the snapshot reflects, e.g. that of the last journaled message.
+     * @throws IOException If the file cannot be written or moved into place; the previous snapshot is kept.
+     */
+    static void write(LimitOrderBook book, Path path, long sequence) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            writeFile(book, temporary, sequence);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Write a snapshot of a book to a new file and force it to the device.
+     *
+     * @param book     The book to snapshot.
+     * @param path     The file, replaced if it exists.
+     * @param sequence The sequence number the snapshot reflects.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeFile(LimitOrderBook book, Path path, long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(0);
+            buffer.putLong(sequence);
+            buffer.putLong(book.getBids().getSize());
+            buffer.putLong(book.getAsks().getSize());
+            buffer.putLong(book.getOrders().size());
+            writeSide(book.getBids(), channel, buffer);
+            writeSide(book.getAsks(), channel, buffer);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Restores an empty book from a snapshot file. No events are emitted and nothing is journaled.
+     *
+     * @param book The book to restore into, which must be empty.
+     * @param path The snapshot file.
+     * @return The sequence number the snapshot reflects.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    static long restore(LimitOrderBook book, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            require(channel, buffer, HEADER_SIZE);
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Not a book snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            buffer.getInt();
+            long sequence = buffer.getLong();
+            long bidLevels = buffer.getLong();
+            long askLevels = buffer.getLong();
+            long orders = buffer.getLong();
+            if (orders < 0 || orders > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot order count " + orders + ": " + path);
+            }
+            book.beginRestore((int) orders);
+            long restored = readSide(book, true, bidLevels, channel, buffer);
+            restored += readSide(book, false, askLevels, channel, buffer);
+            book.endRestore();
+            if (restored != orders) {
+                throw new IOException("Snapshot holds " + restored + " orders, header says " + orders);
+            }
+            return sequence;
+        }
+    }
+
+    private static void writeSide(LimitLevelTree side, FileChannel channel, ByteBuffer buffer) throws IOException {
+        for (LimitLevel level = side.getRoot(); level != null; level = side.getNextLevel(level)) {
+            ensureSpace(channel, buffer, LEVEL_SIZE);
+            buffer.putLong(level.getPrice());
+            buffer.putLong(level.getSize());
+            buffer.putLong(level.getLength());
+            for (Order order = level.getOrders().getHead(); order != null; order = order.getNextItem()) {
+                ensureSpace(channel, buffer, ORDER_SIZE);
+                buffer.putLong(order.getUid());
+                buffer.putLong(order.getSize());
+                buffer.putLong(order.getTime());
+                buffer.putLong(order.getDisplaySize());
+                buffer.putLong(order.getHiddenSize());
+            }
+        }
+    }
+
+    private static long readSide(LimitOrderBook book, boolean isBid, long levels, FileChannel channel,
+            ByteBuffer buffer) throws IOException {
+        ObjectPool<LimitLevel> levelPool = book.getLevelPool();
+        ObjectPool<Order> orderPool = book.getOrderPool();
+        long restored = 0;
+        for (long i = 0; i < levels; i++) {
+            require(channel, buffer, LEVEL_SIZE);
+            long price = buffer.getLong();
+            long size = buffer.getLong();
+            long count = buffer.getLong();
+            if (count <= 0) {
+                throw new IOException("Corrupt snapshot level at price " + price + " with " + count + " orders");
+            }
+            LimitLevel level = levelPool.acquire();
+            level.reset(price);
+            for (long j = 0; j < count; j++) {
+                require(channel, buffer, ORDER_SIZE);
+                Order order = orderPool.acquire();
+                order.reset(buffer.getLong(), isBid, buffer.getLong(), price, buffer.getLong());
+                order.setDisplaySize(buffer.getLong());
+                order.setHiddenSize(buffer.getLong());
+                level.append(order);
+                book.getOrders().put(order.getUid(), order);
+            }
+            if (level.getSize() != size) {
+                throw new IOException("Corrupt snapshot level at price " + price + ": size " + level.getSize()
+                        + ", recorded " + size);
+            }
+            book.restoreLevel(isBid, level);
+            restored += count;
+        }
+        return restored;
+    }
+
+    /**
+     * Write out the buffered bytes if fewer than the given number of bytes can still be buffered.
+     */
+    private static void ensureSpace(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Read from the channel until at least the given number of bytes can be taken from the buffer.
+     */
+    private static void require(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,99 @@
+package main;
+
+/**
+ * Represents the tick size and lot size of an instrument.
+ *
+ * Inside the book prices are long tick counts and sizes are long lot counts; this class converts between
+ * those and decimal prices and sizes at the API edge.
+ */
+public class FixedPointScale {
+    public static final FixedPointScale UNIT = new FixedPointScale(1, 1); // One tick = 1.0, one lot = 1.0
+
+    private static final double EPSILON = 1e-9; // Tolerance, relative to one increment, for grid checks
+
+    private final double tickSize; // The minimum price increment
+    private final double lotSize; // The minimum size increment
+
+    /**
+     * Constructs a FixedPointScale object.
+     *
+     * @param tickSize The minimum price increment.
+     * @param lotSize  The minimum size increment.
+     */
+    public FixedPointScale(double tickSize, double lotSize) {
+        if (!(tickSize > 0) || !(lotSize > 0)) {
+            throw new IllegalArgumentException("tickSize and lotSize must be positive: " + tickSize + ", " + lotSize);
+        }
+        this.tickSize = tickSize;
+        this.lotSize = lotSize;
+    }
+
+    /**
+     * Converts a decimal price to a number of ticks.
+     *
+     * @param price The price to convert.
+     * @return The price in ticks.
+     * @throws IllegalArgumentException If the price is not a multiple of the tick size.
+     */
+    public long toTicks(double price) {
+        return toUnits(price, tickSize, "price");
+    }
+
+    /**
+     * Converts a number of ticks to a decimal price.
+     *
+     * @param ticks The price in ticks.
+     * @return The decimal price.
+     */
+    public double toPrice(long ticks) {
+        return ticks * tickSize;
+    }
+
+    /**
+     * Converts a decimal size to a number of lots.
+     *
+     * @param size The size to convert.
+     * @return The size in lots.
+     * @throws IllegalArgumentException If the size is not a multiple of the lot size.
+     */
+    public long toLots(double size) {
+        return toUnits(size, lotSize, "size");
+    }
+
+    /**
+     * Converts a number of lots to a decimal size.
+     *
+     * @param lots The size in lots.
+     * @return The decimal size.
+     */
+    public double toSize(long lots) {
+        return lots * lotSize;
+    }
+
+    /**
+     * Retrieves the tick size.
+     *
+     * @return The minimum price increment.
+     */
+    public double getTickSize() {
+        return tickSize;
+    }
+
+    /**
+     * Retrieves the lot size.
+     *
+     * @return The minimum size increment.
+     */
+    public double getLotSize() {
+        return lotSize;
+    }
+
+    private static long toUnits(double value, double increment, String name) {
+        double units = value / increment;
+        long rounded = Math.round(units);
+        if (Math.abs(units - rounded) > EPSILON * Math.max(1, Math.abs(units))) {
+            throw new IllegalArgumentException(name + " " + value + " is not a multiple of " + increment);
+        }
+        return rounded;
+    }
+}
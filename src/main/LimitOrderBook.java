@@ -1,32 +1,115 @@
 package main;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.TreeMap;
 
+import main.event.LevelEvent;
+import main.event.OrderBookListener;
+import main.event.OrderEvent;
+import main.event.TradeEvent;
+import main.journal.Journal;
+import main.limits.DepthIndex;
 import main.limits.LimitLevel;
 import main.limits.LimitLevelTree;
+import main.limits.TreeMapLimitLevelTree;
+import main.marketdata.DepthSnapshot;
+import main.marketdata.LevelChangeTracker;
+import main.marketdata.LevelDeltaHandler;
+import main.marketdata.TopOfBook;
+import main.metrics.BookMetrics;
+import main.metrics.BookMetricsSnapshot;
+import main.metrics.BookOperation;
+import main.order.LongOrderMap;
 import main.order.Order;
+import main.order.OrderClock;
+import main.order.OrderList;
+import main.order.OrderMessage;
+import main.order.OrderType;
+import main.pool.ObjectPool;
 
 /**
  * Represents a limit order book in a trading system.
+ *
+ * Prices and sizes are held as long tick and lot counts; the book's {@link FixedPointScale} converts
+ * decimal values at the API edge. Resting orders are timestamped from the book's {@link OrderClock}.
  */
 public class LimitOrderBook {
+    private static final int MAX_POOLED_ORDERS = 1 << 20; // Free orders kept for reuse
+    private static final int MAX_POOLED_LEVELS = 1 << 14; // Free limit levels kept for reuse
+
     private LimitLevelTree bids; // Tree for bid (buy) limit levels
     private LimitLevelTree asks; // Tree for ask (sell) limit levels
-    private TreeMap<Double, LimitLevel> priceLevelsMap; // Map of price levels to limit levels
-    private TreeMap<Long, Order> ordersMap; // Map of order IDs to orders
+    private LongOrderMap ordersMap; // Map of order IDs to orders
+    private final FixedPointScale scale; // Tick and lot size of the instrument
+    private final ObjectPool<Order> orderPool; // Recycled orders for messages that rest
+    private final ObjectPool<LimitLevel> levelPool; // Recycled limit levels and their order lists
+    private LevelChangeTracker changedLevels; // Levels changed since the last drain, null while tracking is off
+    private OrderBookListener listener; // Receiver of order, trade and level events, or null
+    private TopOfBook topOfBook; // Best levels published for reader threads, null while publishing is off
+    private Journal journal; // Journal of the messages that changed the book, or null
+    private BookMetrics metrics; // Hot-path metrics, or null while metering is off
+    private OrderClock clock = OrderClock.NANO_TIME; // Source of resting orders' timestamps
+    private long sequence; // Number of messages processed, the timestamp under OrderClock.SEQUENCE
+    private long matchPrice; // Price of the last level the latest match traded at
+    private long swept; // Size the latest immediate order traded, journaled in its place
+    private LimitLevel bestBid; // Cached root of the bid tree
+    private LimitLevel bestAsk; // Cached root of the ask tree
+    private DepthIndex bidDepth; // Cumulative depth of the bids, null while depth indexing is off
+    private DepthIndex askDepth; // Cumulative depth of the asks, null while depth indexing is off
+    private LevelChangeTracker batchLevels; // Reused tracker for level events deferred to the end of a batch
+    private LevelChangeTracker deferredLevels; // batchLevels while a batch defers level events, otherwise null
+    private final OrderEvent orderEvent = new OrderEvent(); // Reused flyweight for order events
+    private final TradeEvent tradeEvent = new TradeEvent(); // Reused flyweight for trade events
+    private final LevelEvent levelEvent = new LevelEvent(); // Reused flyweight for level events
+    private final LevelDeltaHandler deferredLevelHandler = (action, isBid, price, size, orderCount) ->
+            listener.onLevelChanged(levelEvent.set(isBid, price, size, orderCount)); // Emits deferred level events
 
     /**
-     * Constructs a LimitOrderBook object.
+     * Constructs a LimitOrderBook object backed by TreeMap limit level trees, with unit tick and lot sizes.
      */
     public LimitOrderBook() {
-        this.bids = new LimitLevelTree(true);
-        this.asks = new LimitLevelTree(false);
-        this.priceLevelsMap = new TreeMap<>();
-        this.ordersMap = new TreeMap<>();
+        this(FixedPointScale.UNIT);
+    }
+
+    /**
+     * Constructs a LimitOrderBook object backed by TreeMap limit level trees.
+     *
+     * @param scale The tick and lot size of the instrument.
+     */
+    public LimitOrderBook(FixedPointScale scale) {
+        this(scale, new TreeMapLimitLevelTree(true), new TreeMapLimitLevelTree(false));
+    }
+
+    /**
+     * Constructs a LimitOrderBook object with the given limit level trees and unit tick and lot sizes.
+     *
+     * @param bids The tree holding bid (buy) limit levels, ordered best (highest) first.
+     * @param asks The tree holding ask (sell) limit levels, ordered best (lowest) first.
+     */
+    public LimitOrderBook(LimitLevelTree bids, LimitLevelTree asks) {
+        this(FixedPointScale.UNIT, bids, asks);
+    }
+
+    /**
+     * Constructs a LimitOrderBook object with the given limit level trees, e.g. a
+     * {@link main.limits.LadderLimitLevelTree} for instruments trading in a bounded band of ticks.
+     *
+     * @param scale The tick and lot size of the instrument.
+     * @param bids The tree holding bid (buy) limit levels, ordered best (highest) first.
+     * @param asks The tree holding ask (sell) limit levels, ordered best (lowest) first.
+     */
+    public LimitOrderBook(FixedPointScale scale, LimitLevelTree bids, LimitLevelTree asks) {
+        this.scale = scale;
+        this.bids = bids;
+        this.asks = asks;
+        this.ordersMap = new LongOrderMap();
+        this.orderPool = new ObjectPool<>(Order::new, MAX_POOLED_ORDERS);
+        this.levelPool = new ObjectPool<>(LimitLevel::new, MAX_POOLED_LEVELS);
+        this.bestBid = bids.getRoot();
+        this.bestAsk = asks.getRoot();
     }
 
     /**
@@ -41,197 +124,970 @@ public class LimitOrderBook {
     /**
      * Calculates the mid price of the order book.
      *
-     * @return The mid price.
+     * @return The decimal mid price.
      */
     public double getMidPrice() {
         LimitLevel[] top = topLevel();
-        return (top[0].getPrice() + top[1].getPrice()) / 2.0;
+        return scale.toPrice(top[0].getPrice() + top[1].getPrice()) / 2.0;
+    }
+
+    /**
+     * Creates an order from a decimal size and price, converting them to lots and ticks.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The decimal size of the order.
+     * @param price The decimal price of the order.
+     * @return The order to pass to {@link #process(Order)}.
+     */
+    public Order newOrder(long uid, boolean isBid, double size, double price) {
+        return new Order(uid, isBid, scale.toLots(size), scale.toTicks(price));
     }
 
     /**
      * Processes an order and updates the order book accordingly.
      *
+     * A message with size 0 cancels the resting order with the same ID, a message for a resting ID
+     * updates that order's size and any other message is added to the book, matching first if it crosses.
+     * If the order rests, the book keeps this instance and never recycles it.
+     *
      * @param order The order to process.
+     * @return The outcome of the message.
+     */
+    public ProcessResult process(Order order) {
+        ProcessResult result = process(order.getUid(), order.isBid(), order.getSize(), order.getPrice(),
+                order.getTime(), OrderType.LIMIT, order.getDisplaySize(), order);
+        if (topOfBook != null) {
+            topOfBook.publish(bestBid, bestAsk);
+        }
+        return result;
+    }
+
+    /**
+     * Processes an inbound order message and updates the order book accordingly.
+     *
+     * Behaves like {@link #process(Order)}, but the book does not keep a reference to the message: an
+     * order that rests is copied into a pooled {@link Order}, so the caller may reuse the message.
+     *
+     * A message of an immediate {@link OrderType} sweeps the opposite side in one pass and never rests:
+     * the result is {@link ProcessResult#FILLED}, {@link ProcessResult#EXPIRED} if only part of it traded,
+     * or {@link ProcessResult#KILLED} if none of it did. A fill-or-kill order is checked against the size
+     * available up to its price before anything is changed. An immediate message for a resting ID, or
+     * with size 0, is rejected.
+     *
+     * A limit message with a display size rests as an iceberg order: only the display size is shown in its
+     * level's size and the rest is hidden. Each time the displayed part trades in full it is replenished
+     * from the hidden part and the order moves to the back of its queue.
+     *
+     * @param message The order message to process.
+     * @return The outcome of the message.
+     */
+    public ProcessResult process(OrderMessage message) {
+        ProcessResult result = process(message.getUid(), message.isBid(), message.getSize(), message.getPrice(),
+                message.getTimestamp(), message.getType(), message.getDisplaySize(), null);
+        if (topOfBook != null) {
+            topOfBook.publish(bestBid, bestAsk);
+        }
+        return result;
+    }
+
+    /**
+     * Processes a batch of inbound order messages in order, as {@link #process(OrderMessage)} would.
+     *
+     * Order and trade events are delivered as each message is applied, but level events are deferred to
+     * the end of the batch and delivered once per changed level with its final state, and the top of book
+     * is published once per batch. A level emptied within the batch is reported with an order count of 0
+     * after it has been removed.
+     *
+     * @param messages The messages to process.
+     * @param count    The number of messages to process, from index 0.
+     * @param results  The array to write each message's outcome to, at the message's index.
+     * @return The results array, for chaining.
+     * @throws IllegalArgumentException If either array holds fewer than count entries.
+     */
+    public ProcessResult[] processBatch(OrderMessage[] messages, int count, ProcessResult[] results) {
+        checkBatch(messages.length, count, results);
+        beginBatch();
+        for (int i = 0; i < count; i++) {
+            OrderMessage message = messages[i];
+            results[i] = process(message.getUid(), message.isBid(), message.getSize(), message.getPrice(),
+                    message.getTimestamp(), message.getType(), message.getDisplaySize(), null);
+        }
+        endBatch();
+        return results;
+    }
+
+    /**
+     * Processes a batch of order messages packed into a flat buffer, as
+     * {@link #processBatch(OrderMessage[], int, ProcessResult[])} would. Message i occupies
+     * {@link OrderMessage#LONGS} entries from index {@code i * OrderMessage.LONGS}, in the layout written
+     * by {@link OrderMessage#write(long[], int, long, boolean, long, long, long, OrderType, long)}. A message
+     * whose type ordinal names no {@link OrderType} is rejected.
+     *
+     * @param buffer  The packed messages.
+     * @param count   The number of messages to process, from index 0.
+     * @param results The array to write each message's outcome to, at the message's index.
+     * @return The results array, for chaining.
+     * @throws IllegalArgumentException If the buffer or results array holds fewer than count messages.
+     */
+    public ProcessResult[] processBatch(long[] buffer, int count, ProcessResult[] results) {
+        checkBatch(buffer.length / OrderMessage.LONGS, count, results);
+        beginBatch();
+        for (int i = 0, offset = 0; i < count; i++, offset += OrderMessage.LONGS) {
+            long side = buffer[offset + OrderMessage.SIDE];
+            results[i] = process(buffer[offset + OrderMessage.UID], (side & 1) != 0,
+                    buffer[offset + OrderMessage.SIZE], buffer[offset + OrderMessage.PRICE],
+                    buffer[offset + OrderMessage.TIMESTAMP],
+                    OrderType.find((int) (side >>> OrderMessage.TYPE_SHIFT) & OrderMessage.TYPE_MASK),
+                    side >>> OrderMessage.DISPLAY_SHIFT, null);
+        }
+        endBatch();
+        return results;
+    }
+
+    /**
+     * Check that a batch and its results array hold enough entries.
+     *
+     * @param available The number of messages the batch holds.
+     * @param count     The number of messages to process.
+     * @param results   The array for the outcomes.
+     */
+    private static void checkBatch(int available, int count, ProcessResult[] results) {
+        if (count < 0 || count > available || count > results.length) {
+            throw new IllegalArgumentException("count " + count + " exceeds the batch (" + available
+                    + ") or results (" + results.length + ") length");
+        }
+    }
+
+    /**
+     * Start deferring level events until {@link #endBatch()}, if there is a listener to receive them.
+     */
+    private void beginBatch() {
+        if (listener != null) {
+            if (batchLevels == null) {
+                batchLevels = new LevelChangeTracker();
+            }
+            deferredLevels = batchLevels;
+        }
+    }
+
+    /**
+     * Deliver the level events deferred by the batch and publish the top of book.
+     */
+    private void endBatch() {
+        if (deferredLevels != null) {
+            deferredLevels = null;
+            batchLevels.drain(bids, asks, deferredLevelHandler);
+        }
+        if (topOfBook != null) {
+            topOfBook.publish(bestBid, bestAsk);
+        }
+    }
+
+    /**
+     * Processes an order message given by its fields and journals it unless it was rejected. An immediate
+     * order is journaled as the limit order for the size it traded at the last price it reached, which
+     * changes the book the same way on replay; one that did not trade is not journaled. The record carries
+     * the supplied timestamp if there is one or the book uses {@link OrderClock#EXCHANGE}, and the
+     * journal's clock otherwise.
+     *
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots, 0 to cancel.
+     * @param price       The price of the order in ticks.
+     * @param timestamp   The supplied timestamp of the order, or 0.
+     * @param type        How the order trades and whether it may rest, or null to reject the message.
+     * @param displaySize The size in lots an iceberg order displays at a time, or 0 to display all of it.
+     * @param order       The caller's order to rest, or null to rest a pooled copy.
+     * @return The outcome of the message.
      */
-    public void process(Order order) {
-        if (order.getSize() == 0) {
-            remove(order);
+    private ProcessResult process(long uid, boolean isBid, long size, long price, long timestamp, OrderType type,
+            long displaySize, Order order) {
+        sequence++;
+        ProcessResult result;
+        if (metering()) {
+            long start = System.nanoTime();
+            result = apply(uid, isBid, size, price, timestamp, type, displaySize, order);
+            metrics.recordLatency(BookOperation.PROCESS, System.nanoTime() - start);
+            metrics.recordResult(result);
         } else {
-            try {
-                update(order);
-            } catch (NullPointerException e) {
-                add(order);
+            result = apply(uid, isBid, size, price, timestamp, type, displaySize, order);
+        }
+        if (journal != null && result != ProcessResult.REJECTED) {
+            // A supplied timestamp is journaled as given, so replay restores the times the book kept.
+            boolean supplied = timestamp != 0 || clock == OrderClock.EXCHANGE;
+            if (type.isImmediate()) {
+                if (swept > 0) {
+                    if (supplied) {
+                        journal.append(timestamp, uid, isBid, swept, matchPrice);
+                    } else {
+                        journal.append(uid, isBid, swept, matchPrice);
+                    }
+                }
+            } else if (supplied) {
+                journal.append(timestamp, uid, isBid, size, price, displaySize);
+            } else if (displaySize > 0) {
+                journal.appendIceberg(uid, isBid, size, price, displaySize);
+            } else {
+                journal.append(uid, isBid, size, price);
             }
         }
+        return result;
     }
+
     /**
-     * Update an existing order in the order book.
-     * 
-     * @param order The updated order.
+     * Applies an order message given by its fields to the book.
+     *
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots, 0 to cancel.
+     * @param price       The price of the order in ticks.
+     * @param timestamp   The supplied timestamp of the order, or 0.
+     * @param type        How the order trades and whether it may rest, or null to reject the message.
+     * @param displaySize The size in lots an iceberg order displays at a time, or 0 to display all of it.
+     * @param order       The caller's order to rest, or null to rest a pooled copy.
+     * @return The outcome of the message.
      */
-    private void update(Order order) {
-        Order existingOrder = ordersMap.get(order.getUid());
-        double sizeDiff = existingOrder.getSize() - order.getSize();
-        existingOrder.setSize(order.getSize());
-        existingOrder.getParentLimit().setSize(existingOrder.getParentLimit().getSize() - sizeDiff);
+    private ProcessResult apply(long uid, boolean isBid, long size, long price, long timestamp, OrderType type,
+            long displaySize, Order order) {
+        if (size < 0 || displaySize < 0 || type == null) {
+            return ProcessResult.REJECTED;
+        }
+        Order existingOrder = ordersMap.get(uid);
+        if (type.isImmediate()) {
+            return size == 0 || existingOrder != null ? ProcessResult.REJECTED : take(uid, isBid, size, price, type);
+        }
+        if (size == 0) {
+            if (existingOrder == null) {
+                return ProcessResult.REJECTED;
+            }
+            long start = metering() ? System.nanoTime() : 0;
+            remove(existingOrder);
+            if (metering()) {
+                metrics.recordLatency(BookOperation.REMOVE, System.nanoTime() - start);
+            }
+            return ProcessResult.CANCELLED;
+        }
+        if (existingOrder != null) {
+            long start = metering() ? System.nanoTime() : 0;
+            update(existingOrder, size);
+            if (metering()) {
+                metrics.recordLatency(BookOperation.UPDATE, System.nanoTime() - start);
+            }
+            return ProcessResult.UPDATED;
+        }
+        long start = metering() ? System.nanoTime() : 0;
+        ProcessResult result = add(uid, isBid, size, price, timestamp, displaySize, order);
+        if (metering()) {
+            metrics.recordLatency(BookOperation.ADD, System.nanoTime() - start);
+        }
+        return result;
     }
 
     /**
-     * Remove an order from the order book.
+     * Update an existing order in the order book. The new size of an iceberg order is its total size: its
+     * displayed size is kept unless the new size is smaller, and the rest is its hidden reserve.
      * 
-     * @param order The order to be removed.
-     * @return True if the order was successfully removed, false otherwise.
+     * @param existingOrder The resting order.
+     * @param size          The new size of the order in lots.
      */
-    private boolean remove(Order order) {
-        Order removedOrder;
-        try {
-            removedOrder = ordersMap.remove(order.getUid());
-            removedOrder.popFromList();
-        } catch (NullPointerException e) {
-            return false;
+    private void update(Order existingOrder, long size) {
+        long previousSize = existingOrder.getTotalSize();
+        long displayed = existingOrder.getDisplaySize() > 0 ? Math.min(existingOrder.getSize(), size) : size;
+        LimitLevel limitLevel = existingOrder.getParentLimit();
+        markLevel(existingOrder.isBid(), limitLevel);
+        limitLevel.setSize(limitLevel.getSize() - existingOrder.getSize() + displayed);
+        if (existingOrder.getHiddenSize() != size - displayed) {
+            limitLevel.setHiddenSize(limitLevel.getHiddenSize() - existingOrder.getHiddenSize() + size - displayed);
+            existingOrder.setHiddenSize(size - displayed);
         }
-        double removedPrice = removedOrder.getPrice();
-        LimitLevelTree bidAskTree = order.isBid() ? bids : asks;
-        if (priceLevelsMap.containsKey(removedPrice) && bidAskTree.getLevel(removedPrice).getOrders().getCount() == 0) {
-            priceLevelsMap.remove(removedPrice);
-            bidAskTree.removeLimitLevel(removedPrice);
+        existingOrder.setSize(displayed);
+        if (listener != null) {
+            listener.onOrderUpdated(orderEvent.set(existingOrder.getUid(), existingOrder.isBid(), size,
+                    previousSize, existingOrder.getPrice()));
+            levelChanged(existingOrder.isBid(), limitLevel);
         }
-
-        return true;
     }
 
     /**
-     * Add an order to the order book.
+     * Remove a resting order from the order book.
      * 
-     * @param order The order to be added.
-     */
-    private void add(Order order) {
-        double price = order.getPrice();
-        LimitLevel limitLevel = new LimitLevel(order);
-        if (!priceLevelsMap.containsKey(price)) {
-            ordersMap.put(order.getUid(), order);
-            priceLevelsMap.put(price, limitLevel);
-
-            // Create a new limitLevel to insert into bids/ask tree
-            if (order.isBid()) {
-                bids.insert(limitLevel);
-            } else {
-                asks.insert(limitLevel);
-            }
+     * @param existingOrder The resting order to be removed.
+     */
+    private void remove(Order existingOrder) {
+        ordersMap.remove(existingOrder.getUid());
+        LimitLevel limitLevel = existingOrder.getParentLimit();
+        markLevel(existingOrder.isBid(), limitLevel);
+        limitLevel.getOrders().remove(existingOrder);
+        if (listener != null) {
+            listener.onOrderCancelled(orderEvent.set(existingOrder.getUid(), existingOrder.isBid(), 0,
+                    existingOrder.getTotalSize(), existingOrder.getPrice()));
+            levelChanged(existingOrder.isBid(), limitLevel);
+        }
+        if (limitLevel.getLength() == 0) {
+            removeLevel(limitLevel, existingOrder.isBid());
+        }
+        recycle(existingOrder);
+    }
 
+    /**
+     * Add an order to the order book, first matching it against the opposite side if it crosses. An
+     * iceberg order matches with its full size and rests with at most its display size displayed.
+     * 
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots.
+     * @param price       The price of the order in ticks.
+     * @param timestamp   The supplied timestamp of the order, or 0.
+     * @param displaySize The size in lots an iceberg order displays at a time, or 0 to display all of it.
+     * @param order       The caller's order to rest, or null to rest a pooled copy.
+     * @return {@link ProcessResult#ADDED} if the order rests without trading, otherwise the result of matching.
+     */
+    private ProcessResult add(long uid, boolean isBid, long size, long price, long timestamp, long displaySize,
+            Order order) {
+        if (listener != null) {
+            listener.onOrderAccepted(orderEvent.set(uid, isBid, size, 0, price));
+        }
+        long matchStart = metering() ? System.nanoTime() : 0;
+        long remaining = matchOrders(uid, isBid, size, price);
+        if (metering() && remaining < size) {
+            metrics.recordLatency(BookOperation.MATCH, System.nanoTime() - matchStart);
+        }
+        if (order != null) {
+            order.setSize(remaining);
+        }
+        if (remaining == 0) {
+            return ProcessResult.FILLED;
+        }
+        long hidden = displaySize > 0 && remaining > displaySize ? remaining - displaySize : 0;
+        if (order == null) {
+            order = orderPool.acquire();
+            order.reset(uid, isBid, remaining - hidden, price, timestamp(timestamp));
+            order.setDisplaySize(displaySize);
         } else {
-            // Check for matching orders
-            if (order.isBid() && getBestAsk() != null) {
-                double matchingPrice = order.getPrice();
-                if (getBestAsk().getPrice() <= matchingPrice) {
-                    matchOrders(order, getBestAsk());
-                    return;
-                }
+            order.setSize(remaining - hidden);
+            order.setTime(timestamp(timestamp));
+        }
+        order.setHiddenSize(hidden);
 
-            } else if (!order.isBid() && getBestBid() != null) {
-                double matchingPrice = order.getPrice();
-                if (getBestBid().getPrice() >= matchingPrice) {
-                    matchOrders(order, getBestBid());
-                    return;
+        LimitLevelTree side = isBid ? bids : asks;
+        LimitLevel limitLevel = side.getLevel(price);
+        ordersMap.put(uid, order);
+        if (limitLevel == null) {
+            // Take a new limitLevel to insert into bids/ask tree
+            limitLevel = levelPool.acquire();
+            limitLevel.reset(price);
+            limitLevel.append(order);
+            side.insert(limitLevel);
+            if (bidDepth != null) {
+                (isBid ? bidDepth : askDepth).attach(limitLevel);
+            }
+            if (isBid) {
+                if (bestBid == null || price > bestBid.getPrice()) {
+                    bestBid = limitLevel;
                 }
-
+            } else if (bestAsk == null || price < bestAsk.getPrice()) {
+                bestAsk = limitLevel;
             }
-            ordersMap.put(order.getUid(), order);
-            priceLevelsMap.get(price).append(order);
+            markCreated(isBid, price);
+            if (metering()) {
+                metrics.recordLevelCreated();
+            }
+        } else {
+            markLevel(isBid, limitLevel);
+            limitLevel.append(order);
+        }
+        if (metering()) {
+            metrics.recordQueueDepth(limitLevel.getLength());
         }
+        if (listener != null) {
+            levelChanged(isBid, limitLevel);
+        }
+        return remaining < size ? ProcessResult.PARTIALLY_FILLED : ProcessResult.ADDED;
     }
 
     /**
-     * Match orders between the given order and the bid/ask level.
-     * 
-     * @param order       The order to be matched.
-     * @param bidAskLevel The bid/ask level to match against.
-     */
-    private void matchOrders(Order order, LimitLevel bidAskLevel) {
-        while (bidAskLevel.getOrders().getCount() > 0 && order.getSize() > 0) {
-            Order orderInLob = bidAskLevel.getOrders().getHead();
-            Order orderCopy = new Order(orderInLob.getUid(), orderInLob.isBid(), orderInLob.getSize(),
-                    orderInLob.getPrice());
-            if (order.getSize() <= orderCopy.getSize()) {
-                orderCopy.setSize(orderCopy.getSize() - order.getSize());
-                order.setSize(0);
-            } else {
-                order.setSize(order.getSize() - orderCopy.getSize());
-                orderCopy.setSize(0);
+     * Trade an immediate order against the opposite side of the book and cancel whatever it cannot fill.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots.
+     * @param price The price of the order in ticks, ignored for a market order.
+     * @param type  The immediate type of the order.
+     * @return {@link ProcessResult#FILLED}, {@link ProcessResult#EXPIRED} or {@link ProcessResult#KILLED}.
+     */
+    private ProcessResult take(long uid, boolean isBid, long size, long price, OrderType type) {
+        if (listener != null) {
+            listener.onOrderAccepted(orderEvent.set(uid, isBid, size, 0, price));
+        }
+        long limit = type != OrderType.MARKET ? price : isBid ? Long.MAX_VALUE : Long.MIN_VALUE;
+        long remaining = size;
+        if (type != OrderType.FILL_OR_KILL || canFill(isBid, size, limit)) {
+            long matchStart = metering() ? System.nanoTime() : 0;
+            remaining = matchOrders(uid, isBid, size, limit);
+            if (metering() && remaining < size) {
+                metrics.recordLatency(BookOperation.MATCH, System.nanoTime() - matchStart);
             }
-            // Update / Remove this order
-            process(orderCopy);
         }
+        swept = size - remaining;
+        if (remaining == 0) {
+            return ProcessResult.FILLED;
+        }
+        if (listener != null) {
+            listener.onOrderCancelled(orderEvent.set(uid, isBid, 0, remaining, price));
+        }
+        return remaining < size ? ProcessResult.EXPIRED : ProcessResult.KILLED;
+    }
 
-        if (order.getSize() > 0) {
-            process(order);
+    /**
+     * Check, without changing the book, whether the opposite side holds enough size up to a price to fill
+     * an order in full. With depth indexing on this is one O(log n) query; otherwise only the levels the
+     * order would trade against are visited, each by its aggregate size, and the walk stops at the first
+     * level that makes up the size.
+     *
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots.
+     * @param price The price of the order in ticks.
+     * @return True if the order would fill in full, false otherwise.
+     */
+    private boolean canFill(boolean isBid, long size, long price) {
+        if (bidDepth != null) {
+            return (isBid ? askDepth : bidDepth).getSizeUpTo(price) >= size;
         }
+        LimitLevelTree side = isBid ? asks : bids;
+        for (LimitLevel level = isBid ? bestAsk : bestBid; level != null
+                && (isBid ? level.getPrice() <= price : level.getPrice() >= price); level = side.getNextLevel(level)) {
+            size -= level.getTotalSize();
+            if (size <= 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    
     /**
-     * Displays the limit levels in the order book up to the specified depth.
+     * Read the book's clock for an order that comes to rest.
      *
-     * @param depth The depth of the displayed levels.
-     * @return A dictionary containing the bids and asks at the specified depth.
+     * @param supplied The timestamp supplied with the order, or 0.
+     * @return The order's timestamp.
      */
-    public HashMap<String, List<LimitLevel>> displayLevels(Integer depth) {
-        List<Double> levelsSorted = new ArrayList<>(priceLevelsMap.keySet());
-        Collections.sort(levelsSorted);
+    private long timestamp(long supplied) {
+        switch (clock) {
+            case SEQUENCE:
+                return sequence;
+            case EXCHANGE:
+                return supplied;
+            default:
+                return OrderClock.epochNanos();
+        }
+    }
 
-        List<LimitLevel> bidsAll = new ArrayList<>();
-        for (Double priceLevel : levelsSorted) {
-            if (this.getBestAsk() != null && priceLevel < this.getBestAsk().getPrice()) {
-                bidsAll.add(priceLevelsMap.get(priceLevel));
+    /**
+     * Match an incoming order against the opposite side of the book.
+     *
+     * Sweeps from the best opposite level for as long as it crosses the order's price, trading against
+     * resting orders in time priority. Resting orders are reduced in place and filled ones are unlinked
+     * directly from their order list and recycled, so matching allocates nothing.
+     * 
+     * @param uid   The unique identifier of the incoming order.
+     * @param isBid Indicates if the incoming order is a bid (buy) or ask (sell).
+     * @param size  The size of the incoming order in lots.
+     * @param price The price of the incoming order in ticks.
+     * @return The size left after matching.
+     */
+    private long matchOrders(long uid, boolean isBid, long size, long price) {
+        long incomingSize = size;
+        int levels = 0;
+        int fills = 0;
+        LimitLevel bidAskLevel;
+        while (size > 0 && (bidAskLevel = isBid ? bestAsk : bestBid) != null
+                && (isBid ? bidAskLevel.getPrice() <= price : bidAskLevel.getPrice() >= price)) {
+            markLevel(!isBid, bidAskLevel);
+            matchPrice = bidAskLevel.getPrice();
+            levels++;
+            OrderList orders = bidAskLevel.getOrders();
+            while (size > 0 && orders.getCount() > 0) {
+                Order orderInLob = orders.getHead();
+                long traded = Math.min(size, orderInLob.getSize());
+                size -= traded;
+                fills++;
+                if (listener != null) {
+                    listener.onTrade(tradeEvent.set(uid, orderInLob.getUid(), isBid, bidAskLevel.getPrice(), traded,
+                            orderInLob.getTotalSize() - traded));
+                }
+                if (traded < orderInLob.getSize()) {
+                    orderInLob.setSize(orderInLob.getSize() - traded);
+                    bidAskLevel.setSize(bidAskLevel.getSize() - traded);
+                } else if (orderInLob.getHiddenSize() > 0) {
+                    replenish(orderInLob, bidAskLevel, traded);
+                } else {
+                    ordersMap.remove(orderInLob.getUid());
+                    orders.remove(orderInLob);
+                    recycle(orderInLob);
+                }
             }
+            if (listener != null) {
+                levelChanged(!isBid, bidAskLevel);
+            }
+            if (orders.getCount() == 0) {
+                removeLevel(bidAskLevel, !isBid);
+            }
+        }
+        if (levels > 0 && metering()) {
+            metrics.recordMatch(levels, fills, incomingSize - size);
         }
-        Collections.reverse(bidsAll);
+        return size;
+    }
 
-        List<LimitLevel> bids = new ArrayList<>();
-        if (depth != null) {
-            bids = bidsAll.subList(0, Math.min(depth, bidsAll.size()));
+    /**
+     * Replenish an iceberg order whose displayed size has just traded in full from its hidden reserve,
+     * and move it to the tail of its level's queue with a new timestamp. O(1), with no cancel and re-add.
+     *
+     * @param order      The iceberg order.
+     * @param limitLevel The limit level of the order.
+     * @param traded     The displayed size that traded.
+     */
+    private void replenish(Order order, LimitLevel limitLevel, long traded) {
+        long hidden = order.getHiddenSize();
+        long displayed = Math.min(order.getDisplaySize(), hidden);
+        order.setSize(displayed);
+        order.setHiddenSize(hidden - displayed);
+        order.setTime(timestamp(order.getTime()));
+        limitLevel.setSize(limitLevel.getSize() - traded + displayed);
+        limitLevel.setHiddenSize(limitLevel.getHiddenSize() - displayed);
+        limitLevel.getOrders().moveToTail(order);
+    }
+
+    /**
+     * Remove an empty limit level from the order book and return it to the level pool.
+     *
+     * @param limitLevel The limit level to be removed.
+     * @param isBid      Whether the level is on the bid (buy) side.
+     */
+    private void removeLevel(LimitLevel limitLevel, boolean isBid) {
+        if (bidDepth != null) {
+            (isBid ? bidDepth : askDepth).detach(limitLevel);
+        }
+        if (isBid) {
+            bids.removeLimitLevel(limitLevel.getPrice());
+            if (limitLevel == bestBid) {
+                bestBid = bids.getRoot();
+            }
         } else {
-            bids = new ArrayList<>(bidsAll);
+            asks.removeLimitLevel(limitLevel.getPrice());
+            if (limitLevel == bestAsk) {
+                bestAsk = asks.getRoot();
+            }
+        }
+        levelPool.release(limitLevel);
+        if (metering()) {
+            metrics.recordLevelRemoved();
         }
+    }
 
-        List<LimitLevel> asksAll = new ArrayList<>();
-        for (Double priceLevel : levelsSorted) {
-            if (this.getBestBid() != null && priceLevel > this.getBestBid().getPrice()) {
-                asksAll.add(priceLevelsMap.get(priceLevel));
-            }
+    /**
+     * Check if hot-path metrics are being recorded. Constant false, and folded away by the JIT, when
+     * {@link BookMetrics#ENABLED} is off.
+     *
+     * @return True if metrics are set and enabled, false otherwise.
+     */
+    private boolean metering() {
+        return BookMetrics.ENABLED && metrics != null;
+    }
+
+    /**
+     * Record a resting level that is about to change with the level trackers that are on.
+     *
+     * @param isBid      Whether the level is on the bid (buy) side.
+     * @param limitLevel The limit level about to change.
+     */
+    private void markLevel(boolean isBid, LimitLevel limitLevel) {
+        if (changedLevels != null) {
+            changedLevels.mark(isBid, limitLevel);
+        }
+        if (deferredLevels != null) {
+            deferredLevels.mark(isBid, limitLevel);
         }
+    }
 
-        List<LimitLevel> asks = new ArrayList<>();
-        if (depth != null) {
-            asks = asksAll.subList(0, Math.min(depth, asksAll.size()));
-        } else {
-            asks = new ArrayList<>(asksAll);
+    /**
+     * Record a level that has just been created with the level trackers that are on.
+     *
+     * @param isBid Whether the level is on the bid (buy) side.
+     * @param price The price of the new level in ticks.
+     */
+    private void markCreated(boolean isBid, long price) {
+        if (changedLevels != null) {
+            changedLevels.markCreated(isBid, price);
         }
+        if (deferredLevels != null) {
+            deferredLevels.markCreated(isBid, price);
+        }
+    }
 
-        HashMap<String, List<LimitLevel>> levelsDict = new HashMap<>();
-        System.out.println("BIDS");
-        for (int idx = bids.size() - 1; idx >= 0; idx--) {
-            LimitLevel i = bids.get(idx);
-            System.out.println(i.getPrice() + "--" + i.getSize());
+    /**
+     * Notify the listener of the new state of a limit level, unless a batch defers level events. An order
+     * count of 0 means the level is about to be removed.
+     *
+     * @param isBid      Whether the level is on the bid (buy) side.
+     * @param limitLevel The limit level that changed.
+     */
+    private void levelChanged(boolean isBid, LimitLevel limitLevel) {
+        if (deferredLevels != null) {
+            return;
+        }
+        listener.onLevelChanged(levelEvent.set(isBid, limitLevel.getPrice(), limitLevel.getSize(),
+                limitLevel.getLength()));
+    }
+
+    /**
+     * Return an order that has left the book to the order pool, if the book owns it.
+     *
+     * @param order The cancelled or filled order.
+     */
+    private void recycle(Order order) {
+        if (order.isPooled()) {
+            orderPool.release(order);
+        }
+    }
+
+    /**
+     * Captures the top levels of both sides of the order book into a reusable snapshot.
+     *
+     * Each side is walked best first and the walk stops after {@link DepthSnapshot#getDepth()} levels, so
+     * the cost depends on the requested depth rather than on the depth of the book, and nothing is allocated.
+     *
+     * @param snapshot The snapshot to overwrite.
+     * @return The snapshot, for chaining.
+     */
+    public DepthSnapshot getDepth(DepthSnapshot snapshot) {
+        snapshot.capture(true, bids);
+        snapshot.capture(false, asks);
+        return snapshot;
+    }
+
+    /**
+     * Sets the listener that receives order, trade and level events as messages are processed. Events
+     * are delivered through flyweights reused by this book, so listening allocates nothing.
+     *
+     * @param listener The listener, or null to stop delivering events.
+     */
+    public void setListener(OrderBookListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Retrieves the listener that receives order, trade and level events.
+     *
+     * @return The listener, or null if there is none.
+     */
+    public OrderBookListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Writes a binary snapshot of every resting order, grouped by price level in queue-priority order, to
+     * a file. Together with a journal, a book is restarted by restoring the snapshot and replaying the
+     * journal's records after the snapshot's sequence number.
+     *
+     * @param path     The snapshot file, atomically replaced once the new snapshot is durable.
+     * @param sequence The sequence number the snapshot reflects, e.g. {@link Journal#getSequence()}.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeSnapshot(Path path, long sequence) throws IOException {
+        BookSnapshot.write(this, path, sequence);
+    }
+
+    /**
+     * Restores the resting orders of a snapshot written by {@link #writeSnapshot(Path, long)} into this
+     * book. Levels and their order queues are built directly rather than by processing each order, and
+     * no events are emitted.
+     *
+     * @param path The snapshot file.
+     * @return The sequence number the snapshot reflects.
+     * @throws IOException If the file cannot be read or is not a valid snapshot, in which case the book may
+     *                     hold part of it and should be discarded.
+     * @throws IllegalStateException If the book is not empty.
+     */
+    public long restoreSnapshot(Path path) throws IOException {
+        return BookSnapshot.restore(this, path);
+    }
+
+    /**
+     * Prepare an empty book for a snapshot restore, sizing the order map for the orders to come.
+     *
+     * @param orders The number of orders in the snapshot.
+     */
+    void beginRestore(int orders) {
+        if (!ordersMap.isEmpty() || bids.getSize() > 0 || asks.getSize() > 0) {
+            throw new IllegalStateException("Snapshots can only be restored into an empty book");
+        }
+        ordersMap = new LongOrderMap(orders);
+    }
+
+    /**
+     * Insert a level built by a snapshot restore, with its orders already in the order map.
+     *
+     * @param isBid      Whether the level is on the bid (buy) side.
+     * @param limitLevel The restored level.
+     */
+    void restoreLevel(boolean isBid, LimitLevel limitLevel) {
+        (isBid ? bids : asks).insert(limitLevel);
+        if (bidDepth != null) {
+            (isBid ? bidDepth : askDepth).attach(limitLevel);
+        }
+    }
+
+    /**
+     * Finish a snapshot restore by resolving the best levels and publishing the top of book.
+     */
+    void endRestore() {
+        bestBid = bids.getRoot();
+        bestAsk = asks.getRoot();
+        if (topOfBook != null) {
+            topOfBook.publish(bestBid, bestAsk);
+        }
+    }
+
+    /**
+     * Sets the journal that records every message that changes the book, i.e. every message that is not
+     * rejected, so the book can be rebuilt with {@link main.journal.JournalReplay}. The book does not close
+     * the journal.
+     *
+     * @param journal The journal, or null to stop journaling.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Retrieves the journal that records the messages that change the book.
+     *
+     * @return The journal, or null if there is none.
+     */
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the clock resting orders are timestamped from. Orders already resting keep their timestamps.
+     *
+     * @param clock The clock, {@link OrderClock#NANO_TIME} by default.
+     */
+    public void setClock(OrderClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieves the clock resting orders are timestamped from.
+     *
+     * @return The clock.
+     */
+    public OrderClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Retrieves the number of messages the book has processed, the timestamp source under
+     * {@link OrderClock#SEQUENCE}.
+     *
+     * @return The message sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Sets the metrics the book records operation latencies, outcome counters, level churn and match
+     * depth into. Recording reads the clock several times per message, so metrics are for tuning and
+     * monitoring rather than always-on use; see {@link BookMetrics#ENABLED} to compile them out.
+     *
+     * @param metrics The metrics, or null to stop recording.
+     */
+    public void setMetrics(BookMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves the metrics the book records into.
+     *
+     * @return The metrics, or null if there are none.
+     */
+    public BookMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Copies the book's metrics, with its current gauges (resting orders, levels per side and the longest
+     * queue, found by walking every level), into a snapshot that can be handed to another thread.
+     *
+     * @return The snapshot.
+     * @throws IllegalStateException If the book has no metrics.
+     */
+    public BookMetricsSnapshot snapshotMetrics() {
+        if (metrics == null) {
+            throw new IllegalStateException("Metrics are off");
+        }
+        int queueDepth = Math.max(maxQueueDepth(bids), maxQueueDepth(asks));
+        return metrics.snapshot(ordersMap.size(), bids.getSize(), asks.getSize(), queueDepth);
+    }
+
+    /**
+     * Find the longest order queue on one side of the book.
+     *
+     * @param side The limit level tree to walk.
+     * @return The most orders at one level, 0 if the side is empty.
+     */
+    private static int maxQueueDepth(LimitLevelTree side) {
+        int depth = 0;
+        for (LimitLevel level = side.getRoot(); level != null; level = side.getNextLevel(level)) {
+            depth = Math.max(depth, level.getLength());
+        }
+        return depth;
+    }
+
+    /**
+     * Turns tracking of changed price levels on or off. Turning it on starts an empty publish cycle;
+     * turning it off discards any pending changes.
+     *
+     * @param enabled Whether to track changed levels for {@link #drainChangedLevels(LevelDeltaHandler)}.
+     */
+    public void setLevelTracking(boolean enabled) {
+        changedLevels = enabled ? new LevelChangeTracker() : null;
+    }
+
+    /**
+     * Checks if changed price levels are being tracked.
+     *
+     * @return True if level tracking is on, false otherwise.
+     */
+    public boolean isLevelTracking() {
+        return changedLevels != null;
+    }
+
+    /**
+     * Turns cumulative depth indexing on or off. While it is on, each side keeps a {@link DepthIndex}
+     * that every resting level updates as its size changes, answering "size up to a price" and "price for
+     * a size" in O(log n), and fill-or-kill orders are checked against it. Turning it on indexes the
+     * levels already resting.
+     *
+     * @param enabled Whether to maintain {@link #getDepthIndex(boolean)}.
+     */
+    public void setDepthIndexing(boolean enabled) {
+        if (enabled == (bidDepth != null)) {
+            return;
+        }
+        DepthIndex newBids = enabled ? new DepthIndex(true) : null;
+        DepthIndex newAsks = enabled ? new DepthIndex(false) : null;
+        for (LimitLevel level = bids.getRoot(); level != null; level = bids.getNextLevel(level)) {
+            if (enabled) {
+                newBids.attach(level);
+            } else {
+                bidDepth.detach(level);
+            }
         }
-        System.out.println("---------------");
-        System.out.println("ASKS");
-        for (LimitLevel i : asks) {
-            System.out.println(i.getPrice() + "--" + i.getSize());
+        for (LimitLevel level = asks.getRoot(); level != null; level = asks.getNextLevel(level)) {
+            if (enabled) {
+                newAsks.attach(level);
+            } else {
+                askDepth.detach(level);
+            }
+        }
+        bidDepth = newBids;
+        askDepth = newAsks;
+    }
+
+    /**
+     * Retrieves the cumulative depth index of one side of the book.
+     *
+     * @param isBid Whether to retrieve the bid (buy) or ask (sell) side.
+     * @return The side's index, or null if depth indexing is off.
+     */
+    public DepthIndex getDepthIndex(boolean isBid) {
+        return isBid ? bidDepth : askDepth;
+    }
+
+    /**
+     * Turns publishing of the best bid and ask for reader threads on or off. While it is on, every
+     * processed message that changes the best levels publishes a new {@link TopOfBook} record; turning it
+     * off leaves readers of the old record with its last state.
+     *
+     * @param enabled Whether to publish the best levels to {@link #getTopOfBook()}.
+     */
+    public void setTopOfBookPublishing(boolean enabled) {
+        if (!enabled) {
+            topOfBook = null;
+        } else if (topOfBook == null) {
+            topOfBook = new TopOfBook();
+            topOfBook.publish(bestBid, bestAsk);
+        }
+    }
+
+    /**
+     * Retrieves the best bid and ask record published for reader threads. Unlike {@link #getBestBid()}
+     * and {@link #getBestAsk()} it is safe to read from any thread while the book is being processed.
+     *
+     * @return The published record, or null if publishing is off.
+     */
+    public TopOfBook getTopOfBook() {
+        return topOfBook;
+    }
+
+    /**
+     * Emits an incremental L2 delta for every price level whose size or order count changed since the
+     * previous drain, then starts a new publish cycle. The cost is proportional to the number of changed
+     * levels, not to the depth of the book, and nothing is allocated.
+     *
+     * @param handler The handler to receive the deltas.
+     * @return The number of deltas emitted.
+     * @throws IllegalStateException If level tracking is off.
+     */
+    public int drainChangedLevels(LevelDeltaHandler handler) {
+        if (changedLevels == null) {
+            throw new IllegalStateException("Level tracking is off");
         }
-        levelsDict.put("bids", bids);
-        levelsDict.put("asks", asks);
+        return changedLevels.drain(bids, asks, handler);
+    }
 
+    /**
+     * Retrieves the limit levels in the order book up to the specified depth.
+     *
+     * This allocates new lists on every call; use {@link #getDepth(DepthSnapshot)} on hot paths.
+     *
+     * @param depth The depth of the levels to retrieve, or null for every level.
+     * @return A dictionary containing the bids and asks, each best first, at the specified depth.
+     */
+    public HashMap<String, List<LimitLevel>> displayLevels(Integer depth) {
+        int maxLevels = depth != null ? depth : Integer.MAX_VALUE;
+        HashMap<String, List<LimitLevel>> levelsDict = new HashMap<>();
+        levelsDict.put("bids", collectLevels(bids, maxLevels));
+        levelsDict.put("asks", collectLevels(asks, maxLevels));
         return levelsDict;
     }
 
+    /**
+     * Collects the best levels of one side of the book, walking its tree best first.
+     *
+     * @param side      The limit level tree to walk.
+     * @param maxLevels The maximum number of levels to collect.
+     * @return The levels, best first.
+     */
+    private static List<LimitLevel> collectLevels(LimitLevelTree side, int maxLevels) {
+        List<LimitLevel> levels = new ArrayList<>(Math.min(maxLevels, side.getSize()));
+        for (LimitLevel level = side.getRoot(); level != null && levels.size() < maxLevels;
+                level = side.getNextLevel(level)) {
+            levels.add(level);
+        }
+        return levels;
+    }
+
     /**
      * Retrieves the best bid limit level in the order book.
      *
      * @return The best bid limit level.
      */
     public LimitLevel getBestBid() {
-        return bids.getRoot();
+        return bestBid;
     }
 
     /**
@@ -240,27 +1096,18 @@ public class LimitOrderBook {
      * @return The best ask limit level.
      */
     public LimitLevel getBestAsk() {
-        return asks.getRoot();
+        return bestAsk;
     }
 
     /**
-     * Retrieves the map of order IDs to orders in the order book.
+     * Retrieves the map of order IDs to orders in the order book. The map is not sorted by ID.
      *
      * @return The map of order IDs to orders.
      */
-    public TreeMap<Long, Order> getOrders() {
+    public LongOrderMap getOrders() {
         return ordersMap;
     }
 
-    /**
-     * Retrieves the map of price levels to limit levels in the order book.
-     *
-     * @return The map of price levels to limit levels.
-     */
-    public TreeMap<Double, LimitLevel> getPriceLevels() {
-        return priceLevelsMap;
-    }
-
     /**
      * Retrieves the bid limit level tree in the order book.
      *
@@ -279,4 +1126,32 @@ public class LimitOrderBook {
         return asks;
     }
 
+    /**
+     * Retrieves the pool of orders the book creates for resting {@link OrderMessage}s, e.g. to read its
+     * statistics or preallocate it.
+     *
+     * @return The order pool.
+     */
+    public ObjectPool<Order> getOrderPool() {
+        return orderPool;
+    }
+
+    /**
+     * Retrieves the pool of limit levels (with their order lists) the book recycles as levels empty.
+     *
+     * @return The limit level pool.
+     */
+    public ObjectPool<LimitLevel> getLevelPool() {
+        return levelPool;
+    }
+
+    /**
+     * Retrieves the tick and lot size used to convert decimal prices and sizes.
+     *
+     * @return The fixed point scale of the order book.
+     */
+    public FixedPointScale getScale() {
+        return scale;
+    }
+
 }
@@ -0,0 +1,23 @@
+package main;
+
+/**
+ * Represents the outcome of processing an order message in a limit order book.
+ */
+public enum ProcessResult {
+    /** The order did not cross and now rests in the book. */
+    ADDED,
+    /** The size of a resting order was changed. */
+    UPDATED,
+    /** A resting order was removed from the book. */
+    CANCELLED,
+    /** The order traded in full and does not rest in the book. */
+    FILLED,
+    /** The order traded in part and its remainder rests in the book. */
+    PARTIALLY_FILLED,
+    /** An immediate order traded in part and its remainder was cancelled. */
+    EXPIRED,
+    /** An immediate order did not trade and was cancelled, e.g. a fill-or-kill order that could not fill. */
+    KILLED,
+    /** The message was invalid, e.g. a cancel for an unknown order ID or a negative size. */
+    REJECTED
+}
@@ -0,0 +1,86 @@
+package main.event;
+
+/**
+ * Represents the new state of a price level after it changed.
+ *
+ * The book reuses one instance for every level change, so a listener must copy any field it needs to keep
+ * before returning.
+ */
+public class LevelEvent {
+    private boolean isBid; // Indicates if the level is on the bid (buy) or ask (sell) side
+    private long price; // Price of the level in ticks
+    private long size; // Size of the level in lots
+    private int orderCount; // Number of orders at the level
+
+    /**
+     * Sets all fields of the event.
+     *
+     * @param isBid      Indicates if the level is on the bid (buy) or ask (sell) side.
+     * @param price      The price of the level in ticks.
+     * @param size       The size of the level in lots.
+     * @param orderCount The number of orders at the level, 0 if the level was removed.
+     * @return This event.
+     */
+    public LevelEvent set(boolean isBid, long price, long size, int orderCount) {
+        this.isBid = isBid;
+        this.price = price;
+        this.size = size;
+        this.orderCount = orderCount;
+        return this;
+    }
+
+    /**
+     * Checks if the level is on the bid (buy) side.
+     *
+     * @return True if the level is a bid level, false otherwise.
+     */
+    public boolean isBid() {
+        return isBid;
+    }
+
+    /**
+     * Retrieves the price of the level.
+     *
+     * @return The price of the level in ticks.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Retrieves the size of the level.
+     *
+     * @return The size of the level in lots.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of orders at the level.
+     *
+     * @return The number of orders, 0 if the level was removed.
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Checks if the change removed the level from the book.
+     *
+     * @return True if the level is now empty, false otherwise.
+     */
+    public boolean isRemoved() {
+        return orderCount == 0;
+    }
+
+    /**
+     * Returns a string representation of the level event.
+     *
+     * @return The string representation of the level event.
+     */
+    @Override
+    public String toString() {
+        return "(" + isBid + ", " + price + ", " + size + ", " + orderCount + ")";
+    }
+}
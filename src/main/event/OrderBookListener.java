@@ -0,0 +1,52 @@
+package main.event;
+
+/**
+ * Receives order, trade and level events from a book as it processes messages.
+ *
+ * Events are delivered synchronously on the processing thread through flyweight objects the book reuses,
+ * so subscribing allocates nothing; a listener must copy any field it needs to keep before returning and
+ * must not call back into the book. Every method has an empty default implementation.
+ */
+public interface OrderBookListener {
+
+    /**
+     * Called when a new order is accepted, before it is matched. Its previous size is 0.
+     *
+     * @param event The accepted order.
+     */
+    default void onOrderAccepted(OrderEvent event) {
+    }
+
+    /**
+     * Called when the size of a resting order is changed.
+     *
+     * @param event The updated order, with its new and previous size.
+     */
+    default void onOrderUpdated(OrderEvent event) {
+    }
+
+    /**
+     * Called when a resting order is cancelled, or when the unfilled remainder of an immediate order is
+     * cancelled instead of resting. Its size is 0.
+     *
+     * @param event The cancelled order, with the size it had when cancelled.
+     */
+    default void onOrderCancelled(OrderEvent event) {
+    }
+
+    /**
+     * Called for each fill between an incoming order and a resting order, in matching order.
+     *
+     * @param event The trade.
+     */
+    default void onTrade(TradeEvent event) {
+    }
+
+    /**
+     * Called after a price level changed size or order count, once per level per message.
+     *
+     * @param event The new state of the level.
+     */
+    default void onLevelChanged(LevelEvent event) {
+    }
+}
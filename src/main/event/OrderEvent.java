@@ -0,0 +1,89 @@
+package main.event;
+
+/**
+ * Represents an order accepted, updated or cancelled by a book.
+ *
+ * The book reuses one instance for every such event, so a listener must copy any field it needs to keep
+ * before returning.
+ */
+public class OrderEvent {
+    private long uid; // Unique identifier for the order
+    private boolean isBid; // Indicates if the order is a bid (buy) or ask (sell)
+    private long size; // Size of the order in lots after the event
+    private long previousSize; // Size of the order in lots before the event
+    private long price; // Price of the order in ticks
+
+    /**
+     * Sets all fields of the event.
+     *
+     * @param uid          The unique identifier for the order.
+     * @param isBid        Indicates if the order is a bid (buy) or ask (sell).
+     * @param size         The size of the order in lots after the event, 0 for a cancel.
+     * @param previousSize The size of the order in lots before the event, 0 for a new order.
+     * @param price        The price of the order in ticks.
+     * @return This event.
+     */
+    public OrderEvent set(long uid, boolean isBid, long size, long previousSize, long price) {
+        this.uid = uid;
+        this.isBid = isBid;
+        this.size = size;
+        this.previousSize = previousSize;
+        this.price = price;
+        return this;
+    }
+
+    /**
+     * Retrieves the unique identifier of the order.
+     *
+     * @return The unique identifier of the order.
+     */
+    public long getUid() {
+        return uid;
+    }
+
+    /**
+     * Checks if the order is a bid (buy) order.
+     *
+     * @return True if the order is a bid (buy) order, false otherwise.
+     */
+    public boolean isBid() {
+        return isBid;
+    }
+
+    /**
+     * Retrieves the size of the order after the event.
+     *
+     * @return The size of the order in lots, 0 for a cancel.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the size of the order before the event.
+     *
+     * @return The previous size of the order in lots, 0 for a new order.
+     */
+    public long getPreviousSize() {
+        return previousSize;
+    }
+
+    /**
+     * Retrieves the price of the order.
+     *
+     * @return The price of the order in ticks.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Returns a string representation of the order event.
+     *
+     * @return The string representation of the order event.
+     */
+    @Override
+    public String toString() {
+        return "(" + uid + ", " + isBid + ", " + price + ", " + size + ", " + previousSize + ")";
+    }
+}
@@ -0,0 +1,103 @@
+package main.event;
+
+/**
+ * Represents a trade between an incoming (aggressor) order and a resting (passive) order.
+ *
+ * The book reuses one instance for every trade, so a listener must copy any field it needs to keep before
+ * returning.
+ */
+public class TradeEvent {
+    private long aggressorUid; // Unique identifier of the incoming order
+    private long passiveUid; // Unique identifier of the resting order
+    private boolean aggressorIsBid; // Indicates if the incoming order is a bid (buy) or ask (sell)
+    private long price; // Price of the trade in ticks, the resting order's price
+    private long size; // Size of the trade in lots
+    private long passiveRemaining; // Size of the resting order in lots left after the trade
+
+    /**
+     * Sets all fields of the event.
+     *
+     * @param aggressorUid     The unique identifier of the incoming order.
+     * @param passiveUid       The unique identifier of the resting order.
+     * @param aggressorIsBid   Indicates if the incoming order is a bid (buy) or ask (sell).
+     * @param price            The price of the trade in ticks.
+     * @param size             The size of the trade in lots.
+     * @param passiveRemaining The size of the resting order in lots left after the trade.
+     * @return This event.
+     */
+    public TradeEvent set(long aggressorUid, long passiveUid, boolean aggressorIsBid, long price, long size,
+            long passiveRemaining) {
+        this.aggressorUid = aggressorUid;
+        this.passiveUid = passiveUid;
+        this.aggressorIsBid = aggressorIsBid;
+        this.price = price;
+        this.size = size;
+        this.passiveRemaining = passiveRemaining;
+        return this;
+    }
+
+    /**
+     * Retrieves the unique identifier of the incoming order.
+     *
+     * @return The unique identifier of the aggressor.
+     */
+    public long getAggressorUid() {
+        return aggressorUid;
+    }
+
+    /**
+     * Retrieves the unique identifier of the resting order.
+     *
+     * @return The unique identifier of the passive order.
+     */
+    public long getPassiveUid() {
+        return passiveUid;
+    }
+
+    /**
+     * Checks if the incoming order is a bid (buy) order.
+     *
+     * @return True if the aggressor is a buyer, false if it is a seller.
+     */
+    public boolean isAggressorBid() {
+        return aggressorIsBid;
+    }
+
+    /**
+     * Retrieves the price of the trade.
+     *
+     * @return The price of the trade in ticks.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Retrieves the size of the trade.
+     *
+     * @return The size of the trade in lots.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the size of the resting order left after the trade.
+     *
+     * @return The remaining size of the passive order in lots, 0 if it was filled.
+     */
+    public long getPassiveRemaining() {
+        return passiveRemaining;
+    }
+
+    /**
+     * Returns a string representation of the trade.
+     *
+     * @return The string representation of the trade.
+     */
+    @Override
+    public String toString() {
+        return "(" + aggressorUid + ", " + passiveUid + ", " + aggressorIsBid + ", " + price + ", " + size + ", "
+                + passiveRemaining + ")";
+    }
+}
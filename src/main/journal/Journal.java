@@ -0,0 +1,288 @@
+package main.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents a binary append-only journal of the messages applied to a book.
+ *
+ * Every record has the fixed size {@link #RECORD_SIZE} and holds a sequence number, a timestamp, the
+ * message's uid, price, size and side, and a checksum of those fields. Records are written straight into a
+ * memory-mapped region of the file, so an append is a handful of stores with no system call; when the
+ * region is full the next one is mapped, growing the file. Records are little-endian.
+ *
+ * The stores into the mapped region are not ordered with respect to each other on the way to the device,
+ * so after an operating system crash any part of an unforced record may be missing. Records are padded to
+ * 64 bytes, so none straddles a page, and a record whose sequence is 0 or whose checksum does not match
+ * its fields ends the journal: a torn record is never read back, and the next append overwrites it. Only
+ * records forced under a {@link JournalSync} policy are guaranteed to survive a crash.
+ *
+ * Opening an existing journal continues after its last record. A journal has a single writer: it is
+ * normally owned by the thread that processes the book.
+ */
+public class Journal implements Closeable {
+    public static final int RECORD_SIZE = 64; // Bytes per record, a divisor of the page size
+    static final int SEQUENCE = 0; // Offset of the sequence number, a long starting at 1
+    static final int TIMESTAMP = 8; // Offset of the epoch timestamp in nanoseconds, a long
+    static final int UID = 16; // Offset of the order ID, a long
+    static final int PRICE = 24; // Offset of the price in ticks, a long
+    static final int SIZE = 32; // Offset of the size in lots, a long
+    static final int SIDE = 40; // Offset of a long with the side in bit 0 and the display size from bit 8
+    static final int CHECKSUM = 48; // Offset of the checksum of the other fields, a long; 8 bytes of padding follow
+    static final int DISPLAY_SHIFT = 8; // Bit of the side long the display size of an iceberg order starts at
+
+    private static final int DEFAULT_REGION_RECORDS = 1 << 20; // Records per mapped region by default
+
+    private final FileChannel channel; // The journal file
+    private final int regionSize; // Bytes mapped at a time, a multiple of RECORD_SIZE
+    private final JournalSync sync; // When records are forced to the device
+    private final int syncBatchSize; // Records per force under JournalSync.BATCH
+    private final long epochOffset; // Epoch nanoseconds minus System.nanoTime() when the journal was opened
+    private MappedByteBuffer region; // The region records are appended to
+    private long regionStart; // File offset of the region
+    private int position; // Offset of the next record in the region
+    private int unsyncedFrom; // Offset of the first record in the region not yet forced
+    private long sequence; // Sequence number of the last record appended
+
+    /**
+     * Constructs a Journal object that never forces its records, with the default region size.
+     *
+     * @param path The journal file, created if it does not exist.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public Journal(Path path) throws IOException {
+        this(path, JournalSync.NONE, 1, DEFAULT_REGION_RECORDS);
+    }
+
+    /**
+     * Constructs a Journal object.
+     *
+     * @param path           The journal file, created if it does not exist.
+     * @param sync           When records are forced to the storage device.
+     * @param syncBatchSize  The number of records per force under {@link JournalSync#BATCH}.
+     * @param regionRecords  The number of records mapped at a time.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public Journal(Path path, JournalSync sync, int syncBatchSize, int regionRecords) throws IOException {
+        if (syncBatchSize <= 0) {
+            throw new IllegalArgumentException("syncBatchSize must be positive: " + syncBatchSize);
+        }
+        if (regionRecords <= 0 || (long) regionRecords * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("regionRecords out of range: " + regionRecords);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.regionSize = regionRecords * RECORD_SIZE;
+        this.sync = sync;
+        this.syncBatchSize = syncBatchSize;
+        this.epochOffset = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+        long end = findEnd();
+        mapRegion(end - end % regionSize);
+        this.position = (int) (end - regionStart);
+        this.unsyncedFrom = position;
+    }
+
+    /**
+     * Appends a record for an applied message, timestamped now. Journal owner thread only.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots, 0 to cancel.
+     * @param price The price of the order in ticks.
+     * @return The sequence number of the record.
+     * @throws UncheckedIOException If the next region of the file cannot be mapped or forced.
+     */
+    public long append(long uid, boolean isBid, long size, long price) {
+        return append(epochOffset + System.nanoTime(), uid, isBid, size, price);
+    }
+
+    /**
+     * Appends a record with a given timestamp, e.g. when converting a recording. Journal owner thread only.
+     *
+     * @param timestamp The timestamp of the message in nanoseconds since the epoch.
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots, 0 to cancel.
+     * @param price     The price of the order in ticks.
+     * @return The sequence number of the record.
+     * @throws UncheckedIOException If the next region of the file cannot be mapped or forced.
+     */
+    public long append(long timestamp, long uid, boolean isBid, long size, long price) {
+        return append(timestamp, uid, isBid, size, price, 0);
+    }
+
+    /**
+     * Appends a record for an applied iceberg order message, timestamped now. Journal owner thread only.
+     *
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots, 0 to cancel.
+     * @param price       The price of the order in ticks.
+     * @param displaySize The size in lots the order displays at a time.
+     * @return The sequence number of the record.
+     * @throws UncheckedIOException If the next region of the file cannot be mapped or forced.
+     */
+    public long appendIceberg(long uid, boolean isBid, long size, long price, long displaySize) {
+        return append(epochOffset + System.nanoTime(), uid, isBid, size, price, displaySize);
+    }
+
+    /**
+     * Appends a record with a given timestamp and display size. Journal owner thread only.
+     *
+     * @param timestamp   The timestamp of the message in nanoseconds since the epoch.
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots, 0 to cancel.
+     * @param price       The price of the order in ticks.
+     * @param displaySize The size in lots an iceberg order displays at a time, or 0 to display all of it.
+     * @return The sequence number of the record.
+     * @throws UncheckedIOException If the next region of the file cannot be mapped or forced.
+     */
+    public long append(long timestamp, long uid, boolean isBid, long size, long price, long displaySize) {
+        if (position == regionSize) {
+            nextRegion();
+        }
+        MappedByteBuffer buffer = region;
+        int offset = position;
+        long side = (isBid ? 1 : 0) | displaySize << DISPLAY_SHIFT;
+        long next = sequence + 1;
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putLong(offset + UID, uid);
+        buffer.putLong(offset + PRICE, price);
+        buffer.putLong(offset + SIZE, size);
+        buffer.putLong(offset + SIDE, side);
+        buffer.putLong(offset + CHECKSUM, checksum(next, timestamp, uid, price, size, side));
+        buffer.putLong(offset + SEQUENCE, next);
+        sequence = next;
+        position = offset + RECORD_SIZE;
+        if (sync == JournalSync.EVERY_RECORD
+                || (sync == JournalSync.BATCH && position - unsyncedFrom >= syncBatchSize * RECORD_SIZE)) {
+            force();
+        }
+        return sequence;
+    }
+
+    /**
+     * Forces every record appended so far to the storage device.
+     */
+    public void force() {
+        if (position > unsyncedFrom) {
+            region.force(unsyncedFrom, position - unsyncedFrom);
+            unsyncedFrom = position;
+        }
+    }
+
+    /**
+     * Retrieves the sequence number of the last record appended.
+     *
+     * @return The sequence number, 0 if the journal is empty.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Forces any records not yet forced under a syncing policy and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (sync != JournalSync.NONE) {
+            force();
+        }
+        region = null;
+        channel.close();
+    }
+
+    /**
+     * Find the end of the records already in the file, and the last sequence number.
+     *
+     * @return The file offset after the last record.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private long findEnd() throws IOException {
+        long fileSize = channel.size();
+        long end = 0;
+        while (end + RECORD_SIZE <= fileSize) {
+            long mapped = Math.min(regionSize, fileSize - end) / RECORD_SIZE * RECORD_SIZE;
+            MappedByteBuffer existing = channel.map(FileChannel.MapMode.READ_ONLY, end, mapped);
+            existing.order(ByteOrder.LITTLE_ENDIAN);
+            for (int offset = 0; offset < mapped; offset += RECORD_SIZE) {
+                if (!isValid(existing, offset)) {
+                    return end + offset;
+                }
+                sequence = existing.getLong(offset + SEQUENCE);
+            }
+            end += mapped;
+        }
+        return end;
+    }
+
+    /**
+     * Check that a record in a mapped buffer was written in full: its sequence is set and its checksum
+     * matches its fields.
+     *
+     * @param buffer The mapped buffer, little-endian.
+     * @param offset The offset of the record in the buffer.
+     * @return True if the record is complete, false at the end of the journal or for a torn record.
+     */
+    static boolean isValid(ByteBuffer buffer, int offset) {
+        long recordSequence = buffer.getLong(offset + SEQUENCE);
+        return recordSequence != 0 && buffer.getLong(offset + CHECKSUM) == checksum(recordSequence,
+                buffer.getLong(offset + TIMESTAMP), buffer.getLong(offset + UID), buffer.getLong(offset + PRICE),
+                buffer.getLong(offset + SIZE), buffer.getLong(offset + SIDE));
+    }
+
+    /**
+     * Mix the fields of a record into a checksum, so that a record missing any of them fails the check.
+     */
+    private static long checksum(long sequence, long timestamp, long uid, long price, long size, long side) {
+        long hash = sequence * 0x9E3779B97F4A7C15L;
+        hash = mix(hash ^ timestamp);
+        hash = mix(hash ^ uid);
+        hash = mix(hash ^ price);
+        hash = mix(hash ^ size);
+        return mix(hash ^ side);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 32)) * 0xBF58476D1CE4E5B9L;
+        return value ^ (value >>> 29);
+    }
+
+    /**
+     * Retire the full region and map the one after it.
+     */
+    private void nextRegion() {
+        if (sync != JournalSync.NONE) {
+            force();
+        }
+        try {
+            mapRegion(regionStart + regionSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+        unsyncedFrom = 0;
+    }
+
+    /**
+     * Map a region of the file for appending, growing the file to cover it.
+     *
+     * @param start The file offset of the region, a multiple of the region size.
+     * @throws IOException If the region cannot be mapped.
+     */
+    private void mapRegion(long start) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        regionStart = start;
+    }
+}
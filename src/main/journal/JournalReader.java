@@ -0,0 +1,58 @@
+package main.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a {@link Journal} file back in sequence order.
+ *
+ * The file is mapped read-only a region at a time and records are decoded in place, so reading allocates
+ * nothing per record. Reading stops at the first record whose sequence is 0 or whose checksum does not
+ * match its fields, i.e. at the end of the journal or at a record torn by a crash.
+ */
+public class JournalReader {
+    private static final int REGION_RECORDS = 1 << 20; // Records mapped at a time
+
+    private JournalReader() {
+    }
+
+    /**
+     * Reads every record of a journal file.
+     *
+     * @param path    The journal file.
+     * @param handler The handler to receive the records, in sequence order.
+     * @return The number of records read.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public static long read(Path path, JournalRecordHandler handler) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            while (start + Journal.RECORD_SIZE <= fileSize) {
+                long mapped = Math.min((long) REGION_RECORDS * Journal.RECORD_SIZE, fileSize - start)
+                        / Journal.RECORD_SIZE * Journal.RECORD_SIZE;
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                for (int offset = 0; offset < mapped; offset += Journal.RECORD_SIZE) {
+                    if (!Journal.isValid(region, offset)) {
+                        return records;
+                    }
+                    long sequence = region.getLong(offset + Journal.SEQUENCE);
+                    long side = region.getLong(offset + Journal.SIDE);
+                    handler.onRecord(sequence, region.getLong(offset + Journal.TIMESTAMP),
+                            region.getLong(offset + Journal.UID), (side & 1) != 0,
+                            region.getLong(offset + Journal.SIZE), region.getLong(offset + Journal.PRICE),
+                            side >>> Journal.DISPLAY_SHIFT);
+                    records++;
+                }
+                start += mapped;
+            }
+        }
+        return records;
+    }
+}
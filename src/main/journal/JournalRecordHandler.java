@@ -0,0 +1,38 @@
+package main.journal;
+
+/**
+ * Receives records read back from a {@link Journal} by a {@link JournalReader}.
+ *
+ * All arguments are primitives, so reading allocates nothing.
+ */
+@FunctionalInterface
+public interface JournalRecordHandler {
+
+    /**
+     * Handles one journaled message.
+     *
+     * @param sequence  The sequence number of the record, starting at 1.
+     * @param timestamp The time the record was appended, in nanoseconds since the epoch.
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots, 0 to cancel.
+     * @param price     The price of the order in ticks.
+     */
+    void onRecord(long sequence, long timestamp, long uid, boolean isBid, long size, long price);
+
+    /**
+     * Handles one journaled message that may be an iceberg order. By default the display size is dropped.
+     *
+     * @param sequence    The sequence number of the record, starting at 1.
+     * @param timestamp   The time the record was appended, in nanoseconds since the epoch.
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots, 0 to cancel.
+     * @param price       The price of the order in ticks.
+     * @param displaySize The size in lots an iceberg order displays at a time, or 0 for other messages.
+     */
+    default void onRecord(long sequence, long timestamp, long uid, boolean isBid, long size, long price,
+            long displaySize) {
+        onRecord(sequence, timestamp, uid, isBid, size, price);
+    }
+}
@@ -0,0 +1,123 @@
+package main.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.order.OrderMessage;
+import main.order.OrderType;
+
+/**
+ * Rebuilds a {@link LimitOrderBook} from a {@link Journal} file.
+ *
+ * Records are packed into a flat buffer and applied with {@link LimitOrderBook#processBatch}, so replay
+ * allocates nothing per record beyond the orders that come to rest. The book should not journal to the
+ * file being replayed. Each record's timestamp is passed with its message, so a book using
+ * {@link main.order.OrderClock#EXCHANGE} gives restored orders their recorded times.
+ *
+ * Run as a tool with {@code gradle replayJournal -Pjournal=<file>} to report the replay rate.
+ */
+public class JournalReplay implements JournalRecordHandler {
+    private static final int BATCH_SIZE = 256; // Records applied per batch
+
+    private final LimitOrderBook book; // The book being rebuilt
+    private final long afterSequence; // Records up to this sequence number are already in the book
+    private final long[] buffer = new long[BATCH_SIZE * OrderMessage.LONGS]; // Packed records of the batch
+    private final ProcessResult[] results = new ProcessResult[BATCH_SIZE]; // Outcomes of the batch
+    private int count; // The number of records in the batch
+    private long lastSequence; // Sequence number of the last record applied
+    private long applied; // The number of records applied
+
+    /**
+     * Constructs a JournalReplay object.
+     *
+     * @param book          The book to apply the records to.
+     * @param afterSequence The sequence number of the last record already in the book.
+     */
+    private JournalReplay(LimitOrderBook book, long afterSequence) {
+        this.book = book;
+        this.afterSequence = afterSequence;
+        this.lastSequence = afterSequence;
+    }
+
+    /**
+     * Applies every record of a journal file to a book.
+     *
+     * @param path The journal file.
+     * @param book The book to apply the records to, normally empty.
+     * @return The sequence number of the last record applied, 0 if the journal is empty.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long replay(Path path, LimitOrderBook book) throws IOException {
+        return replay(path, book, 0);
+    }
+
+    /**
+     * Applies the records of a journal file that follow a given sequence number to a book, e.g. one
+     * restored from a snapshot taken at that sequence number.
+     *
+     * @param path          The journal file.
+     * @param book          The book to apply the records to.
+     * @param afterSequence The sequence number of the last record already in the book.
+     * @return The sequence number of the last record applied, or afterSequence if none followed it.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long replay(Path path, LimitOrderBook book, long afterSequence) throws IOException {
+        JournalReplay replay = new JournalReplay(book, afterSequence);
+        JournalReader.read(path, replay);
+        replay.flush();
+        return replay.lastSequence;
+    }
+
+    @Override
+    public void onRecord(long sequence, long timestamp, long uid, boolean isBid, long size, long price) {
+        onRecord(sequence, timestamp, uid, isBid, size, price, 0);
+    }
+
+    @Override
+    public void onRecord(long sequence, long timestamp, long uid, boolean isBid, long size, long price,
+            long displaySize) {
+        if (sequence <= afterSequence) {
+            return;
+        }
+        OrderMessage.write(buffer, count, uid, isBid, size, price, timestamp, OrderType.LIMIT, displaySize);
+        lastSequence = sequence;
+        if (++count == BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Apply the records of the batch to the book.
+     */
+    private void flush() {
+        book.processBatch(buffer, count, results);
+        applied += count;
+        count = 0;
+    }
+
+    /**
+     * Replays a journal file into an empty book and reports the replay rate.
+     *
+     * @param args The journal file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: JournalReplay <journal file>");
+            System.exit(2);
+        }
+        LimitOrderBook book = new LimitOrderBook();
+        JournalReplay replay = new JournalReplay(book, 0);
+        long start = System.nanoTime();
+        JournalReader.read(Path.of(args[0]), replay);
+        replay.flush();
+        long elapsed = System.nanoTime() - start;
+        long records = replay.applied;
+        System.out.printf("records %d, %.3f s, %.2f M records/s%n", records, elapsed / 1e9,
+                records * 1e3 / Math.max(elapsed, 1));
+        System.out.printf("resting orders %d, bid levels %d, ask levels %d%n", book.getOrders().size(),
+                book.getBids().getSize(), book.getAsks().getSize());
+    }
+}
@@ -0,0 +1,16 @@
+package main.journal;
+
+/**
+ * Represents when a {@link Journal} forces its appended records to the storage device.
+ *
+ * Records are written into a memory-mapped file, so they survive a crash of the process as soon as they
+ * are appended whatever the policy; forcing them only matters to survive a crash of the machine.
+ */
+public enum JournalSync {
+    /** Never forces; the operating system writes pages back in its own time. Fastest. */
+    NONE,
+    /** Forces once every batch of records, and whenever a mapped region is retired. */
+    BATCH,
+    /** Forces after every record. Slowest, but no acknowledged record is ever lost. */
+    EVERY_RECORD
+}
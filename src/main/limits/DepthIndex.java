@@ -0,0 +1,373 @@
+package main.limits;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Represents the cumulative depth of one side of a book, for queries such as "size available up to a
+ * price" and "price at which the cumulative size reaches a quantity".
+ *
+ * Sizes and notionals are held per tick in a window of ticks and summed in two Fenwick trees, so every
+ * query and every update is O(log n) in the window's width. A {@link LimitLevel} attached to the index
+ * reports each change of its size as it happens. A price outside the window moves it over the occupied
+ * ticks in one linear rebuild, first growing it, up to {@link #MAX_CAPACITY} ticks, until at least half of
+ * it is free, and leaving most of the free ticks on the side the price moved towards; a trending market
+ * therefore rebuilds only once per many ticks of drift. Prices that still do not fit
+ * are held in a sorted map of outliers, which queries walk level by level, so a stray far price costs one
+ * map entry rather than a window wide enough to reach it, and an update never fails.
+ *
+ * Cumulative values run best first: from the lowest price up for asks and from the highest price down
+ * for bids. Sizes are total sizes, including the hidden reserves of iceberg orders, since they can all
+ * trade. Notionals are in tick-lots, as {@link LimitLevel#getVolume()}. They are summed modulo 2^64 and
+ * the side's gross notional, the sum of size * |price|, is kept to 128 bits, so a notional query is exact
+ * whenever that fits in a long and throws rather than wraps otherwise.
+ */
+public class DepthIndex {
+    public static final int DEFAULT_CAPACITY = 1024; // Default number of ticks covered by the window
+    public static final int MAX_CAPACITY = 1 << 20; // Most ticks the window grows to
+    public static final long NO_PRICE = Long.MIN_VALUE; // Price reported when the side holds too little size
+
+    private final boolean isBid; // Whether the index holds bid (buy) or ask (sell) levels
+    private final NavigableMap<Long, Long> outliers = new TreeMap<>(); // Size in lots per tick outside the window
+    private long base; // Tick of the first slot of the window
+    private int capacity; // The number of ticks in the window, a power of two
+    private long[] sizes; // Size in lots per tick, indexed from base
+    private long[] sizeTree; // Fenwick tree over sizes, 1-based
+    private long[] notionalTree; // Fenwick tree over size * price, 1-based
+    private long totalSize; // Size of the whole side in lots
+    private long totalNotional; // Notional of the whole side in tick-lots, modulo 2^64
+    private long grossLow; // Low 64 bits of the sum of size * |price|
+    private long grossHigh; // High 64 bits of the sum of size * |price|
+    private long rebuilds; // The number of times the window has been moved or grown
+
+    /**
+     * Constructs a DepthIndex object with the default capacity.
+     *
+     * @param isBid Specifies whether the index is for bids (buy) or asks (sell).
+     */
+    public DepthIndex(boolean isBid) {
+        this(isBid, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a DepthIndex object.
+     *
+     * @param isBid    Specifies whether the index is for bids (buy) or asks (sell).
+     * @param capacity The initial number of ticks covered by the window, rounded up to a power of two and
+     *                 at most {@link #MAX_CAPACITY}.
+     */
+    public DepthIndex(boolean isBid, int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.isBid = isBid;
+        this.capacity = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.sizes = new long[this.capacity];
+        this.sizeTree = new long[this.capacity + 1];
+        this.notionalTree = new long[this.capacity + 1];
+    }
+
+    /**
+     * Adds a level's size to the index and has the level report every later change of its size.
+     *
+     * @param limitLevel The limit level, which must not be attached to another index.
+     */
+    public void attach(LimitLevel limitLevel) {
+        limitLevel.setDepthIndex(this);
+        add(limitLevel.getPrice(), limitLevel.getTotalSize());
+    }
+
+    /**
+     * Removes a level's size from the index and stops it reporting changes.
+     *
+     * @param limitLevel A limit level attached to this index.
+     */
+    public void detach(LimitLevel limitLevel) {
+        add(limitLevel.getPrice(), -limitLevel.getTotalSize());
+        limitLevel.setDepthIndex(null);
+    }
+
+    /**
+     * Add a change of size at a price. Never fails, whatever the price.
+     *
+     * @param price The price in ticks.
+     * @param delta The change of size in lots.
+     */
+    void add(long price, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        long notional = delta * price;
+        long high = Math.multiplyHigh(delta, price);
+        if (price < 0) {
+            high = notional == 0 ? -high : ~high;
+        }
+        long low = price < 0 ? -notional : notional;
+        long sum = grossLow + low;
+        grossHigh += high + (Long.compareUnsigned(sum, grossLow) < 0 ? 1 : 0);
+        grossLow = sum;
+        totalSize += delta;
+        totalNotional += notional;
+        if ((price < base || price >= base + capacity) && (outliers.containsKey(price) || !recentre(price))) {
+            long size = outliers.merge(price, delta, Long::sum);
+            if (size == 0) {
+                outliers.remove(price);
+            }
+            return;
+        }
+        int index = (int) (price - base);
+        sizes[index] += delta;
+        for (int i = index + 1; i <= capacity; i += i & -i) {
+            sizeTree[i] += delta;
+            notionalTree[i] += notional;
+        }
+    }
+
+    /**
+     * Retrieves the size available at prices at least as good as the given one.
+     *
+     * @param price The price in ticks.
+     * @return The size in lots at or below the price for asks, or at or above it for bids.
+     */
+    public long getSizeUpTo(long price) {
+        return isBid ? totalSize - sizeBelow(price, false) : sizeBelow(price, true);
+    }
+
+    /**
+     * Retrieves the notional available at prices at least as good as the given one.
+     *
+     * @param price The price in ticks.
+     * @return The notional in tick-lots at or below the price for asks, or at or above it for bids.
+     * @throws ArithmeticException If the gross notional of the side overflows a long.
+     */
+    public long getNotionalUpTo(long price) {
+        checkNotional();
+        return isBid ? totalNotional - notionalBelow(price, false) : notionalBelow(price, true);
+    }
+
+    /**
+     * Retrieves the price at which the cumulative size, best first, reaches a quantity: the worst price an
+     * order for that quantity would trade at.
+     *
+     * @param size The quantity in lots, which must be positive.
+     * @return The price in ticks, or {@link #NO_PRICE} if the side holds less than the quantity.
+     */
+    public long getPriceForSize(long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        if (size > totalSize) {
+            return NO_PRICE;
+        }
+        // Walk the outliers on the better side of the window, then the window, then the other outliers.
+        NavigableMap<Long, Long> better = isBid ? outliers.tailMap(base + capacity, true).descendingMap()
+                : outliers.headMap(base, false);
+        NavigableMap<Long, Long> worse = isBid ? outliers.headMap(base, false).descendingMap()
+                : outliers.tailMap(base + capacity, true);
+        long remaining = size;
+        for (Map.Entry<Long, Long> entry : better.entrySet()) {
+            remaining -= entry.getValue();
+            if (remaining <= 0) {
+                return entry.getKey();
+            }
+        }
+        long windowSize = sizeTree[capacity];
+        if (remaining <= windowSize) {
+            return base + (isBid ? search(windowSize - remaining) : search(remaining - 1));
+        }
+        remaining -= windowSize;
+        for (Map.Entry<Long, Long> entry : worse.entrySet()) {
+            remaining -= entry.getValue();
+            if (remaining <= 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Depth index sizes do not add up to " + totalSize);
+    }
+
+    /**
+     * Retrieves the notional of the best quantity on the side, i.e. what an order for that quantity
+     * would trade, for estimating its average price and slippage.
+     *
+     * @param size The quantity in lots, which must be positive.
+     * @return The notional in tick-lots, or -1 if the side holds less than the quantity.
+     * @throws ArithmeticException If the gross notional of the side overflows a long.
+     */
+    public long getNotionalForSize(long size) {
+        long price = getPriceForSize(size);
+        if (price == NO_PRICE) {
+            return -1;
+        }
+        long better = isBid ? price + 1 : price - 1;
+        return getNotionalUpTo(better) + (size - getSizeUpTo(better)) * price;
+    }
+
+    /**
+     * Retrieves the size of the whole side.
+     *
+     * @return The size in lots.
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Retrieves the notional of the whole side.
+     *
+     * @return The notional in tick-lots.
+     * @throws ArithmeticException If the gross notional of the side overflows a long.
+     */
+    public long getTotalNotional() {
+        checkNotional();
+        return totalNotional;
+    }
+
+    /**
+     * Retrieves the number of ticks the window currently covers.
+     *
+     * @return The capacity of the window.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Retrieves the number of times the window has been moved or grown, each a rebuild linear in its width.
+     *
+     * @return The number of rebuilds.
+     */
+    public long getRebuildCount() {
+        return rebuilds;
+    }
+
+    /**
+     * Retrieves the number of occupied prices held outside the window.
+     *
+     * @return The number of outlying prices.
+     */
+    public int getOutlierCount() {
+        return outliers.size();
+    }
+
+    /**
+     * Sum the sizes below a price, or at or below it if inclusive.
+     */
+    private long sizeBelow(long price, boolean inclusive) {
+        long sum = prefix(sizeTree, inclusive ? countAtOrBelow(price) : countBelow(price));
+        for (long size : outliers.headMap(price, inclusive).values()) {
+            sum += size;
+        }
+        return sum;
+    }
+
+    /**
+     * Sum the notionals below a price, or at or below it if inclusive.
+     */
+    private long notionalBelow(long price, boolean inclusive) {
+        long sum = prefix(notionalTree, inclusive ? countAtOrBelow(price) : countBelow(price));
+        for (Map.Entry<Long, Long> entry : outliers.headMap(price, inclusive).entrySet()) {
+            sum += entry.getValue() * entry.getKey();
+        }
+        return sum;
+    }
+
+    /**
+     * Check that every notional of the side fits in a long, so that the wrapped sums are exact.
+     */
+    private void checkNotional() {
+        if (grossHigh != 0 || grossLow < 0) {
+            throw new ArithmeticException("Notional of the side overflows a long");
+        }
+    }
+
+    /**
+     * Sum the first count slots of a Fenwick tree.
+     */
+    private static long prefix(long[] tree, int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Find the largest number of leading slots whose sizes sum to at most the given value.
+     */
+    private int search(long value) {
+        int count = 0;
+        for (int step = capacity; step > 0; step >>= 1) {
+            int next = count + step;
+            if (next <= capacity && sizeTree[next] <= value) {
+                count = next;
+                value -= sizeTree[next];
+            }
+        }
+        return count;
+    }
+
+    private int countAtOrBelow(long price) {
+        return price < base ? 0 : price >= base + capacity ? capacity : (int) (price - base) + 1;
+    }
+
+    private int countBelow(long price) {
+        return price <= base ? 0 : price > base + capacity ? capacity : (int) (price - base);
+    }
+
+    /**
+     * Moves the window so that it covers the occupied ticks and a new price, growing it until at least half
+     * of it is free where the maximum capacity allows, and rebuilds the trees in linear time. Three quarters
+     * of the free ticks go on the side of the new price. Outliers the moved window covers are folded into it.
+     *
+     * @param price The price the window must cover.
+     * @return Whether the window could cover the price within {@link #MAX_CAPACITY} ticks.
+     */
+    private boolean recentre(long price) {
+        long low = price;
+        long high = price;
+        long windowSize = sizeTree[capacity];
+        if (windowSize != 0) {
+            // Sizes are never negative, so the first and last occupied ticks are found by search.
+            low = Math.min(low, base + search(0));
+            high = Math.max(high, base + search(windowSize - 1));
+        }
+        if (high - low >= MAX_CAPACITY || high - low < 0) {
+            return false;
+        }
+        int span = (int) (high - low + 1);
+        int grown = capacity;
+        while (grown < 2L * span && grown < MAX_CAPACITY) {
+            grown <<= 1;
+        }
+        int free = grown - span;
+        long newBase = price == high ? low - free / 4 : low - (free - free / 4);
+        long[] moved = new long[grown];
+        for (int i = 0; i < capacity; i++) {
+            if (sizes[i] != 0) {
+                moved[(int) (base + i - newBase)] = sizes[i];
+            }
+        }
+        NavigableMap<Long, Long> covered = outliers.subMap(newBase, true, newBase + grown, false);
+        for (Map.Entry<Long, Long> entry : covered.entrySet()) {
+            moved[(int) (entry.getKey() - newBase)] = entry.getValue();
+        }
+        covered.clear();
+        base = newBase;
+        capacity = grown;
+        sizes = moved;
+        sizeTree = new long[grown + 1];
+        notionalTree = new long[grown + 1];
+        rebuilds++;
+        for (int i = 1; i <= grown; i++) {
+            sizeTree[i] += moved[i - 1];
+            notionalTree[i] += moved[i - 1] * (newBase + i - 1); // Wraps like the sums, see checkNotional
+            int parent = i + (i & -i);
+            if (parent <= grown) {
+                sizeTree[parent] += sizeTree[i];
+                notionalTree[parent] += notionalTree[i];
+            }
+        }
+        return true;
+    }
+}
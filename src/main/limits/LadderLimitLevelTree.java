@@ -0,0 +1,292 @@
+package main.limits;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Represents a tick-indexed price ladder of limit levels in a trading system.
+ *
+ * Levels are stored in a ring buffer indexed by their price tick modulo the capacity, so the ladder
+ * recentres for free as the market moves. Best level lookup, level lookup and insertion are O(1). An
+ * occupancy bitmap beside the ring lets removal of the best or worst level, and walking the levels, skip
+ * empty ticks 64 at a time. The ring grows when the live price range no longer fits in it, up to
+ * {@link #MAX_CAPACITY} ticks; levels that would stretch it further are kept in a sorted fallback map
+ * instead, so a stray far price never fails an insertion or forces a huge allocation.
+ */
+public class LadderLimitLevelTree implements LimitLevelTree {
+    public static final int DEFAULT_CAPACITY = 1024; // Default number of ticks covered by the ring
+    public static final int MAX_CAPACITY = 1 << 20; // Most ticks the ring grows to
+
+    private final boolean isBid; // Whether the ladder holds bid (buy) or ask (sell) levels
+    private final NavigableMap<Long, LimitLevel> fallback = new TreeMap<>(); // Levels outside the ring's range
+    private LimitLevel[] slots; // Ring buffer of levels indexed by tick & mask
+    private long[] occupied; // One bit per slot, set while the slot holds a level
+    private int mask; // slots.length - 1
+    private long lowTick; // Lowest occupied tick of the ring, valid while size > 0
+    private long highTick; // Highest occupied tick of the ring, valid while size > 0
+    private int size; // The number of levels in the ring
+
+    /**
+     * Constructs a LadderLimitLevelTree object with the default capacity.
+     *
+     * @param isBid Specifies whether the limit levels are for bids (buy) or asks (sell).
+     */
+    public LadderLimitLevelTree(boolean isBid) {
+        this(isBid, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a LadderLimitLevelTree object.
+     *
+     * @param isBid    Specifies whether the limit levels are for bids (buy) or asks (sell).
+     * @param capacity The initial number of ticks covered by the ring, rounded up to a power of two and at
+     *                 most {@link #MAX_CAPACITY}.
+     */
+    public LadderLimitLevelTree(boolean isBid, int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.isBid = isBid;
+        this.slots = new LimitLevel[ceilingPowerOfTwo(capacity)];
+        this.occupied = new long[(slots.length + 63) >>> 6];
+        this.mask = slots.length - 1;
+    }
+
+    /**
+     * Inserts a limit level into the ladder, replacing any level at the same price.
+     *
+     * @param limitLevel The limit level to insert.
+     */
+    @Override
+    public void insert(LimitLevel limitLevel) {
+        long tick = limitLevel.getPrice();
+        if (!fallback.isEmpty() && fallback.containsKey(tick)) {
+            fallback.put(tick, limitLevel);
+            return;
+        }
+        if (size == 0) {
+            lowTick = tick;
+            highTick = tick;
+        } else {
+            long low = Math.min(lowTick, tick);
+            long high = Math.max(highTick, tick);
+            long width = high - low; // Negative if the range overflows a long
+            if (width < 0 || width >= MAX_CAPACITY) {
+                fallback.put(tick, limitLevel);
+                return;
+            }
+            if (width >= slots.length) {
+                grow(width + 1);
+            }
+            if (!fallback.isEmpty() && (low < lowTick || high > highTick)) {
+                absorb(low, high);
+            }
+            lowTick = low;
+            highTick = high;
+        }
+        int index = (int) (tick & mask);
+        if (slots[index] == null) {
+            occupied[index >>> 6] |= 1L << index;
+            size++;
+        }
+        slots[index] = limitLevel;
+    }
+
+    /**
+     * Retrieves the root (highest bid or lowest ask) limit level from the ladder.
+     *
+     * @return The root limit level, or null if the ladder is empty.
+     */
+    @Override
+    public LimitLevel getRoot() {
+        if (!fallback.isEmpty()) {
+            Map.Entry<Long, LimitLevel> best = isBid ? fallback.lastEntry() : fallback.firstEntry();
+            if (size == 0 || (isBid ? best.getKey() > highTick : best.getKey() < lowTick)) {
+                return best.getValue();
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        return slots[(int) ((isBid ? highTick : lowTick) & mask)];
+    }
+
+    /**
+     * Retrieves the level that follows the given one in best-first order, skipping empty ticks through the
+     * occupancy bitmap.
+     *
+     * @param limitLevel A limit level in the ladder.
+     * @return The next worse limit level, or null if the given level is the worst.
+     */
+    @Override
+    public LimitLevel getNextLevel(LimitLevel limitLevel) {
+        long tick = limitLevel.getPrice();
+        if (size > 0 && (isBid ? tick > lowTick : tick < highTick)) {
+            // Fallback levels lie outside the ring's range, so one between this tick and the ring comes first.
+            if (isBid ? tick > highTick : tick < lowTick) {
+                Map.Entry<Long, LimitLevel> entry = isBid ? fallback.lowerEntry(tick) : fallback.higherEntry(tick);
+                if (entry != null && (isBid ? entry.getKey() > highTick : entry.getKey() < lowTick)) {
+                    return entry.getValue();
+                }
+                return slots[(int) ((isBid ? highTick : lowTick) & mask)];
+            }
+            return slots[(int) ((isBid ? previousOccupied(tick) : nextOccupied(tick)) & mask)];
+        }
+        if (fallback.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, LimitLevel> entry = isBid ? fallback.lowerEntry(tick) : fallback.higherEntry(tick);
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Removes a specific limit level from the ladder.
+     *
+     * @param priceLevel The price level, in ticks, of the limit level to remove.
+     * @return The removed limit level, or null if there was no level at that price.
+     */
+    @Override
+    public LimitLevel removeLimitLevel(long priceLevel) {
+        if (size == 0 || priceLevel < lowTick || priceLevel > highTick) {
+            return fallback.isEmpty() ? null : fallback.remove(priceLevel);
+        }
+        int index = (int) (priceLevel & mask);
+        LimitLevel removed = slots[index];
+        if (removed == null) {
+            return null;
+        }
+        slots[index] = null;
+        occupied[index >>> 6] &= ~(1L << index);
+        size--;
+        if (size > 0) {
+            if (priceLevel == lowTick) {
+                lowTick = nextOccupied(lowTick);
+            }
+            if (priceLevel == highTick) {
+                highTick = previousOccupied(highTick);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Retrieves a specific limit level from the ladder based on the price level.
+     *
+     * @param priceLevel The price level, in ticks, of the limit level to retrieve.
+     * @return The limit level at the specified price level, or null if there is none.
+     */
+    @Override
+    public LimitLevel getLevel(long priceLevel) {
+        if (size == 0 || priceLevel < lowTick || priceLevel > highTick) {
+            return fallback.isEmpty() ? null : fallback.get(priceLevel);
+        }
+        return slots[(int) (priceLevel & mask)];
+    }
+
+    /**
+     * Retrieves the size (number of limit levels) in the ladder.
+     *
+     * @return The size of the ladder.
+     */
+    @Override
+    public int getSize() {
+        return size + fallback.size();
+    }
+
+    /**
+     * Retrieves the number of ticks the ring currently covers.
+     *
+     * @return The capacity of the ring.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Retrieves the number of levels kept outside the ring because their prices did not fit in it.
+     *
+     * @return The number of fallback levels.
+     */
+    public int getFallbackSize() {
+        return fallback.size();
+    }
+
+    /**
+     * Finds the first occupied tick of the ring above the given one, which must be below highTick.
+     *
+     * @param tick The tick to search from.
+     * @return The occupied tick.
+     */
+    private long nextOccupied(long tick) {
+        long next = tick + 1;
+        while (true) {
+            int index = (int) (next & mask);
+            long word = occupied[index >>> 6] & (-1L << index);
+            if (word != 0) {
+                return next + Long.numberOfTrailingZeros(word) - (index & 63);
+            }
+            next += Math.min(64 - (index & 63), slots.length - index);
+        }
+    }
+
+    /**
+     * Finds the first occupied tick of the ring below the given one, which must be above lowTick.
+     *
+     * @param tick The tick to search from.
+     * @return The occupied tick.
+     */
+    private long previousOccupied(long tick) {
+        long previous = tick - 1;
+        while (true) {
+            int index = (int) (previous & mask);
+            long word = occupied[index >>> 6] & (-1L >>> (63 - (index & 63)));
+            if (word != 0) {
+                return previous - (index & 63) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            previous -= (index & 63) + 1;
+        }
+    }
+
+    /**
+     * Moves the fallback levels inside a widened ring range into the ring.
+     *
+     * @param low  The new lowest tick of the ring.
+     * @param high The new highest tick of the ring.
+     */
+    private void absorb(long low, long high) {
+        NavigableMap<Long, LimitLevel> covered = fallback.subMap(low, true, high, true);
+        for (LimitLevel level : covered.values()) {
+            int index = (int) (level.getPrice() & mask);
+            slots[index] = level;
+            occupied[index >>> 6] |= 1L << index;
+            size++;
+        }
+        covered.clear();
+    }
+
+    /**
+     * Re-indexes the occupied ticks into a larger ring.
+     *
+     * @param span The number of ticks the ring must be able to cover, at most {@link #MAX_CAPACITY}.
+     */
+    private void grow(long span) {
+        LimitLevel[] grown = new LimitLevel[ceilingPowerOfTwo((int) span)];
+        long[] grownOccupied = new long[(grown.length + 63) >>> 6];
+        int grownMask = grown.length - 1;
+        for (LimitLevel level : slots) {
+            if (level != null) {
+                int index = (int) (level.getPrice() & grownMask);
+                grown[index] = level;
+                grownOccupied[index >>> 6] |= 1L << index;
+            }
+        }
+        slots = grown;
+        occupied = grownOccupied;
+        mask = grownMask;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
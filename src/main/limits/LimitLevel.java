@@ -5,11 +5,16 @@ import main.order.OrderList;
 
 /**
  * Represents a limit level in a trading system.
+ *
+ * A book recycles its limit levels, together with their order lists, once they become empty, so a level
+ * should not be retained after its last order has left it.
  */
 public class LimitLevel {
-    private double price; // The price of the limit level
-    private double size; // The size of the limit level
+    private long price; // The price of the limit level in ticks
+    private long size; // The displayed size of the limit level in lots
+    private long hiddenSize; // The hidden reserve of the iceberg orders at the limit level in lots
     private OrderList orders; // The list of orders at the limit level
+    private DepthIndex depthIndex; // Index told about every change of size, or null
 
     /**
      * Constructs a LimitLevel object with the specified order.
@@ -18,38 +23,102 @@ public class LimitLevel {
      */
     public LimitLevel(Order order) {
         this.price = order.getPrice();
-        this.size = order.getSize();
+        this.size = 0;
         this.orders = new OrderList(this);
         this.append(order);
     }
 
+    /**
+     * Constructs an empty LimitLevel object for an object pool. It must be initialised with
+     * {@link #reset(long)} before use.
+     */
+    public LimitLevel() {
+        this.orders = new OrderList(this);
+    }
+
+    /**
+     * Reinitialises the limit level as an empty level at the given price.
+     *
+     * @param price The price of the limit level in ticks.
+     */
+    public void reset(long price) {
+        this.price = price;
+        this.size = 0;
+        this.hiddenSize = 0;
+        this.orders.clear();
+        this.depthIndex = null;
+    }
+
     /**
      * Retrieves the price of the limit level.
      *
-     * @return The price of the limit level.
+     * @return The price of the limit level in ticks.
      */
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
     /**
-     * Retrieves the size of the limit level.
+     * Retrieves the displayed size of the limit level, excluding iceberg orders' hidden reserves.
      *
-     * @return The size of the limit level.
+     * @return The size of the limit level in lots.
      */
-    public double getSize() {
+    public long getSize() {
         return size;
     }
 
     /**
-     * Sets the size of the limit level.
+     * Sets the size of the limit level, updating the depth index it is attached to.
      *
-     * @param size The size of the limit level.
+     * @param size The size of the limit level in lots.
      */
-    public void setSize(double size) {
+    public void setSize(long size) {
+        if (depthIndex != null) {
+            depthIndex.add(price, size - this.size);
+        }
         this.size = size;
     }
 
+    /**
+     * Retrieves the hidden reserve of the iceberg orders at the limit level.
+     *
+     * @return The hidden size in lots.
+     */
+    public long getHiddenSize() {
+        return hiddenSize;
+    }
+
+    /**
+     * Sets the hidden reserve of the limit level, updating the depth index it is attached to.
+     *
+     * @param hiddenSize The hidden size in lots.
+     */
+    public void setHiddenSize(long hiddenSize) {
+        if (depthIndex != null) {
+            depthIndex.add(price, hiddenSize - this.hiddenSize);
+        }
+        this.hiddenSize = hiddenSize;
+    }
+
+    /**
+     * Retrieves the displayed and hidden size of the limit level together, i.e. all that can trade there.
+     *
+     * @return The total size in lots.
+     */
+    public long getTotalSize() {
+        return size + hiddenSize;
+    }
+
+    /**
+     * Sets the depth index the level reports changes of its size to. Use {@link DepthIndex#attach} and
+     * {@link DepthIndex#detach}, which also account for its current size.
+     *
+     * @param depthIndex The depth index, or null.
+     */
+    void setDepthIndex(DepthIndex depthIndex) {
+        this.depthIndex = depthIndex;
+    }
+
     /**
      * Retrieves the list of orders at the limit level.
      *
@@ -71,9 +140,9 @@ public class LimitLevel {
     /**
      * Calculates the volume of the limit level (price multiplied by size).
      *
-     * @return The volume of the limit level.
+     * @return The volume of the limit level in tick-lots.
      */
-    public double getVolume() {
+    public long getVolume() {
         return size * price;
     }
 
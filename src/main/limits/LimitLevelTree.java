@@ -1,75 +1,54 @@
 package main.limits;
 
-import java.util.Collections;
-import java.util.TreeMap;
-
 /**
- * Represents a tree-based collection of limit levels in a trading system.
+ * Represents an ordered collection of limit levels for one side of the book.
+ *
+ * The root is always the best level: the highest price for bids and the lowest price for asks.
  */
-public class LimitLevelTree {
-    private TreeMap<Double, LimitLevel> treeMap; // The tree map storing limit levels
+public interface LimitLevelTree {
 
     /**
-     * Constructs a LimitLevelTree object.
+     * Inserts a limit level into the tree.
      *
-     * @param isBid Specifies whether the limit levels are for bids (buy) or asks (sell).
+     * @param limitLevel The limit level to insert.
      */
-    public LimitLevelTree(boolean isBid) {
-        if (isBid) {
-            this.treeMap = new TreeMap<>(Collections.reverseOrder());
-        } else {
-            this.treeMap = new TreeMap<>();
-        }
-    }
+    void insert(LimitLevel limitLevel);
 
     /**
-     * Inserts a limit level into the tree.
+     * Retrieves the root (best) limit level from the tree.
      *
-     * @param limitLevel The limit level to insert.
+     * @return The root limit level, or null if the tree is empty.
      */
-    public void insert(LimitLevel limitLevel) {
-        double price = limitLevel.getPrice();
-        treeMap.put(price, limitLevel);
-    }
+    LimitLevel getRoot();
 
     /**
-     * Retrieves the root (highest or lowest) limit level from the tree.
+     * Retrieves the level that follows the given one in best-first order.
      *
-     * @return The root limit level.
+     * @param limitLevel A limit level in the tree.
+     * @return The next worse limit level, or null if the given level is the worst.
      */
-    public LimitLevel getRoot() {
-        if (treeMap.size() > 0) {
-            return treeMap.get(treeMap.firstKey());
-        }
-        return null;
-    }
+    LimitLevel getNextLevel(LimitLevel limitLevel);
 
     /**
      * Removes a specific limit level from the tree.
      *
-     * @param priceLevel The price level of the limit level to remove.
-     * @return The removed limit level.
+     * @param priceLevel The price level, in ticks, of the limit level to remove.
+     * @return The removed limit level, or null if there was no level at that price.
      */
-    public LimitLevel removeLimitLevel(double priceLevel) {
-        return treeMap.remove(priceLevel);
-    }
+    LimitLevel removeLimitLevel(long priceLevel);
 
     /**
      * Retrieves a specific limit level from the tree based on the price level.
      *
-     * @param priceLevel The price level of the limit level to retrieve.
-     * @return The limit level at the specified price level.
+     * @param priceLevel The price level, in ticks, of the limit level to retrieve.
+     * @return The limit level at the specified price level, or null if there is none.
      */
-    public LimitLevel getLevel(double priceLevel) {
-        return treeMap.get(priceLevel);
-    }
+    LimitLevel getLevel(long priceLevel);
 
     /**
      * Retrieves the size (number of limit levels) in the tree.
      *
      * @return The size of the tree.
      */
-    public int getSize() {
-        return this.treeMap.size();
-    }
+    int getSize();
 }
@@ -0,0 +1,92 @@
+package main.limits;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents a tree-based collection of limit levels in a trading system, backed by a {@link TreeMap}.
+ */
+public class TreeMapLimitLevelTree implements LimitLevelTree {
+    private TreeMap<Long, LimitLevel> treeMap; // The tree map storing limit levels
+
+    /**
+     * Constructs a TreeMapLimitLevelTree object.
+     *
+     * @param isBid Specifies whether the limit levels are for bids (buy) or asks (sell).
+     */
+    public TreeMapLimitLevelTree(boolean isBid) {
+        if (isBid) {
+            this.treeMap = new TreeMap<>(Collections.reverseOrder());
+        } else {
+            this.treeMap = new TreeMap<>();
+        }
+    }
+
+    /**
+     * Inserts a limit level into the tree.
+     *
+     * @param limitLevel The limit level to insert.
+     */
+    @Override
+    public void insert(LimitLevel limitLevel) {
+        treeMap.put(limitLevel.getPrice(), limitLevel);
+    }
+
+    /**
+     * Retrieves the root (highest or lowest) limit level from the tree.
+     *
+     * @return The root limit level.
+     */
+    @Override
+    public LimitLevel getRoot() {
+        if (treeMap.size() > 0) {
+            return treeMap.get(treeMap.firstKey());
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the level that follows the given one in best-first order.
+     *
+     * @param limitLevel A limit level in the tree.
+     * @return The next worse limit level, or null if the given level is the worst.
+     */
+    @Override
+    public LimitLevel getNextLevel(LimitLevel limitLevel) {
+        Map.Entry<Long, LimitLevel> next = treeMap.higherEntry(limitLevel.getPrice());
+        return next != null ? next.getValue() : null;
+    }
+
+    /**
+     * Removes a specific limit level from the tree.
+     *
+     * @param priceLevel The price level of the limit level to remove.
+     * @return The removed limit level.
+     */
+    @Override
+    public LimitLevel removeLimitLevel(long priceLevel) {
+        return treeMap.remove(priceLevel);
+    }
+
+    /**
+     * Retrieves a specific limit level from the tree based on the price level.
+     *
+     * @param priceLevel The price level of the limit level to retrieve.
+     * @return The limit level at the specified price level.
+     */
+    @Override
+    public LimitLevel getLevel(long priceLevel) {
+        return treeMap.get(priceLevel);
+    }
+
+    /**
+     * Retrieves the size (number of limit levels) in the tree.
+     *
+     * @return The size of the tree.
+     */
+    @Override
+    public int getSize() {
+        return this.treeMap.size();
+    }
+}
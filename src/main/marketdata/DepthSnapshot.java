@@ -0,0 +1,161 @@
+package main.marketdata;
+
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+
+/**
+ * Represents the top levels of both sides of a book as parallel primitive arrays of prices, sizes and
+ * order counts.
+ *
+ * A snapshot is allocated once with a fixed depth and refilled in place by
+ * {@link main.LimitOrderBook#getDepth(DepthSnapshot)}, so it can be taken after every book update without
+ * producing garbage. Index 0 holds the best level of each side.
+ */
+public class DepthSnapshot {
+    private final int depth; // The maximum number of levels captured per side
+    private final long[] bidPrices; // Bid level prices in ticks, best (highest) first
+    private final long[] bidSizes; // Bid level sizes in lots
+    private final int[] bidCounts; // Number of orders at each bid level
+    private final long[] askPrices; // Ask level prices in ticks, best (lowest) first
+    private final long[] askSizes; // Ask level sizes in lots
+    private final int[] askCounts; // Number of orders at each ask level
+    private int bidLevels; // The number of bid levels captured
+    private int askLevels; // The number of ask levels captured
+
+    /**
+     * Constructs a DepthSnapshot object.
+     *
+     * @param depth The maximum number of levels to capture on each side.
+     */
+    public DepthSnapshot(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("depth must be positive: " + depth);
+        }
+        this.depth = depth;
+        this.bidPrices = new long[depth];
+        this.bidSizes = new long[depth];
+        this.bidCounts = new int[depth];
+        this.askPrices = new long[depth];
+        this.askSizes = new long[depth];
+        this.askCounts = new int[depth];
+    }
+
+    /**
+     * Refills one side of the snapshot by walking the given tree best first, stopping after
+     * {@link #getDepth()} levels.
+     *
+     * @param isBid Whether the tree holds the bid (buy) side.
+     * @param side  The limit level tree to capture.
+     * @return The number of levels captured.
+     */
+    public int capture(boolean isBid, LimitLevelTree side) {
+        long[] prices = isBid ? bidPrices : askPrices;
+        long[] sizes = isBid ? bidSizes : askSizes;
+        int[] counts = isBid ? bidCounts : askCounts;
+        int levels = 0;
+        for (LimitLevel level = side.getRoot(); level != null && levels < depth; level = side.getNextLevel(level)) {
+            prices[levels] = level.getPrice();
+            sizes[levels] = level.getSize();
+            counts[levels] = level.getLength();
+            levels++;
+        }
+        if (isBid) {
+            bidLevels = levels;
+        } else {
+            askLevels = levels;
+        }
+        return levels;
+    }
+
+    /**
+     * Retrieves the maximum number of levels captured per side.
+     *
+     * @return The depth of the snapshot.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Retrieves the number of levels captured on one side.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @return The number of valid entries in that side's arrays.
+     */
+    public int getLevelCount(boolean isBid) {
+        return isBid ? bidLevels : askLevels;
+    }
+
+    /**
+     * Retrieves the price of a captured level.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @param index The level index, 0 being the best level.
+     * @return The price of the level in ticks.
+     */
+    public long getPrice(boolean isBid, int index) {
+        return (isBid ? bidPrices : askPrices)[checkIndex(isBid, index)];
+    }
+
+    /**
+     * Retrieves the size of a captured level.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @param index The level index, 0 being the best level.
+     * @return The size of the level in lots.
+     */
+    public long getSize(boolean isBid, int index) {
+        return (isBid ? bidSizes : askSizes)[checkIndex(isBid, index)];
+    }
+
+    /**
+     * Retrieves the number of orders at a captured level.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @param index The level index, 0 being the best level.
+     * @return The number of orders at the level.
+     */
+    public int getOrderCount(boolean isBid, int index) {
+        return (isBid ? bidCounts : askCounts)[checkIndex(isBid, index)];
+    }
+
+    /**
+     * Retrieves the backing price array of one side, for bulk publishing. Only the first
+     * {@link #getLevelCount(boolean)} entries are valid and the array is overwritten by the next capture.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @return The level prices in ticks, best first.
+     */
+    public long[] getPrices(boolean isBid) {
+        return isBid ? bidPrices : askPrices;
+    }
+
+    /**
+     * Retrieves the backing size array of one side, for bulk publishing. Only the first
+     * {@link #getLevelCount(boolean)} entries are valid and the array is overwritten by the next capture.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @return The level sizes in lots, best first.
+     */
+    public long[] getSizes(boolean isBid) {
+        return isBid ? bidSizes : askSizes;
+    }
+
+    /**
+     * Retrieves the backing order count array of one side, for bulk publishing. Only the first
+     * {@link #getLevelCount(boolean)} entries are valid and the array is overwritten by the next capture.
+     *
+     * @param isBid Whether to query the bid (buy) or ask (sell) side.
+     * @return The number of orders at each level, best first.
+     */
+    public int[] getOrderCounts(boolean isBid) {
+        return isBid ? bidCounts : askCounts;
+    }
+
+    private int checkIndex(boolean isBid, int index) {
+        if (index < 0 || index >= getLevelCount(isBid)) {
+            throw new IndexOutOfBoundsException("Level " + index + " of " + getLevelCount(isBid));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,13 @@
+package main.marketdata;
+
+/**
+ * Represents the kind of change an incremental L2 delta describes for one price level.
+ */
+public enum LevelAction {
+    /** The level did not exist at the previous publish and now does. */
+    CREATED,
+    /** The level existed at the previous publish and its size or order count changed. */
+    CHANGED,
+    /** The level existed at the previous publish and is now empty. */
+    DELETED
+}
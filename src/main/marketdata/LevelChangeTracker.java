@@ -0,0 +1,193 @@
+package main.marketdata;
+
+import java.util.Arrays;
+
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+
+/**
+ * Represents the set of price levels that changed since market data was last published.
+ *
+ * The book marks a level before it mutates it. The first mark of a level in a publish cycle records the
+ * level's size and order count as last published; later marks of the same level are ignored. Draining
+ * compares each marked level with its current state and emits one net delta per level, so the cost of a
+ * publish is proportional to the number of changed levels rather than to the depth of the book.
+ *
+ * Marked levels are deduplicated through an open-addressing index keyed by side and price. Index slots
+ * carry the publish cycle that wrote them, so draining clears the index by advancing the cycle.
+ */
+public class LevelChangeTracker {
+    private static final int DEFAULT_CAPACITY = 64; // Default number of changed levels held without resizing
+
+    private long[] prices; // Price of each changed level in ticks, in order of first change
+    private boolean[] sides; // Whether each changed level is a bid
+    private boolean[] existed; // Whether each changed level existed at the previous publish
+    private long[] previousSizes; // Size of each changed level at the previous publish
+    private int[] previousCounts; // Order count of each changed level at the previous publish
+    private int count; // The number of changed levels
+
+    private long[] slotKeys; // Side and price key stored in each index slot
+    private int[] slotCycles; // Publish cycle that wrote each index slot
+    private int mask; // slotKeys.length - 1
+    private int cycle = 1; // The current publish cycle, never 0 so fresh slots are empty
+
+    /**
+     * Constructs a LevelChangeTracker object with the default capacity.
+     */
+    public LevelChangeTracker() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a LevelChangeTracker object.
+     *
+     * @param capacity The number of changed levels per publish cycle held before resizing.
+     */
+    public LevelChangeTracker(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        allocateEntries(capacity);
+        allocateIndex(Integer.highestOneBit(Math.max(capacity, 2) - 1) << 2);
+    }
+
+    /**
+     * Marks a resting level that is about to change. Must be called before the mutation so that the
+     * level's previously published state can be recorded.
+     *
+     * @param isBid Whether the level is on the bid (buy) side.
+     * @param level The level about to change.
+     */
+    public void mark(boolean isBid, LimitLevel level) {
+        record(isBid, level.getPrice(), true, level.getSize(), level.getLength());
+    }
+
+    /**
+     * Marks a level that has just been created.
+     *
+     * @param isBid Whether the level is on the bid (buy) side.
+     * @param price The price of the new level in ticks.
+     */
+    public void markCreated(boolean isBid, long price) {
+        record(isBid, price, false, 0, 0);
+    }
+
+    /**
+     * Emits the net change of every marked level and starts a new publish cycle.
+     *
+     * Levels whose size and order count ended where they started, and levels created and emptied again
+     * within the cycle, produce no delta.
+     *
+     * @param bids    The bid limit level tree holding the current state.
+     * @param asks    The ask limit level tree holding the current state.
+     * @param handler The handler to receive the deltas.
+     * @return The number of deltas emitted.
+     */
+    public int drain(LimitLevelTree bids, LimitLevelTree asks, LevelDeltaHandler handler) {
+        int emitted = 0;
+        for (int i = 0; i < count; i++) {
+            boolean isBid = sides[i];
+            LimitLevel level = (isBid ? bids : asks).getLevel(prices[i]);
+            if (level == null) {
+                if (existed[i]) {
+                    handler.onLevelDelta(LevelAction.DELETED, isBid, prices[i], 0, 0);
+                    emitted++;
+                }
+            } else if (!existed[i]) {
+                handler.onLevelDelta(LevelAction.CREATED, isBid, prices[i], level.getSize(), level.getLength());
+                emitted++;
+            } else if (level.getSize() != previousSizes[i] || level.getLength() != previousCounts[i]) {
+                handler.onLevelDelta(LevelAction.CHANGED, isBid, prices[i], level.getSize(), level.getLength());
+                emitted++;
+            }
+        }
+        clear();
+        return emitted;
+    }
+
+    /**
+     * Discards every marked level and starts a new publish cycle.
+     */
+    public void clear() {
+        count = 0;
+        if (++cycle == 0) {
+            Arrays.fill(slotCycles, 0);
+            cycle = 1;
+        }
+    }
+
+    /**
+     * Retrieves the number of levels marked in the current publish cycle.
+     *
+     * @return The number of changed levels pending a drain.
+     */
+    public int getPendingCount() {
+        return count;
+    }
+
+    private void record(boolean isBid, long price, boolean existedBefore, long size, int orderCount) {
+        long key = (price << 1) | (isBid ? 1 : 0);
+        int index = slot(key);
+        while (slotCycles[index] == cycle) {
+            if (slotKeys[index] == key) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        if (count == prices.length) {
+            growEntries();
+        }
+        slotKeys[index] = key;
+        slotCycles[index] = cycle;
+        prices[count] = price;
+        sides[count] = isBid;
+        existed[count] = existedBefore;
+        previousSizes[count] = size;
+        previousCounts[count] = orderCount;
+        count++;
+        if (count << 1 > slotKeys.length) {
+            rehash(slotKeys.length << 1);
+        }
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocateEntries(int capacity) {
+        prices = new long[capacity];
+        sides = new boolean[capacity];
+        existed = new boolean[capacity];
+        previousSizes = new long[capacity];
+        previousCounts = new int[capacity];
+    }
+
+    private void growEntries() {
+        int capacity = prices.length << 1;
+        prices = Arrays.copyOf(prices, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        existed = Arrays.copyOf(existed, capacity);
+        previousSizes = Arrays.copyOf(previousSizes, capacity);
+        previousCounts = Arrays.copyOf(previousCounts, capacity);
+    }
+
+    private void allocateIndex(int capacity) {
+        slotKeys = new long[capacity];
+        slotCycles = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        allocateIndex(capacity);
+        for (int i = 0; i < count; i++) {
+            long key = (prices[i] << 1) | (sides[i] ? 1 : 0);
+            int index = slot(key);
+            while (slotCycles[index] == cycle) {
+                index = (index + 1) & mask;
+            }
+            slotKeys[index] = key;
+            slotCycles[index] = cycle;
+        }
+    }
+}
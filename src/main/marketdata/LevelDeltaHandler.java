@@ -0,0 +1,21 @@
+package main.marketdata;
+
+/**
+ * Receives incremental L2 deltas drained from a {@link LevelChangeTracker}.
+ *
+ * All arguments are primitives or constants, so draining allocates nothing.
+ */
+@FunctionalInterface
+public interface LevelDeltaHandler {
+
+    /**
+     * Handles the net change of one price level since the previous publish.
+     *
+     * @param action     Whether the level was created, changed or deleted.
+     * @param isBid      Whether the level is on the bid (buy) or ask (sell) side.
+     * @param price      The price of the level in ticks.
+     * @param size       The size of the level in lots, 0 for a deleted level.
+     * @param orderCount The number of orders at the level, 0 for a deleted level.
+     */
+    void onLevelDelta(LevelAction action, boolean isBid, long price, long size, int orderCount);
+}
@@ -0,0 +1,107 @@
+package main.marketdata;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import main.limits.LimitLevel;
+
+/**
+ * Represents the best bid and ask of a book, published by the engine thread for any number of reader
+ * threads.
+ *
+ * The record is guarded by a sequence lock: the writer makes the version odd, writes the fields and makes
+ * the version even again, and a reader copies the fields into its own {@link TopOfBookSnapshot} and checks
+ * that the version did not move. Readers never block the writer and never write shared state, so adding
+ * readers does not slow the engine down. {@link #tryRead(TopOfBookSnapshot)} makes a single attempt and is
+ * wait-free; {@link #read(TopOfBookSnapshot)} retries until it gets a consistent copy.
+ */
+public class TopOfBook {
+    public static final long NO_PRICE = Long.MIN_VALUE; // Price reported for an empty side
+
+    private static final VarHandle VERSION; // Access to the version with explicit memory ordering
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(TopOfBook.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long version; // Odd while the writer is updating the fields, bumped twice per publish
+    private long bidPrice = NO_PRICE; // Best bid price in ticks
+    private long bidSize; // Size of the best bid level in lots
+    private int bidCount; // Number of orders at the best bid level
+    private long askPrice = NO_PRICE; // Best ask price in ticks
+    private long askSize; // Size of the best ask level in lots
+    private int askCount; // Number of orders at the best ask level
+
+    /**
+     * Publishes the best levels if they differ from the last published ones. Writer thread only.
+     *
+     * @param bestBid The best bid level, or null if there are no bids.
+     * @param bestAsk The best ask level, or null if there are no asks.
+     * @return True if a new record was published, false if nothing changed.
+     */
+    public boolean publish(LimitLevel bestBid, LimitLevel bestAsk) {
+        long newBidPrice = bestBid != null ? bestBid.getPrice() : NO_PRICE;
+        long newBidSize = bestBid != null ? bestBid.getSize() : 0;
+        int newBidCount = bestBid != null ? bestBid.getLength() : 0;
+        long newAskPrice = bestAsk != null ? bestAsk.getPrice() : NO_PRICE;
+        long newAskSize = bestAsk != null ? bestAsk.getSize() : 0;
+        int newAskCount = bestAsk != null ? bestAsk.getLength() : 0;
+        if (newBidPrice == bidPrice && newBidSize == bidSize && newBidCount == bidCount
+                && newAskPrice == askPrice && newAskSize == askSize && newAskCount == askCount) {
+            return false;
+        }
+        long current = (long) VERSION.getOpaque(this);
+        VERSION.setOpaque(this, current + 1);
+        VarHandle.storeStoreFence();
+        bidPrice = newBidPrice;
+        bidSize = newBidSize;
+        bidCount = newBidCount;
+        askPrice = newAskPrice;
+        askSize = newAskSize;
+        askCount = newAskCount;
+        VERSION.setRelease(this, current + 2);
+        return true;
+    }
+
+    /**
+     * Makes one attempt to copy the record into a snapshot. Never blocks and never retries.
+     *
+     * @param snapshot The snapshot to overwrite.
+     * @return True if the snapshot holds a consistent copy, false if the writer was mid-update.
+     */
+    public boolean tryRead(TopOfBookSnapshot snapshot) {
+        long before = (long) VERSION.getAcquire(this);
+        if ((before & 1) != 0) {
+            return false;
+        }
+        snapshot.set(before >>> 1, bidPrice, bidSize, bidCount, askPrice, askSize, askCount);
+        VarHandle.acquireFence();
+        return before == version;
+    }
+
+    /**
+     * Copies the record into a snapshot, retrying until the copy is consistent.
+     *
+     * @param snapshot The snapshot to overwrite.
+     * @return The snapshot, for chaining.
+     */
+    public TopOfBookSnapshot read(TopOfBookSnapshot snapshot) {
+        while (!tryRead(snapshot)) {
+            Thread.onSpinWait();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Retrieves the number of records published so far.
+     *
+     * @return The sequence number of the latest record.
+     */
+    public long getSequence() {
+        return version >>> 1;
+    }
+}
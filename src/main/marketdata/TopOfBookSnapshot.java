@@ -0,0 +1,141 @@
+package main.marketdata;
+
+/**
+ * Represents a reader's private copy of a {@link TopOfBook} record.
+ *
+ * A reader allocates one snapshot and refills it on every poll, so polling produces no garbage.
+ */
+public class TopOfBookSnapshot {
+    private long sequence; // Sequence number of the copied record
+    private long bidPrice = TopOfBook.NO_PRICE; // Best bid price in ticks
+    private long bidSize; // Size of the best bid level in lots
+    private int bidCount; // Number of orders at the best bid level
+    private long askPrice = TopOfBook.NO_PRICE; // Best ask price in ticks
+    private long askSize; // Size of the best ask level in lots
+    private int askCount; // Number of orders at the best ask level
+
+    /**
+     * Sets all fields of the snapshot.
+     *
+     * @param sequence The sequence number of the record.
+     * @param bidPrice The best bid price in ticks.
+     * @param bidSize  The size of the best bid level in lots.
+     * @param bidCount The number of orders at the best bid level.
+     * @param askPrice The best ask price in ticks.
+     * @param askSize  The size of the best ask level in lots.
+     * @param askCount The number of orders at the best ask level.
+     */
+    void set(long sequence, long bidPrice, long bidSize, int bidCount, long askPrice, long askSize, int askCount) {
+        this.sequence = sequence;
+        this.bidPrice = bidPrice;
+        this.bidSize = bidSize;
+        this.bidCount = bidCount;
+        this.askPrice = askPrice;
+        this.askSize = askSize;
+        this.askCount = askCount;
+    }
+
+    /**
+     * Retrieves the sequence number of the copied record.
+     *
+     * @return The sequence number, 0 if nothing was published yet.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Checks if there was a bid.
+     *
+     * @return True if the book had at least one bid, false otherwise.
+     */
+    public boolean hasBid() {
+        return bidCount > 0;
+    }
+
+    /**
+     * Checks if there was an ask.
+     *
+     * @return True if the book had at least one ask, false otherwise.
+     */
+    public boolean hasAsk() {
+        return askCount > 0;
+    }
+
+    /**
+     * Retrieves the best bid price.
+     *
+     * @return The best bid price in ticks, or {@link TopOfBook#NO_PRICE} if there was no bid.
+     */
+    public long getBidPrice() {
+        return bidPrice;
+    }
+
+    /**
+     * Retrieves the size of the best bid level.
+     *
+     * @return The size in lots.
+     */
+    public long getBidSize() {
+        return bidSize;
+    }
+
+    /**
+     * Retrieves the number of orders at the best bid level.
+     *
+     * @return The number of orders.
+     */
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    /**
+     * Retrieves the best ask price.
+     *
+     * @return The best ask price in ticks, or {@link TopOfBook#NO_PRICE} if there was no ask.
+     */
+    public long getAskPrice() {
+        return askPrice;
+    }
+
+    /**
+     * Retrieves the size of the best ask level.
+     *
+     * @return The size in lots.
+     */
+    public long getAskSize() {
+        return askSize;
+    }
+
+    /**
+     * Retrieves the number of orders at the best ask level.
+     *
+     * @return The number of orders.
+     */
+    public int getAskCount() {
+        return askCount;
+    }
+
+    /**
+     * Calculates the mid price.
+     *
+     * @return The mid price in ticks, or NaN if either side was empty.
+     */
+    public double getMidPrice() {
+        if (!hasBid() || !hasAsk()) {
+            return Double.NaN;
+        }
+        return (bidPrice + askPrice) / 2.0;
+    }
+
+    /**
+     * Returns a string representation of the snapshot.
+     *
+     * @return The string representation of the snapshot.
+     */
+    @Override
+    public String toString() {
+        return "(" + sequence + ", " + bidPrice + ", " + bidSize + ", " + bidCount + ", " + askPrice + ", "
+                + askSize + ", " + askCount + ")";
+    }
+}
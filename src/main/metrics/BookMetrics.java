@@ -0,0 +1,141 @@
+package main.metrics;
+
+import java.util.Arrays;
+
+import main.ProcessResult;
+
+/**
+ * Collects hot-path metrics of a book: latency histograms per {@link BookOperation}, counters per
+ * {@link ProcessResult}, level churn, fills and how deep incoming orders match.
+ *
+ * A book records into its metrics only when they are set and {@link #ENABLED} is true. {@link #ENABLED} is
+ * a constant read once at class load, so starting the JVM with {@code -Dlob.metrics.disabled=true} lets
+ * the JIT remove every recording site along with its clock reads. Metrics are written by the thread that
+ * processes the book and must be read on that thread, e.g. through a snapshot.
+ */
+public class BookMetrics {
+    public static final boolean ENABLED = !Boolean.getBoolean("lob.metrics.disabled"); // Recording compiled in
+
+    private static final BookOperation[] OPERATIONS = BookOperation.values(); // Cached to avoid copies
+    private static final ProcessResult[] RESULTS = ProcessResult.values(); // Cached to avoid copies
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length]; // Per operation
+    private final long[] results = new long[RESULTS.length]; // Messages per outcome
+    private final LatencyHistogram matchLevels = new LatencyHistogram(); // Levels traded per crossing order
+    private final LatencyHistogram matchFills = new LatencyHistogram(); // Fills per crossing order
+    private long levelsCreated; // Price levels created
+    private long levelsRemoved; // Price levels emptied and removed
+    private long fills; // Fills against resting orders
+    private long filledVolume; // Lots traded
+    private int maxQueueDepth; // Most orders ever queued at one level
+
+    /**
+     * Constructs an empty BookMetrics object.
+     */
+    public BookMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records the time an operation took.
+     *
+     * @param operation The operation.
+     * @param nanos     The time it took in nanoseconds.
+     */
+    public void recordLatency(BookOperation operation, long nanos) {
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    /**
+     * Counts a processed message by its outcome.
+     *
+     * @param result The outcome of the message.
+     */
+    public void recordResult(ProcessResult result) {
+        results[result.ordinal()]++;
+    }
+
+    /**
+     * Counts a new price level.
+     */
+    public void recordLevelCreated() {
+        levelsCreated++;
+    }
+
+    /**
+     * Counts a price level that was emptied and removed.
+     */
+    public void recordLevelRemoved() {
+        levelsRemoved++;
+    }
+
+    /**
+     * Records the length of a level's queue after an order joined it.
+     *
+     * @param depth The number of orders at the level.
+     */
+    public void recordQueueDepth(int depth) {
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+    }
+
+    /**
+     * Records the outcome of matching an incoming order that crossed the opposite side.
+     *
+     * @param levels The number of price levels it traded at.
+     * @param fills  The number of resting orders it traded with.
+     * @param volume The lots it traded.
+     */
+    public void recordMatch(int levels, int fills, long volume) {
+        matchLevels.record(levels);
+        matchFills.record(fills);
+        this.fills += fills;
+        filledVolume += volume;
+    }
+
+    /**
+     * Discards every recorded value.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+        Arrays.fill(results, 0);
+        matchLevels.reset();
+        matchFills.reset();
+        levelsCreated = 0;
+        levelsRemoved = 0;
+        fills = 0;
+        filledVolume = 0;
+        maxQueueDepth = 0;
+    }
+
+    /**
+     * Copies the recorded values, together with the book's current gauges, into a snapshot that can be
+     * handed to another thread.
+     *
+     * @param restingOrders The number of orders resting in the book.
+     * @param bidLevels     The number of bid price levels.
+     * @param askLevels     The number of ask price levels.
+     * @param queueDepth    The most orders currently queued at one level.
+     * @return The snapshot.
+     */
+    public BookMetricsSnapshot snapshot(int restingOrders, int bidLevels, int askLevels, int queueDepth) {
+        LatencyHistogram[] latencyCopies = new LatencyHistogram[latencies.length];
+        for (int i = 0; i < latencies.length; i++) {
+            latencyCopies[i] = copy(latencies[i]);
+        }
+        return new BookMetricsSnapshot(latencyCopies, results.clone(), copy(matchLevels), copy(matchFills),
+                levelsCreated, levelsRemoved, fills, filledVolume, Math.max(maxQueueDepth, queueDepth),
+                restingOrders, bidLevels, askLevels, queueDepth);
+    }
+
+    private static LatencyHistogram copy(LatencyHistogram histogram) {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(histogram);
+        return copy;
+    }
+}
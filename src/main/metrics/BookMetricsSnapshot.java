@@ -0,0 +1,189 @@
+package main.metrics;
+
+import main.ProcessResult;
+
+/**
+ * Represents a copy of a book's {@link BookMetrics} and gauges taken at one point in time.
+ *
+ * A snapshot is not modified after it is taken, so it can be read and exported from any thread.
+ */
+public class BookMetricsSnapshot {
+    private final LatencyHistogram[] latencies; // Per BookOperation ordinal
+    private final long[] results; // Per ProcessResult ordinal
+    private final LatencyHistogram matchLevels; // Levels traded per crossing order
+    private final LatencyHistogram matchFills; // Fills per crossing order
+    private final long levelsCreated; // Price levels created
+    private final long levelsRemoved; // Price levels removed
+    private final long fills; // Fills against resting orders
+    private final long filledVolume; // Lots traded
+    private final int maxQueueDepth; // Most orders ever queued at one level
+    private final int restingOrders; // Orders resting when the snapshot was taken
+    private final int bidLevels; // Bid levels when the snapshot was taken
+    private final int askLevels; // Ask levels when the snapshot was taken
+    private final int queueDepth; // Most orders queued at one level when the snapshot was taken
+
+    BookMetricsSnapshot(LatencyHistogram[] latencies, long[] results, LatencyHistogram matchLevels,
+            LatencyHistogram matchFills, long levelsCreated, long levelsRemoved, long fills, long filledVolume,
+            int maxQueueDepth, int restingOrders, int bidLevels, int askLevels, int queueDepth) {
+        this.latencies = latencies;
+        this.results = results;
+        this.matchLevels = matchLevels;
+        this.matchFills = matchFills;
+        this.levelsCreated = levelsCreated;
+        this.levelsRemoved = levelsRemoved;
+        this.fills = fills;
+        this.filledVolume = filledVolume;
+        this.maxQueueDepth = maxQueueDepth;
+        this.restingOrders = restingOrders;
+        this.bidLevels = bidLevels;
+        this.askLevels = askLevels;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Retrieves the latencies of an operation. The histogram must not be modified.
+     *
+     * @param operation The operation.
+     * @return The latency histogram in nanoseconds.
+     */
+    public LatencyHistogram getLatency(BookOperation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * Retrieves the number of messages with an outcome.
+     *
+     * @param result The outcome.
+     * @return The number of messages.
+     */
+    public long getResultCount(ProcessResult result) {
+        return results[result.ordinal()];
+    }
+
+    /**
+     * Retrieves the distribution of price levels traded at per crossing order. The histogram must not be
+     * modified.
+     *
+     * @return The histogram, in levels.
+     */
+    public LatencyHistogram getMatchLevels() {
+        return matchLevels;
+    }
+
+    /**
+     * Retrieves the distribution of resting orders traded with per crossing order. The histogram must not
+     * be modified.
+     *
+     * @return The histogram, in fills.
+     */
+    public LatencyHistogram getMatchFills() {
+        return matchFills;
+    }
+
+    /**
+     * Retrieves the number of price levels created.
+     *
+     * @return The number of levels created.
+     */
+    public long getLevelsCreated() {
+        return levelsCreated;
+    }
+
+    /**
+     * Retrieves the number of price levels emptied and removed.
+     *
+     * @return The number of levels removed.
+     */
+    public long getLevelsRemoved() {
+        return levelsRemoved;
+    }
+
+    /**
+     * Retrieves the number of fills against resting orders.
+     *
+     * @return The number of fills.
+     */
+    public long getFills() {
+        return fills;
+    }
+
+    /**
+     * Retrieves the volume traded.
+     *
+     * @return The volume in lots.
+     */
+    public long getFilledVolume() {
+        return filledVolume;
+    }
+
+    /**
+     * Retrieves the most orders ever queued at one level while metrics were recorded.
+     *
+     * @return The maximum queue depth.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Retrieves the number of orders resting when the snapshot was taken.
+     *
+     * @return The number of resting orders.
+     */
+    public int getRestingOrders() {
+        return restingOrders;
+    }
+
+    /**
+     * Retrieves the number of bid price levels when the snapshot was taken.
+     *
+     * @return The number of bid levels.
+     */
+    public int getBidLevels() {
+        return bidLevels;
+    }
+
+    /**
+     * Retrieves the number of ask price levels when the snapshot was taken.
+     *
+     * @return The number of ask levels.
+     */
+    public int getAskLevels() {
+        return askLevels;
+    }
+
+    /**
+     * Retrieves the most orders queued at one level when the snapshot was taken.
+     *
+     * @return The current maximum queue depth.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Returns a multi-line report of the snapshot.
+     *
+     * @return The report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        for (BookOperation operation : BookOperation.values()) {
+            report.append("latency ").append(operation).append(" ns: ").append(getLatency(operation)).append('\n');
+        }
+        report.append("results:");
+        for (ProcessResult result : ProcessResult.values()) {
+            report.append(' ').append(result).append('=').append(getResultCount(result));
+        }
+        report.append('\n');
+        report.append("match levels: ").append(matchLevels).append('\n');
+        report.append("match fills: ").append(matchFills).append('\n');
+        report.append("levels created=").append(levelsCreated).append(" removed=").append(levelsRemoved)
+                .append(", fills=").append(fills).append(" volume=").append(filledVolume).append('\n');
+        report.append("resting orders=").append(restingOrders).append(", bid levels=").append(bidLevels)
+                .append(", ask levels=").append(askLevels).append(", queue depth=").append(queueDepth)
+                .append(" max=").append(maxQueueDepth);
+        return report.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package main.metrics;
+
+/**
+ * Represents an operation of a book timed by {@link BookMetrics}.
+ */
+public enum BookOperation {
+    /** A whole message, from lookup to result. */
+    PROCESS,
+    /** Adding a new order, including any matching. */
+    ADD,
+    /** Changing the size of a resting order. */
+    UPDATE,
+    /** Cancelling a resting order. */
+    REMOVE,
+    /** Matching an incoming order that crossed the opposite side. */
+    MATCH
+}
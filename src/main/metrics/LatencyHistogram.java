@@ -0,0 +1,156 @@
+package main.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Represents a histogram of non-negative values, normally latencies in nanoseconds, with bounded relative
+ * error.
+ *
+ * Values below 128 have a bucket each; above that, every power-of-two range is split into 64 buckets, so
+ * a recorded value is reported to within 1/64 (about 1.6%) of its true value. The bucket array is
+ * allocated once and recording is a few arithmetic operations and an array increment. A histogram is
+ * written by one thread.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6; // log2 of the buckets per power-of-two range
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Buckets per power-of-two range
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1; // Values below this have a bucket each
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS; // Covers every long
+
+    private final long[] counts = new long[BUCKETS]; // Number of values recorded in each bucket
+    private long count; // The number of values recorded
+    private long sum; // The sum of the values recorded
+    private long min = Long.MAX_VALUE; // The smallest value recorded
+    private long max; // The largest value recorded
+
+    /**
+     * Records one value.
+     *
+     * @param nanos The value in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other The histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Discards every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Retrieves the value at a percentile.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The highest value of the bucket holding the percentile, capped at the maximum, or 0 if
+     *         nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Retrieves the number of values recorded.
+     *
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the smallest value recorded.
+     *
+     * @return The smallest value in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Retrieves the largest value recorded.
+     *
+     * @return The largest value in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Calculates the mean of the values recorded.
+     *
+     * @return The mean in nanoseconds, or NaN if nothing was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * Returns a one-line summary of the distribution.
+     *
+     * @return The count, mean and main percentiles in nanoseconds.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d p99.99=%d max=%d", count, getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99),
+                getValueAtPercentile(99.9), getValueAtPercentile(99.99), max);
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long highestValue(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,643 @@
+package main.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import main.ProcessResult;
+import main.order.OrderClock;
+import main.order.OrderMessage;
+import main.order.OrderType;
+
+/**
+ * Represents a limit order book whose orders and price levels live in off-heap memory.
+ *
+ * Order state is laid out as struct-of-arrays in direct buffers (uid, side, price, size, timestamp and
+ * next/previous slot indices), so a resting order costs no object header or references and the GC has
+ * nothing to mark per order. Each side's price levels are a tick-indexed array over a fixed price band,
+ * holding the head and tail slot of the level's queue, its size and its order count; queues are linked
+ * by slot index. Order IDs are resolved through an off-heap open-addressing index.
+ *
+ * The book has the same processing semantics as {@link main.LimitOrderBook}: size 0 cancels, a known ID
+ * updates the size and a new ID matches against the opposite side before resting, and immediate
+ * {@link OrderType}s trade without resting. Iceberg orders are not supported and are rejected. Capacity
+ * and price band are fixed at construction: a new limit order outside the band, or arriving while every
+ * slot is taken, is rejected before it can trade. Resting orders are timestamped from the book's
+ * {@link OrderClock}, as in the heap book.
+ */
+public class OffHeapOrderBook {
+    public static final long NO_PRICE = Long.MIN_VALUE; // Returned for the best price of an empty side
+    public static final int MAX_CAPACITY = 1 << 26; // Most resting orders, keeping every buffer under 2^31 bytes
+
+    private static final int NIL = -1; // Null slot index
+    private static final int BID = 0; // Side index of bids
+    private static final int ASK = 1; // Side index of asks
+
+    private final int capacity; // The maximum number of resting orders
+    private final long minPrice; // The lowest price in ticks the book accepts
+    private final int ticks; // The number of prices in the band
+
+    // Order store, one entry per slot
+    private final ByteBuffer orderUids; // long
+    private final ByteBuffer orderSides; // byte, BID or ASK
+    private final ByteBuffer orderPrices; // long
+    private final ByteBuffer orderSizes; // long
+    private final ByteBuffer orderTimestamps; // long
+    private final ByteBuffer orderNexts; // int, next slot in the level queue or the free list
+    private final ByteBuffer orderPrevs; // int, previous slot in the level queue
+    private int freeSlot; // Head of the free slot list
+    private int orderCount; // The number of resting orders
+    private OrderClock clock = OrderClock.NANO_TIME; // Source of resting orders' timestamps
+    private long sequence; // Number of messages processed, the timestamp under OrderClock.SEQUENCE
+
+    // Price levels, one entry per tick per side
+    private final ByteBuffer[] levelHeads = new ByteBuffer[2]; // int
+    private final ByteBuffer[] levelTails = new ByteBuffer[2]; // int
+    private final ByteBuffer[] levelSizes = new ByteBuffer[2]; // long
+    private final ByteBuffer[] levelCounts = new ByteBuffer[2]; // int
+    private final int[] levelsPerSide = new int[2]; // The number of non-empty levels on each side
+    private final long[] best = { NO_PRICE, NO_PRICE }; // Best price in ticks on each side
+
+    // Order ID index, linear probing; a slot value of 0 marks an empty entry, otherwise it is slot + 1
+    private final ByteBuffer indexKeys; // long
+    private final ByteBuffer indexSlots; // int
+    private final int indexMask; // The number of index entries - 1
+
+    /**
+     * Constructs an OffHeapOrderBook object.
+     *
+     * @param capacity The maximum number of resting orders, at most {@link #MAX_CAPACITY}.
+     * @param minPrice The lowest accepted price in ticks.
+     * @param maxPrice The highest accepted price in ticks.
+     */
+    public OffHeapOrderBook(int capacity, long minPrice, long maxPrice) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be in (0, 2^26]: " + capacity);
+        }
+        if (maxPrice < minPrice || maxPrice - minPrice >= (1 << 26)) {
+            throw new IllegalArgumentException("Invalid price band [" + minPrice + ", " + maxPrice + "]");
+        }
+        this.capacity = capacity;
+        this.minPrice = minPrice;
+        this.ticks = (int) (maxPrice - minPrice + 1);
+
+        this.orderUids = allocate(capacity, Long.BYTES);
+        this.orderSides = allocate(capacity, Byte.BYTES);
+        this.orderPrices = allocate(capacity, Long.BYTES);
+        this.orderSizes = allocate(capacity, Long.BYTES);
+        this.orderTimestamps = allocate(capacity, Long.BYTES);
+        this.orderNexts = allocate(capacity, Integer.BYTES);
+        this.orderPrevs = allocate(capacity, Integer.BYTES);
+        for (int slot = 0; slot < capacity; slot++) {
+            setNext(slot, slot + 1 < capacity ? slot + 1 : NIL);
+        }
+        this.freeSlot = 0;
+
+        for (int side = BID; side <= ASK; side++) {
+            levelHeads[side] = allocate(ticks, Integer.BYTES);
+            levelTails[side] = allocate(ticks, Integer.BYTES);
+            levelSizes[side] = allocate(ticks, Long.BYTES);
+            levelCounts[side] = allocate(ticks, Integer.BYTES);
+        }
+
+        int indexSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.indexKeys = allocate(indexSize, Long.BYTES);
+        this.indexSlots = allocate(indexSize, Integer.BYTES);
+        this.indexMask = indexSize - 1;
+    }
+
+    /**
+     * Processes an order message and updates the order book accordingly.
+     *
+     * @param message The order message to process.
+     * @return The outcome of the message, {@link ProcessResult#REJECTED} for an iceberg order.
+     */
+    public ProcessResult process(OrderMessage message) {
+        if (message.getDisplaySize() != 0) {
+            sequence++; // Counted like any other message
+            return ProcessResult.REJECTED;
+        }
+        return process(message.getUid(), message.isBid(), message.getSize(), message.getPrice(),
+                message.getTimestamp(), message.getType());
+    }
+
+    /**
+     * Processes an order message given by its fields and updates the order book accordingly.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots, 0 to cancel.
+     * @param price The price of the order in ticks.
+     * @return The outcome of the message.
+     */
+    public ProcessResult process(long uid, boolean isBid, long size, long price) {
+        return process(uid, isBid, size, price, 0, OrderType.LIMIT);
+    }
+
+    /**
+     * Processes an order message of a given type and updates the order book accordingly. An immediate
+     * order is rejected if its size is 0 or its ID rests in the book; otherwise it trades as far as its
+     * type allows and never rests.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots, 0 to cancel.
+     * @param price The price of the order in ticks, ignored for a market order.
+     * @param type  How the order trades and whether it may rest.
+     * @return The outcome of the message; for an immediate order {@link ProcessResult#FILLED},
+     *         {@link ProcessResult#EXPIRED} if only part of it traded, or {@link ProcessResult#KILLED} if
+     *         none of it did.
+     */
+    public ProcessResult process(long uid, boolean isBid, long size, long price, OrderType type) {
+        return process(uid, isBid, size, price, 0, type);
+    }
+
+    /**
+     * Processes an order message of a given type with a supplied timestamp and updates the order book
+     * accordingly, as {@link #process(long, boolean, long, long, OrderType)}.
+     *
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots, 0 to cancel.
+     * @param price     The price of the order in ticks, ignored for a market order.
+     * @param timestamp The timestamp of the order, kept by a book using {@link OrderClock#EXCHANGE}, or 0.
+     * @param type      How the order trades and whether it may rest.
+     * @return The outcome of the message.
+     */
+    public ProcessResult process(long uid, boolean isBid, long size, long price, long timestamp, OrderType type) {
+        sequence++;
+        if (size < 0) {
+            return ProcessResult.REJECTED;
+        }
+        int slot = findSlot(uid);
+        if (type.isImmediate()) {
+            return size == 0 || slot != NIL ? ProcessResult.REJECTED : take(isBid, size, price, type);
+        }
+        if (size == 0) {
+            if (slot == NIL) {
+                return ProcessResult.REJECTED;
+            }
+            remove(slot);
+            return ProcessResult.CANCELLED;
+        }
+        if (slot != NIL) {
+            int side = orderSides.get(slot);
+            int level = level(orderPrices.getLong(slot << 3));
+            addLevelSize(side, level, size - orderSizes.getLong(slot << 3));
+            orderSizes.putLong(slot << 3, size);
+            return ProcessResult.UPDATED;
+        }
+        if (price < minPrice || price - minPrice >= ticks || freeSlot == NIL) {
+            return ProcessResult.REJECTED;
+        }
+        long remaining = matchOrders(isBid, size, price);
+        if (remaining == 0) {
+            return ProcessResult.FILLED;
+        }
+        rest(uid, isBid ? BID : ASK, remaining, price, timestamp(timestamp));
+        return remaining < size ? ProcessResult.PARTIALLY_FILLED : ProcessResult.ADDED;
+    }
+
+    /**
+     * Retrieves the best bid price.
+     *
+     * @return The highest bid price in ticks, or {@link #NO_PRICE} if there are no bids.
+     */
+    public long getBestBidPrice() {
+        return best[BID];
+    }
+
+    /**
+     * Retrieves the best ask price.
+     *
+     * @return The lowest ask price in ticks, or {@link #NO_PRICE} if there are no asks.
+     */
+    public long getBestAskPrice() {
+        return best[ASK];
+    }
+
+    /**
+     * Calculates the mid price of the order book.
+     *
+     * @return The mid price in ticks, or {@link Double#NaN} if either side is empty.
+     */
+    public double getMidPrice() {
+        if (best[BID] == NO_PRICE || best[ASK] == NO_PRICE) {
+            return Double.NaN;
+        }
+        return (best[BID] + best[ASK]) / 2.0;
+    }
+
+    /**
+     * Retrieves the total size resting at a price level.
+     *
+     * @param isBid Whether to query the bid (buy) side.
+     * @param price The price of the level in ticks.
+     * @return The size of the level in lots, 0 if there is no level at that price.
+     */
+    public long getLevelSize(boolean isBid, long price) {
+        if (price < minPrice || price - minPrice >= ticks) {
+            return 0;
+        }
+        return levelSizes[isBid ? BID : ASK].getLong(level(price) << 3);
+    }
+
+    /**
+     * Retrieves the number of orders resting at a price level.
+     *
+     * @param isBid Whether to query the bid (buy) side.
+     * @param price The price of the level in ticks.
+     * @return The number of orders at the level, 0 if there is no level at that price.
+     */
+    public int getLevelOrderCount(boolean isBid, long price) {
+        if (price < minPrice || price - minPrice >= ticks) {
+            return 0;
+        }
+        return levelCounts[isBid ? BID : ASK].getInt(level(price) << 2);
+    }
+
+    /**
+     * Retrieves the number of non-empty price levels on one side of the book.
+     *
+     * @param isBid Whether to query the bid (buy) side.
+     * @return The number of levels.
+     */
+    public int getLevelCount(boolean isBid) {
+        return levelsPerSide[isBid ? BID : ASK];
+    }
+
+    /**
+     * Copies the best levels of one side of the book, best first, into the given arrays.
+     *
+     * @param isBid  Whether to read the bid (buy) side.
+     * @param prices Receives the level prices in ticks.
+     * @param sizes  Receives the level sizes in lots.
+     * @param counts Receives the number of orders per level.
+     * @return The number of levels copied, at most the length of the shortest array.
+     */
+    public int getLevels(boolean isBid, long[] prices, long[] sizes, int[] counts) {
+        int side = isBid ? BID : ASK;
+        int depth = Math.min(Math.min(prices.length, sizes.length), Math.min(counts.length, levelsPerSide[side]));
+        if (depth == 0) {
+            return 0;
+        }
+        int step = isBid ? -1 : 1;
+        int copied = 0;
+        for (int level = level(best[side]); copied < depth; level += step) {
+            int count = levelCounts[side].getInt(level << 2);
+            if (count > 0) {
+                prices[copied] = minPrice + level;
+                sizes[copied] = levelSizes[side].getLong(level << 3);
+                counts[copied] = count;
+                copied++;
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Checks if an order with the given ID rests in the book.
+     *
+     * @param uid The order ID.
+     * @return True if the order rests in the book, false otherwise.
+     */
+    public boolean containsOrder(long uid) {
+        return findSlot(uid) != NIL;
+    }
+
+    /**
+     * Retrieves the remaining size of a resting order.
+     *
+     * @param uid The order ID.
+     * @return The size in lots, or 0 if the order is not in the book.
+     */
+    public long getOrderSize(long uid) {
+        int slot = findSlot(uid);
+        return slot == NIL ? 0 : orderSizes.getLong(slot << 3);
+    }
+
+    /**
+     * Retrieves the price of a resting order.
+     *
+     * @param uid The order ID.
+     * @return The price in ticks, or {@link #NO_PRICE} if the order is not in the book.
+     */
+    public long getOrderPrice(long uid) {
+        int slot = findSlot(uid);
+        return slot == NIL ? NO_PRICE : orderPrices.getLong(slot << 3);
+    }
+
+    /**
+     * Retrieves the time at which a resting order was accepted.
+     *
+     * @param uid The order ID.
+     * @return The timestamp the book's clock gave the order, or 0 if the order is not in the book.
+     */
+    public long getOrderTimestamp(long uid) {
+        int slot = findSlot(uid);
+        return slot == NIL ? 0 : orderTimestamps.getLong(slot << 3);
+    }
+
+    /**
+     * Sets the clock resting orders are timestamped from. Orders already resting keep their timestamps.
+     *
+     * @param clock The clock, {@link OrderClock#NANO_TIME} by default.
+     */
+    public void setClock(OrderClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieves the clock resting orders are timestamped from.
+     *
+     * @return The clock.
+     */
+    public OrderClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Retrieves the number of messages the book has processed, the timestamp source under
+     * {@link OrderClock#SEQUENCE}.
+     *
+     * @return The message sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retrieves the number of resting orders.
+     *
+     * @return The number of orders in the book.
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Retrieves the maximum number of resting orders.
+     *
+     * @return The order capacity of the book.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Retrieves the amount of off-heap memory reserved by the book.
+     *
+     * @return The number of bytes in the book's direct buffers.
+     */
+    public long getOffHeapBytes() {
+        long bytes = (long) capacity * (4 * Long.BYTES + Byte.BYTES + 2 * Integer.BYTES);
+        bytes += 2L * ticks * (2 * Integer.BYTES + Long.BYTES + Integer.BYTES);
+        bytes += (indexMask + 1L) * (Long.BYTES + Integer.BYTES);
+        return bytes;
+    }
+
+    /**
+     * Trade an immediate order against the opposite side of the book without resting any of it.
+     *
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots.
+     * @param price The price of the order in ticks.
+     * @param type  The immediate type of the order.
+     * @return {@link ProcessResult#FILLED}, {@link ProcessResult#EXPIRED} or {@link ProcessResult#KILLED}.
+     */
+    private ProcessResult take(boolean isBid, long size, long price, OrderType type) {
+        long limit = type != OrderType.MARKET ? price : isBid ? Long.MAX_VALUE : Long.MIN_VALUE;
+        long remaining = size;
+        if (type != OrderType.FILL_OR_KILL || canFill(isBid ? ASK : BID, size, limit)) {
+            remaining = matchOrders(isBid, size, limit);
+        }
+        if (remaining == 0) {
+            return ProcessResult.FILLED;
+        }
+        return remaining < size ? ProcessResult.EXPIRED : ProcessResult.KILLED;
+    }
+
+    /**
+     * Check, without changing the book, whether one side holds enough size up to a price to fill an order
+     * in full, visiting only the levels the order would trade against.
+     *
+     * @param side  The side the order would trade against.
+     * @param size  The size of the order in lots.
+     * @param price The price of the order in ticks.
+     * @return True if the order would fill in full, false otherwise.
+     */
+    private boolean canFill(int side, long size, long price) {
+        int levels = levelsPerSide[side];
+        if (levels == 0) {
+            return false;
+        }
+        int step = side == BID ? -1 : 1;
+        for (int level = level(best[side]); levels > 0
+                && (side == BID ? minPrice + level >= price : minPrice + level <= price); level += step) {
+            if (levelCounts[side].getInt(level << 2) > 0) {
+                size -= levelSizes[side].getLong(level << 3);
+                if (size <= 0) {
+                    return true;
+                }
+                levels--;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Match an incoming order against the opposite side of the book, sweeping every crossing level.
+     *
+     * @param isBid Indicates if the incoming order is a bid (buy) or ask (sell).
+     * @param size  The size of the incoming order in lots.
+     * @param price The price of the incoming order in ticks.
+     * @return The size left after matching.
+     */
+    private long matchOrders(boolean isBid, long size, long price) {
+        int side = isBid ? ASK : BID;
+        while (size > 0 && best[side] != NO_PRICE && (isBid ? best[side] <= price : best[side] >= price)) {
+            int level = level(best[side]);
+            while (size > 0 && levelCounts[side].getInt(level << 2) > 0) {
+                int slot = levelHeads[side].getInt(level << 2);
+                long restingSize = orderSizes.getLong(slot << 3);
+                long traded = Math.min(size, restingSize);
+                size -= traded;
+                if (traded == restingSize) {
+                    remove(slot);
+                } else {
+                    orderSizes.putLong(slot << 3, restingSize - traded);
+                    addLevelSize(side, level, -traded);
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Read the book's clock for an order that comes to rest.
+     *
+     * @param supplied The timestamp supplied with the order, or 0.
+     * @return The order's timestamp.
+     */
+    private long timestamp(long supplied) {
+        switch (clock) {
+            case SEQUENCE:
+                return sequence;
+            case EXCHANGE:
+                return supplied;
+            default:
+                return OrderClock.epochNanos();
+        }
+    }
+
+    /**
+     * Store a new order in a free slot and append it to its price level.
+     */
+    private void rest(long uid, int side, long size, long price, long timestamp) {
+        int slot = freeSlot;
+        freeSlot = orderNexts.getInt(slot << 2);
+        orderUids.putLong(slot << 3, uid);
+        orderSides.put(slot, (byte) side);
+        orderPrices.putLong(slot << 3, price);
+        orderSizes.putLong(slot << 3, size);
+        orderTimestamps.putLong(slot << 3, timestamp);
+        orderCount++;
+        putSlot(uid, slot);
+
+        int level = level(price);
+        int count = levelCounts[side].getInt(level << 2);
+        int tail = levelTails[side].getInt(level << 2);
+        setPrev(slot, count == 0 ? NIL : tail);
+        setNext(slot, NIL);
+        if (count == 0) {
+            levelHeads[side].putInt(level << 2, slot);
+            levelsPerSide[side]++;
+            if (best[side] == NO_PRICE || (side == BID ? price > best[side] : price < best[side])) {
+                best[side] = price;
+            }
+        } else {
+            setNext(tail, slot);
+        }
+        levelTails[side].putInt(level << 2, slot);
+        levelCounts[side].putInt(level << 2, count + 1);
+        addLevelSize(side, level, size);
+    }
+
+    /**
+     * Unlink a resting order from its level, drop it from the ID index and free its slot.
+     */
+    private void remove(int slot) {
+        int side = orderSides.get(slot);
+        long price = orderPrices.getLong(slot << 3);
+        int level = level(price);
+        int prev = orderPrevs.getInt(slot << 2);
+        int next = orderNexts.getInt(slot << 2);
+        if (prev == NIL) {
+            levelHeads[side].putInt(level << 2, next);
+        } else {
+            setNext(prev, next);
+        }
+        if (next == NIL) {
+            levelTails[side].putInt(level << 2, prev);
+        } else {
+            setPrev(next, prev);
+        }
+        addLevelSize(side, level, -orderSizes.getLong(slot << 3));
+        int count = levelCounts[side].getInt(level << 2) - 1;
+        levelCounts[side].putInt(level << 2, count);
+        if (count == 0) {
+            levelsPerSide[side]--;
+            if (price == best[side]) {
+                best[side] = nextBest(side, level);
+            }
+        }
+
+        removeSlot(orderUids.getLong(slot << 3));
+        setNext(slot, freeSlot);
+        freeSlot = slot;
+        orderCount--;
+    }
+
+    /**
+     * Find the next non-empty level behind a best level that has just emptied.
+     */
+    private long nextBest(int side, int level) {
+        if (levelsPerSide[side] == 0) {
+            return NO_PRICE;
+        }
+        int step = side == BID ? -1 : 1;
+        do {
+            level += step;
+        } while (levelCounts[side].getInt(level << 2) == 0);
+        return minPrice + level;
+    }
+
+    private void addLevelSize(int side, int level, long delta) {
+        levelSizes[side].putLong(level << 3, levelSizes[side].getLong(level << 3) + delta);
+    }
+
+    private int level(long price) {
+        return (int) (price - minPrice);
+    }
+
+    private void setNext(int slot, int next) {
+        orderNexts.putInt(slot << 2, next);
+    }
+
+    private void setPrev(int slot, int prev) {
+        orderPrevs.putInt(slot << 2, prev);
+    }
+
+    private int home(long uid) {
+        long hash = uid * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & indexMask;
+    }
+
+    private int findSlot(long uid) {
+        int index = home(uid);
+        int stored;
+        while ((stored = indexSlots.getInt(index << 2)) != 0) {
+            if (indexKeys.getLong(index << 3) == uid) {
+                return stored - 1;
+            }
+            index = (index + 1) & indexMask;
+        }
+        return NIL;
+    }
+
+    private void putSlot(long uid, int slot) {
+        int index = home(uid);
+        while (indexSlots.getInt(index << 2) != 0) {
+            index = (index + 1) & indexMask;
+        }
+        indexKeys.putLong(index << 3, uid);
+        indexSlots.putInt(index << 2, slot + 1);
+    }
+
+    private void removeSlot(long uid) {
+        int gap = home(uid);
+        while (indexKeys.getLong(gap << 3) != uid || indexSlots.getInt(gap << 2) == 0) {
+            gap = (gap + 1) & indexMask;
+        }
+        int index = gap;
+        while (true) {
+            index = (index + 1) & indexMask;
+            int stored = indexSlots.getInt(index << 2);
+            if (stored == 0) {
+                break;
+            }
+            long key = indexKeys.getLong(index << 3);
+            int home = home(key);
+            boolean homeAfterGap = (index > gap) ? (home > gap && home <= index) : (home > gap || home <= index);
+            if (!homeAfterGap) {
+                indexKeys.putLong(gap << 3, key);
+                indexSlots.putInt(gap << 2, stored);
+                gap = index;
+            }
+        }
+        indexSlots.putInt(gap << 2, 0);
+    }
+
+    private static ByteBuffer allocate(int entries, int bytesPerEntry) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(entries, bytesPerEntry)).order(ByteOrder.nativeOrder());
+    }
+}
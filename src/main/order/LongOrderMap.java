@@ -0,0 +1,218 @@
+package main.order;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Represents an index of orders by their long order ID.
+ *
+ * This is an open-addressing hash map with linear probing over parallel primitive key and order arrays,
+ * so lookups neither box the key nor allocate entry nodes. Deletions shift the following entries of the
+ * probe run back instead of leaving tombstones. Iteration order is unspecified.
+ */
+public class LongOrderMap {
+    private static final int DEFAULT_CAPACITY = 64; // Default number of slots
+    private static final float LOAD_FACTOR = 0.6f; // Fraction of slots used before the table doubles
+
+    private long[] keys; // The order ID stored in each slot
+    private Order[] values; // The order stored in each slot, null for an empty slot
+    private int mask; // keys.length - 1
+    private int size; // The number of orders in the map
+    private int resizeThreshold; // The size at which the table doubles
+
+    /**
+     * Constructs a LongOrderMap object with the default capacity.
+     */
+    public LongOrderMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a LongOrderMap object sized to hold the expected number of orders without resizing.
+     *
+     * @param expectedSize The expected number of orders.
+     */
+    public LongOrderMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    /**
+     * Retrieves the order with the given ID.
+     *
+     * @param uid The order ID.
+     * @return The order, or null if there is no order with that ID.
+     */
+    public Order get(long uid) {
+        int index = slot(uid);
+        Order value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == uid) {
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if an order with the given ID is in the map.
+     *
+     * @param uid The order ID.
+     * @return True if the map contains the order ID, false otherwise.
+     */
+    public boolean containsKey(long uid) {
+        return get(uid) != null;
+    }
+
+    /**
+     * Stores an order under the given ID.
+     *
+     * @param uid   The order ID.
+     * @param order The order, which must not be null.
+     * @return The order previously stored under the ID, or null if there was none.
+     */
+    public Order put(long uid, Order order) {
+        if (order == null) {
+            throw new NullPointerException("order");
+        }
+        int index = slot(uid);
+        Order value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == uid) {
+                values[index] = order;
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = uid;
+        values[index] = order;
+        if (++size > resizeThreshold) {
+            resize(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the order with the given ID.
+     *
+     * @param uid The order ID.
+     * @return The removed order, or null if there was no order with that ID.
+     */
+    public Order remove(long uid) {
+        int index = slot(uid);
+        Order value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == uid) {
+                shiftBack(index);
+                size--;
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the number of orders in the map.
+     *
+     * @return The number of orders.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return True if the map holds no orders, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all orders from the map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for each order in the map, in no particular order.
+     *
+     * @param action The action to perform.
+     */
+    public void forEach(Consumer<? super Order> action) {
+        for (Order value : values) {
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Empties a slot and moves later entries of the same probe run back into the gap.
+     *
+     * @param gap The slot to empty.
+     */
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            Order value = values[index];
+            if (value == null) {
+                break;
+            }
+            int home = slot(keys[index]);
+            // Move the entry only if its home slot is not cyclically within (gap, index].
+            boolean homeAfterGap = (index > gap) ? (home > gap && home <= index) : (home > gap || home <= index);
+            if (!homeAfterGap) {
+                keys[gap] = keys[index];
+                values[gap] = value;
+                gap = index;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private int slot(long uid) {
+        long hash = uid * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Order[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Order[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            Order value = oldValues[i];
+            if (value != null) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        if (size <= 0) {
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        }
+        return size;
+    }
+}
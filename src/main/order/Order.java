@@ -6,55 +6,107 @@ import main.limits.LimitLevel;
 
 /**
  * Represents an order in a trading system.
+ *
+ * The order's timestamp is a primitive long, stamped by the book from its {@link OrderClock} when the order
+ * comes to rest; it is only converted to an {@link Instant} when {@link #getTimestamp()} is called.
  */
 public class Order {
     private long uid; // Unique identifier for the order
     private boolean isBid; // Indicates if the order is a bid (buy) or ask (sell)
-    private double size; // Size of the order
-    private double price; // Price of the order
-    private Instant timestamp; // Timestamp of when the order was created
+    private long size; // Size of the order in lots, the displayed size of an iceberg order
+    private long displaySize; // Size an iceberg order displays at a time, 0 to display all of it
+    private long hiddenSize; // Hidden reserve of a resting iceberg order in lots
+    private long price; // Price of the order in ticks
+    private long timestamp; // Time the order came to rest, in the units of the book's OrderClock
     private Order nextItem; // Reference to the next order in the list
     private Order previousItem; // Reference to the previous order in the list
     private OrderList root; // Reference to the root order list
+    private final boolean pooled; // Whether the order belongs to a book's object pool
 
     /**
      * Constructs an Order object with the specified parameters.
      *
      * @param uid          The unique identifier for the order.
      * @param isBid        Indicates if the order is a bid (buy) or ask (sell).
-     * @param size         The size of the order.
-     * @param price        The price of the order.
+     * @param size         The size of the order in lots.
+     * @param price        The price of the order in ticks.
      * @param root         The root order list.
-     * @param timestamp    The timestamp of when the order was created.
+     * @param timestamp    The timestamp of the order, e.g. from an exchange, or null to leave it to the book.
      * @param nextItem     The next order in the list.
      * @param previousItem The previous order in the list.
      */
-    public Order(long uid, boolean isBid, double size, double price, OrderList root, Instant timestamp, Order nextItem,
+    public Order(long uid, boolean isBid, long size, long price, OrderList root, Instant timestamp, Order nextItem,
                  Order previousItem) {
         this.uid = uid;
         this.isBid = isBid;
         this.size = size;
         this.price = price;
-        this.timestamp = timestamp != null ? timestamp : Instant.now();
+        this.timestamp = timestamp != null ? timestamp.getEpochSecond() * 1_000_000_000 + timestamp.getNano() : 0;
         this.nextItem = nextItem;
         this.previousItem = previousItem;
         this.root = root;
+        this.pooled = false;
     }
 
     /**
-     * Constructs an Order object with the specified parameters and current timestamp.
+     * Constructs an Order object with the specified parameters, to be timestamped by the book.
      *
      * @param uid    The unique identifier for the order.
      * @param isBid  Indicates if the order is a bid (buy) or ask (sell).
-     * @param size   The size of the order.
-     * @param price  The price of the order.
+     * @param size   The size of the order in lots.
+     * @param price  The price of the order in ticks.
      */
-    public Order(long uid, boolean isBid, double size, double price) {
+    public Order(long uid, boolean isBid, long size, long price) {
+        this(uid, isBid, size, price, 0);
+    }
+
+    /**
+     * Constructs an Order object with the specified parameters and a supplied timestamp, which a book
+     * using the {@link OrderClock#EXCHANGE} clock keeps.
+     *
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots.
+     * @param price     The price of the order in ticks.
+     * @param timestamp The timestamp of the order, normally in nanoseconds since the epoch.
+     */
+    public Order(long uid, boolean isBid, long size, long price, long timestamp) {
+        this.uid = uid;
+        this.isBid = isBid;
+        this.size = size;
+        this.price = price;
+        this.timestamp = timestamp;
+        this.pooled = false;
+    }
+
+    /**
+     * Constructs an empty order owned by an object pool. It must be initialised with
+     * {@link #reset(long, boolean, long, long, long)} before use and is recycled once it leaves the book.
+     */
+    public Order() {
+        this.pooled = true;
+    }
+
+    /**
+     * Reinitialises a pooled order with the specified parameters.
+     *
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots.
+     * @param price     The price of the order in ticks.
+     * @param timestamp The timestamp of the order, in the units of the book's {@link OrderClock}.
+     */
+    public void reset(long uid, boolean isBid, long size, long price, long timestamp) {
         this.uid = uid;
         this.isBid = isBid;
         this.size = size;
         this.price = price;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp;
+        this.displaySize = 0;
+        this.hiddenSize = 0;
+        this.nextItem = null;
+        this.previousItem = null;
+        this.root = null;
     }
 
     /**
@@ -67,21 +119,12 @@ public class Order {
     }
 
     /**
-     * Appends an order to the end of the order list.
+     * Appends an order to the end of the order list this order belongs to.
      *
      * @param order The order to be appended.
      */
     public void append(Order order) {
-        if (nextItem == null) {
-            nextItem = order;
-            nextItem.previousItem = this;
-            nextItem.setRoot(root);
-            root.setCount(root.getCount() + 1);
-            root.setTail(order);
-            root.setParentLimitSize(getParentLimit().getSize() + order.size);
-        } else {
-            nextItem.append(order);
-        }
+        root.append(order);
     }
 
     /**
@@ -99,23 +142,7 @@ public class Order {
      * @return The string representation of the order.
      */
     public String popFromList() {
-        if (previousItem == null) {
-            root.setHead(nextItem);
-            if (nextItem != null) {
-                nextItem.previousItem = null;
-            }
-        }
-
-        if (nextItem == null) {
-            root.setTail(previousItem);
-            if (previousItem != null) {
-                previousItem.nextItem = null;
-            }
-        }
-
-        root.setCount(root.getCount() - 1);
-        getParentLimit().setSize(getParentLimit().getSize() - size);
-
+        root.remove(this);
         return toString();
     }
 
@@ -132,30 +159,76 @@ public class Order {
     /**
      * Retrieves the price of the order.
      *
-     * @return The price of the order.
+     * @return The price of the order in ticks.
      */
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
     /**
      * Retrieves the size of the order.
      *
-     * @return The size of the order.
+     * @return The size of the order in lots.
      */
-    public double getSize() {
+    public long getSize() {
         return size;
     }
 
     /**
      * Sets the size of the order to a new value.
      *
-     * @param newSize The new size of the order.
+     * @param newSize The new size of the order in lots.
      */
-    public void setSize(double newSize) {
+    public void setSize(long newSize) {
         this.size = newSize;
     }
 
+    /**
+     * Retrieves the size an iceberg order displays at a time.
+     *
+     * @return The display size in lots, or 0 if the order displays all of its size.
+     */
+    public long getDisplaySize() {
+        return displaySize;
+    }
+
+    /**
+     * Makes the order an iceberg order, or a plain one again. Before the order is processed its size is its
+     * full size; once it rests, its size is the displayed part and the rest is its hidden reserve.
+     *
+     * @param displaySize The size in lots to display at a time, or 0 to display all of it.
+     */
+    public void setDisplaySize(long displaySize) {
+        this.displaySize = displaySize;
+    }
+
+    /**
+     * Retrieves the hidden reserve of a resting iceberg order.
+     *
+     * @return The hidden size in lots.
+     */
+    public long getHiddenSize() {
+        return hiddenSize;
+    }
+
+    /**
+     * Sets the hidden reserve of a resting iceberg order.
+     *
+     * @param hiddenSize The hidden size in lots.
+     */
+    public void setHiddenSize(long hiddenSize) {
+        this.hiddenSize = hiddenSize;
+    }
+
+    /**
+     * Retrieves the displayed and hidden size of the order together.
+     *
+     * @return The total size in lots.
+     */
+    public long getTotalSize() {
+        return size + hiddenSize;
+    }
+
     /**
      * Retrieves the unique identifier of the order.
      *
@@ -220,11 +293,40 @@ public class Order {
     }
 
     /**
-     * Retrieves the timestamp of when the order was created.
+     * Checks if the order is owned by an object pool, in which case the book recycles it once it has
+     * been cancelled or filled.
      *
-     * @return The timestamp of when the order was created.
+     * @return True if the order is pooled, false if it is owned by the caller.
+     */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Retrieves the timestamp of the order as an instant, reading its primitive timestamp as nanoseconds
+     * since the epoch. Allocates; use {@link #getTime()} on hot paths.
+     *
+     * @return The timestamp of the order.
      */
     public Instant getTimestamp() {
+        return Instant.ofEpochSecond(0, timestamp);
+    }
+
+    /**
+     * Retrieves the primitive timestamp of the order.
+     *
+     * @return The timestamp, in the units of the {@link OrderClock} of the book it rests in.
+     */
+    public long getTime() {
         return timestamp;
     }
+
+    /**
+     * Sets the primitive timestamp of the order.
+     *
+     * @param timestamp The timestamp, in the units of the {@link OrderClock} of the book it rests in.
+     */
+    public void setTime(long timestamp) {
+        this.timestamp = timestamp;
+    }
 }
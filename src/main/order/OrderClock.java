@@ -0,0 +1,28 @@
+package main.order;
+
+/**
+ * Represents where a book takes the timestamp of an order that comes to rest.
+ *
+ * Timestamps are primitive longs read once per resting order; none of the sources allocates. An order's
+ * {@link Order#getTimestamp()} reads its long as nanoseconds since the epoch, which is exact for
+ * {@link #NANO_TIME} and for exchange timestamps in epoch nanoseconds.
+ */
+public enum OrderClock {
+    /** The book's message sequence number, counting every message it has processed from 1. No clock read. */
+    SEQUENCE,
+    /** {@link System#nanoTime()} anchored to the wall clock once, in nanoseconds since the epoch. */
+    NANO_TIME,
+    /** The timestamp supplied with the order or message, e.g. the exchange's, kept as given. */
+    EXCHANGE;
+
+    private static final long EPOCH_OFFSET = System.currentTimeMillis() * 1_000_000 - System.nanoTime(); // Anchor
+
+    /**
+     * Reads the {@link #NANO_TIME} clock.
+     *
+     * @return The current time in nanoseconds since the epoch, monotonic within this JVM.
+     */
+    public static long epochNanos() {
+        return EPOCH_OFFSET + System.nanoTime();
+    }
+}
@@ -4,6 +4,10 @@ import main.limits.LimitLevel;
 
 /**
  * Represents a list of orders in a trading system.
+ *
+ * The list is an intrusive doubly-linked queue threaded through the orders' next and previous items, so
+ * appending at the tail and unlinking any order are both O(1). The list keeps its parent limit level's
+ * displayed and hidden sizes in step with the orders it holds.
  */
 public class OrderList {
     private Order head; // The first order in the list
@@ -47,14 +51,79 @@ public class OrderList {
      * @param order The order to be appended.
      */
     public void append(Order order) {
+        order.setRoot(this);
+        order.setPreviousItem(tail);
+        order.setNextItem(null);
         if (tail == null) {
-            order.setRoot(this);
-            tail = order;
             head = order;
-            count++;
         } else {
-            tail.append(order);
+            tail.setNextItem(order);
         }
+        tail = order;
+        count++;
+        parentLimit.setSize(parentLimit.getSize() + order.getSize());
+        if (order.getHiddenSize() != 0) {
+            parentLimit.setHiddenSize(parentLimit.getHiddenSize() + order.getHiddenSize());
+        }
+    }
+
+    /**
+     * Moves an order to the end of the order list, behind every other order, without changing any size.
+     *
+     * @param order The order to be moved, which must belong to this list.
+     */
+    public void moveToTail(Order order) {
+        if (order == tail) {
+            return;
+        }
+        Order previous = order.getPreviousItem();
+        Order next = order.getNextItem();
+        if (previous == null) {
+            head = next;
+        } else {
+            previous.setNextItem(next);
+        }
+        next.setPreviousItem(previous);
+        order.setPreviousItem(tail);
+        order.setNextItem(null);
+        tail.setNextItem(order);
+        tail = order;
+    }
+
+    /**
+     * Unlinks an order from the order list.
+     *
+     * @param order The order to be removed, which must belong to this list.
+     */
+    public void remove(Order order) {
+        Order previous = order.getPreviousItem();
+        Order next = order.getNextItem();
+        if (previous == null) {
+            head = next;
+        } else {
+            previous.setNextItem(next);
+        }
+        if (next == null) {
+            tail = previous;
+        } else {
+            next.setPreviousItem(previous);
+        }
+        order.setPreviousItem(null);
+        order.setNextItem(null);
+        count--;
+        parentLimit.setSize(parentLimit.getSize() - order.getSize());
+        if (order.getHiddenSize() != 0) {
+            parentLimit.setHiddenSize(parentLimit.getHiddenSize() - order.getHiddenSize());
+        }
+    }
+
+    /**
+     * Empties the order list without touching the orders it held.
+     */
+    public void clear() {
+        this.head = null;
+        this.tail = null;
+        this.count = 0;
     }
 
     /**
@@ -78,9 +147,9 @@ public class OrderList {
     /**
      * Sets the size of the parent limit level.
      *
-     * @param size The size to set for the parent limit level.
+     * @param size The size in lots to set for the parent limit level.
      */
-    public void setParentLimitSize(double size) {
+    public void setParentLimitSize(long size) {
         parentLimit.setSize(size);
     }
 
@@ -0,0 +1,251 @@
+package main.order;
+
+/**
+ * Represents a mutable inbound order message in a trading system.
+ *
+ * A feed handler can fill in and pass the same instance for every message. The book never keeps a
+ * reference to it: an order that rests is copied into a pooled {@link Order}.
+ *
+ * Messages can also be packed into a flat long buffer, {@link #LONGS} entries per message, for batch
+ * processing without a message object per entry. The side entry also carries the {@link OrderType}
+ * ordinal from bit {@link #TYPE_SHIFT} and the display size of an iceberg order from bit
+ * {@link #DISPLAY_SHIFT}.
+ */
+public class OrderMessage {
+    public static final int LONGS = 5; // Number of buffer entries per packed message
+    public static final int UID = 0; // Offset of the order ID in a packed message
+    public static final int SIDE = 1; // Offset of the side in a packed message, bit 0 set for a bid, type above
+    public static final int SIZE = 2; // Offset of the size in lots in a packed message
+    public static final int PRICE = 3; // Offset of the price in ticks in a packed message
+    public static final int TIMESTAMP = 4; // Offset of the supplied timestamp in a packed message
+    public static final int TYPE_SHIFT = 1; // Bit of the side entry the order type ordinal starts at
+    public static final int TYPE_MASK = 0x7F; // Mask of the order type ordinal once shifted down
+    public static final int DISPLAY_SHIFT = 8; // Bit of the side entry the display size starts at
+
+    private long uid; // Unique identifier for the order
+    private boolean isBid; // Indicates if the order is a bid (buy) or ask (sell)
+    private long size; // Size of the order in lots, 0 to cancel
+    private long price; // Price of the order in ticks
+    private long timestamp; // Supplied timestamp of the order, e.g. the exchange's, or 0
+    private OrderType type = OrderType.LIMIT; // How the order trades and whether it may rest
+    private long displaySize; // Size an iceberg order displays at a time, 0 to display all of it
+
+    /**
+     * Sets all fields of the message, as a limit order.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots, 0 to cancel.
+     * @param price The price of the order in ticks.
+     * @return This message.
+     */
+    public OrderMessage set(long uid, boolean isBid, long size, long price) {
+        return set(uid, isBid, size, price, 0);
+    }
+
+    /**
+     * Sets all fields of the message as a limit order, including a supplied timestamp.
+     *
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots, 0 to cancel.
+     * @param price     The price of the order in ticks.
+     * @param timestamp The timestamp of the order, kept by a book using the {@link OrderClock#EXCHANGE} clock.
+     * @return This message.
+     */
+    public OrderMessage set(long uid, boolean isBid, long size, long price, long timestamp) {
+        this.uid = uid;
+        this.isBid = isBid;
+        this.size = size;
+        this.price = price;
+        this.timestamp = timestamp;
+        this.type = OrderType.LIMIT;
+        this.displaySize = 0;
+        return this;
+    }
+
+    /**
+     * Copies every field of another message, e.g. into a preallocated ring slot.
+     *
+     * @param message The message to copy.
+     * @return This message.
+     */
+    public OrderMessage set(OrderMessage message) {
+        this.uid = message.uid;
+        this.isBid = message.isBid;
+        this.size = message.size;
+        this.price = message.price;
+        this.timestamp = message.timestamp;
+        this.type = message.type;
+        this.displaySize = message.displaySize;
+        return this;
+    }
+
+    /**
+     * Sets the type of the order, after the other fields have been set.
+     *
+     * @param type How the order trades and whether it may rest. Only a {@link OrderType#LIMIT} message can
+     *             update or cancel a resting order.
+     * @return This message.
+     */
+    public OrderMessage setType(OrderType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Makes the order an iceberg order, after the other fields have been set. Only a limit order that
+     * rests uses it; it rests with this much displayed and the rest of its size hidden.
+     *
+     * @param displaySize The size in lots to display at a time, or 0 to display all of it.
+     * @return This message.
+     */
+    public OrderMessage setDisplaySize(long displaySize) {
+        this.displaySize = displaySize;
+        return this;
+    }
+
+    /**
+     * Packs a message into a flat buffer.
+     *
+     * @param buffer The buffer to write to.
+     * @param index  The index of the message in the buffer, in messages rather than entries.
+     * @param uid    The unique identifier for the order.
+     * @param isBid  Indicates if the order is a bid (buy) or ask (sell).
+     * @param size   The size of the order in lots, 0 to cancel.
+     * @param price  The price of the order in ticks.
+     */
+    public static void write(long[] buffer, int index, long uid, boolean isBid, long size, long price) {
+        write(buffer, index, uid, isBid, size, price, 0, OrderType.LIMIT);
+    }
+
+    /**
+     * Packs a message with a supplied timestamp into a flat buffer.
+     *
+     * @param buffer    The buffer to write to.
+     * @param index     The index of the message in the buffer, in messages rather than entries.
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots, 0 to cancel.
+     * @param price     The price of the order in ticks.
+     * @param timestamp The timestamp of the order, kept by a book using the {@link OrderClock#EXCHANGE} clock.
+     */
+    public static void write(long[] buffer, int index, long uid, boolean isBid, long size, long price,
+            long timestamp) {
+        write(buffer, index, uid, isBid, size, price, timestamp, OrderType.LIMIT, 0);
+    }
+
+    /**
+     * Packs a message of any type into a flat buffer.
+     *
+     * @param buffer    The buffer to write to.
+     * @param index     The index of the message in the buffer, in messages rather than entries.
+     * @param uid       The unique identifier for the order.
+     * @param isBid     Indicates if the order is a bid (buy) or ask (sell).
+     * @param size      The size of the order in lots, 0 to cancel.
+     * @param price     The price of the order in ticks.
+     * @param timestamp The timestamp of the order, kept by a book using the {@link OrderClock#EXCHANGE} clock.
+     * @param type      How the order trades and whether it may rest.
+     */
+    public static void write(long[] buffer, int index, long uid, boolean isBid, long size, long price,
+            long timestamp, OrderType type) {
+        write(buffer, index, uid, isBid, size, price, timestamp, type, 0);
+    }
+
+    /**
+     * Packs a message of any type, possibly an iceberg order, into a flat buffer.
+     *
+     * @param buffer      The buffer to write to.
+     * @param index       The index of the message in the buffer, in messages rather than entries.
+     * @param uid         The unique identifier for the order.
+     * @param isBid       Indicates if the order is a bid (buy) or ask (sell).
+     * @param size        The size of the order in lots, 0 to cancel.
+     * @param price       The price of the order in ticks.
+     * @param timestamp   The timestamp of the order, kept by a book using the {@link OrderClock#EXCHANGE} clock.
+     * @param type        How the order trades and whether it may rest.
+     * @param displaySize The size in lots an iceberg order displays at a time, or 0 to display all of it.
+     */
+    public static void write(long[] buffer, int index, long uid, boolean isBid, long size, long price,
+            long timestamp, OrderType type, long displaySize) {
+        int offset = index * LONGS;
+        buffer[offset + UID] = uid;
+        buffer[offset + SIDE] = (isBid ? 1 : 0) | (long) type.ordinal() << TYPE_SHIFT
+                | displaySize << DISPLAY_SHIFT;
+        buffer[offset + SIZE] = size;
+        buffer[offset + PRICE] = price;
+        buffer[offset + TIMESTAMP] = timestamp;
+    }
+
+    /**
+     * Retrieves the unique identifier of the order.
+     *
+     * @return The unique identifier of the order.
+     */
+    public long getUid() {
+        return uid;
+    }
+
+    /**
+     * Checks if the order is a bid (buy) order.
+     *
+     * @return True if the order is a bid (buy) order, false otherwise.
+     */
+    public boolean isBid() {
+        return isBid;
+    }
+
+    /**
+     * Retrieves the size of the order.
+     *
+     * @return The size of the order in lots.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the price of the order.
+     *
+     * @return The price of the order in ticks.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Retrieves the supplied timestamp of the order.
+     *
+     * @return The timestamp, or 0 if none was supplied.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Retrieves the type of the order.
+     *
+     * @return How the order trades and whether it may rest.
+     */
+    public OrderType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the size an iceberg order displays at a time.
+     *
+     * @return The display size in lots, or 0 if the order displays all of its size.
+     */
+    public long getDisplaySize() {
+        return displaySize;
+    }
+
+    /**
+     * Returns a string representation of the message.
+     *
+     * @return The string representation of the message.
+     */
+    @Override
+    public String toString() {
+        return "(" + uid + ", " + isBid + ", " + price + ", " + size + ")";
+    }
+}
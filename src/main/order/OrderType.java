@@ -0,0 +1,54 @@
+package main.order;
+
+/**
+ * Represents how an incoming order trades and whether its unfilled remainder may rest in the book.
+ *
+ * Every type other than {@link #LIMIT} is immediate: it sweeps as many opposite levels as it needs in one
+ * pass, and whatever it cannot fill is cancelled rather than rested.
+ */
+public enum OrderType {
+    /** Trades up to its price and rests any remainder. */
+    LIMIT,
+    /** Trades at any price until filled or the opposite side is empty. Its price is ignored. */
+    MARKET,
+    /** Trades up to its price and cancels any remainder. */
+    IMMEDIATE_OR_CANCEL,
+    /** Trades up to its price only if it can fill in full, and otherwise does not trade at all. */
+    FILL_OR_KILL;
+
+    private static final OrderType[] VALUES = values(); // Cached to avoid copies
+
+    /**
+     * Retrieves a type by its ordinal, as packed into a flat message buffer.
+     *
+     * @param ordinal The ordinal of the type.
+     * @return The type.
+     * @throws IllegalArgumentException If no type has that ordinal.
+     */
+    public static OrderType of(int ordinal) {
+        OrderType type = find(ordinal);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown order type ordinal: " + ordinal);
+        }
+        return type;
+    }
+
+    /**
+     * Retrieves a type by its ordinal, as packed into a flat message buffer, without throwing on a bad one.
+     *
+     * @param ordinal The ordinal of the type.
+     * @return The type, or null if no type has that ordinal.
+     */
+    public static OrderType find(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+
+    /**
+     * Check if orders of this type are cancelled rather than rested when they cannot fill.
+     *
+     * @return True for every type other than {@link #LIMIT}.
+     */
+    public boolean isImmediate() {
+        return this != LIMIT;
+    }
+}
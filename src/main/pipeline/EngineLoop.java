@@ -0,0 +1,125 @@
+package main.pipeline;
+
+/**
+ * Represents the single consumer thread of an {@link OrderRing}, shared by the {@link OrderBookPipeline}
+ * engine and the {@link OrderBookManager} shard workers.
+ *
+ * The loop takes up to {@code batchSize} published messages per pass, hands each one to
+ * {@link #apply(long)}, then releases their slots and calls {@link #endBatch()} once per batch. Once
+ * stopped it drains every message claimed so far before exiting. If applying a message throws, the loop
+ * stops and marks the ring failed so that producers throw rather than wait for it.
+ */
+abstract class EngineLoop implements Runnable {
+    protected final OrderRing inbound; // Messages from the producers
+    protected final WaitStrategy waitStrategy; // How the loop waits for messages
+    private final int batchSize; // The maximum number of messages applied per pass
+    private volatile boolean running; // Cleared to stop the loop once the ring is drained
+    private Thread thread; // The loop's thread, null until started
+
+    /**
+     * Constructs an EngineLoop object.
+     *
+     * @param ringCapacity The number of inbound slots, a power of two.
+     * @param batchSize    The maximum number of messages applied per pass.
+     * @param waitStrategy How producers wait for space and the loop waits for messages.
+     */
+    EngineLoop(int ringCapacity, int batchSize, WaitStrategy waitStrategy) {
+        this.inbound = new OrderRing(ringCapacity, waitStrategy);
+        this.batchSize = batchSize;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Starts the loop's thread.
+     *
+     * @param name The name of the thread.
+     */
+    void start(String name) {
+        running = true;
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop's thread once it has applied every message claimed so far.
+     *
+     * @throws InterruptedException If interrupted while waiting for the thread to finish.
+     */
+    void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        thread.join();
+        thread = null;
+    }
+
+    /**
+     * Determines whether the loop's thread has been started and not yet stopped.
+     *
+     * @return True if started, false otherwise.
+     */
+    boolean isStarted() {
+        return thread != null;
+    }
+
+    /**
+     * Retrieves the inbound ring.
+     *
+     * @return The inbound ring.
+     */
+    OrderRing getInbound() {
+        return inbound;
+    }
+
+    /**
+     * Applies one published message. Called on the loop's thread in sequence order.
+     *
+     * @param sequence The sequence of the message in the inbound ring.
+     */
+    abstract void apply(long sequence);
+
+    /**
+     * Called on the loop's thread after each batch has been applied and its slots released.
+     */
+    void endBatch() {
+    }
+
+    /**
+     * Runs the loop, marking the inbound ring failed if applying a message throws so that producers stop
+     * waiting for it.
+     */
+    @Override
+    public final void run() {
+        try {
+            applyMessages();
+        } catch (Throwable cause) {
+            inbound.fail(cause);
+        }
+    }
+
+    /**
+     * Applies published messages in batches until stopped and drained.
+     */
+    private void applyMessages() {
+        long next = inbound.getConsumed();
+        int idleCount = 0;
+        while (true) {
+            long highest = inbound.getHighestPublished(next, next + batchSize - 1);
+            if (highest < next) {
+                if (!running && next == inbound.getClaimed()) {
+                    return;
+                }
+                idleCount = waitStrategy.idle(idleCount);
+                continue;
+            }
+            idleCount = 0;
+            for (long sequence = next; sequence <= highest; sequence++) {
+                apply(sequence);
+            }
+            next = highest + 1;
+            inbound.release(next);
+            endBatch();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package main.pipeline;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import main.LimitOrderBook;
+import main.order.OrderMessage;
+
+/**
+ * Represents a set of books, one per instrument, sharded across single-threaded engine workers.
+ *
+ * Instruments are identified by dense int IDs from 0 to {@code instrumentCount - 1}. Each instrument is
+ * assigned to one shard and each shard has its own worker thread and inbound {@link OrderRing}, so a book
+ * is only ever touched by one thread, needs no locking, and throughput scales with the number of cores.
+ *
+ * The assignment can only change while the workers are stopped, since an instrument's messages must never
+ * be in flight on two shards at once. Each change publishes a new assignment array through a volatile field,
+ * so a producer on any thread reads a complete assignment without locking. Per-instrument message counts
+ * and per-shard queue depths are kept so that hot instruments can be spread with {@link #rebalance()}
+ * between sessions.
+ */
+public class OrderBookManager {
+    public static final String WORKER_THREAD_PREFIX = "lob-shard-"; // Worker thread names, suffixed by shard
+
+    private final LimitOrderBook[] books; // The book of each instrument, indexed by instrument ID
+    private volatile int[] assignment; // The shard of each instrument, indexed by instrument ID, never mutated
+    private final long[] messageCounts; // Messages applied per instrument, written by the workers
+    private final ShardWorker[] shards; // The worker of each shard
+    private boolean running; // Whether the workers are started
+
+    /**
+     * Constructs an OrderBookManager object, assigning instruments to shards round-robin.
+     *
+     * @param instrumentCount The number of instruments.
+     * @param shardCount      The number of worker threads.
+     * @param ringCapacity    The number of inbound slots per shard, a power of two.
+     * @param batchSize       The maximum number of messages a worker applies per pass.
+     * @param waitStrategy    How producers and workers wait.
+     * @param bookFactory     Creates the book of an instrument given its ID.
+     */
+    public OrderBookManager(int instrumentCount, int shardCount, int ringCapacity, int batchSize,
+            WaitStrategy waitStrategy, IntFunction<LimitOrderBook> bookFactory) {
+        if (instrumentCount <= 0 || shardCount <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("instrumentCount, shardCount and batchSize must be positive: "
+                    + instrumentCount + ", " + shardCount + ", " + batchSize);
+        }
+        this.books = new LimitOrderBook[instrumentCount];
+        int[] initial = new int[instrumentCount];
+        this.messageCounts = new long[instrumentCount];
+        for (int instrument = 0; instrument < instrumentCount; instrument++) {
+            books[instrument] = bookFactory.apply(instrument);
+            initial[instrument] = instrument % shardCount;
+        }
+        this.assignment = initial;
+        this.shards = new ShardWorker[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards[shard] = new ShardWorker(ringCapacity, books, messageCounts, batchSize, waitStrategy);
+        }
+    }
+
+    /**
+     * Starts one worker thread per shard.
+     *
+     * @throws IllegalStateException If the workers are already started.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Manager already started");
+        }
+        running = true;
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard].start(WORKER_THREAD_PREFIX + shard);
+        }
+    }
+
+    /**
+     * Stops every worker once it has applied every message claimed so far. Producers should have stopped
+     * submitting before this is called.
+     *
+     * @throws InterruptedException If interrupted while waiting for the workers to finish.
+     */
+    public synchronized void stop() throws InterruptedException {
+        for (ShardWorker shard : shards) {
+            shard.stop();
+        }
+        running = false;
+    }
+
+    /**
+     * Publishes a message to the shard of its instrument, waiting while that shard's ring is full. Safe to
+     * call from any number of threads while the workers are running.
+     *
+     * @param instrument The ID of the instrument.
+     * @param uid        The unique identifier for the order.
+     * @param isBid      Indicates if the order is a bid (buy) or ask (sell).
+     * @param size       The size of the order in lots, 0 to cancel.
+     * @param price      The price of the order in ticks.
+     * @return The sequence of the message in its shard's ring.
+     * @throws IllegalStateException If the worker of the instrument's shard has failed.
+     */
+    public long submit(int instrument, long uid, boolean isBid, long size, long price) {
+        return submit(instrument, uid, isBid, size, price, 0);
+    }
+
+    /**
+     * Publishes a message with a supplied timestamp to the shard of its instrument, waiting while that
+     * shard's ring is full. Safe to call from any number of threads while the workers are running.
+     *
+     * @param instrument The ID of the instrument.
+     * @param uid        The unique identifier for the order.
+     * @param isBid      Indicates if the order is a bid (buy) or ask (sell).
+     * @param size       The size of the order in lots, 0 to cancel.
+     * @param price      The price of the order in ticks.
+     * @param timestamp  The timestamp of the order, kept by a book using {@link main.order.OrderClock#EXCHANGE}.
+     * @return The sequence of the message in its shard's ring.
+     * @throws IllegalStateException If the worker of the instrument's shard has failed.
+     */
+    public long submit(int instrument, long uid, boolean isBid, long size, long price, long timestamp) {
+        return shards[assignment[instrument]].getInbound().publish(instrument, uid, isBid, size, price, timestamp);
+    }
+
+    /**
+     * Publishes a copy of a message, with its type, display size and timestamp, to the shard of its
+     * instrument, waiting while that shard's ring is full. The caller may reuse the message at once. Safe
+     * to call from any number of threads while the workers are running.
+     *
+     * @param instrument The ID of the instrument.
+     * @param message    The message to publish.
+     * @return The sequence of the message in its shard's ring.
+     * @throws IllegalStateException If the worker of the instrument's shard has failed.
+     */
+    public long submit(int instrument, OrderMessage message) {
+        return shards[assignment[instrument]].getInbound().publish(instrument, message);
+    }
+
+    /**
+     * Assigns an instrument to a shard.
+     *
+     * @param instrument The ID of the instrument.
+     * @param shard      The shard to move it to.
+     * @throws IllegalStateException If the workers are running.
+     */
+    public synchronized void assign(int instrument, int shard) {
+        if (running) {
+            throw new IllegalStateException("Instruments can only be reassigned while the manager is stopped");
+        }
+        if (shard < 0 || shard >= shards.length) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        int[] reassigned = assignment.clone();
+        reassigned[instrument] = shard;
+        assignment = reassigned;
+    }
+
+    /**
+     * Reassigns every instrument so that the message counts seen so far are spread as evenly as possible,
+     * placing the busiest instruments first, each on the currently least loaded shard.
+     *
+     * @throws IllegalStateException If the workers are running.
+     */
+    public synchronized void rebalance() {
+        if (running) {
+            throw new IllegalStateException("Instruments can only be reassigned while the manager is stopped");
+        }
+        Integer[] byLoad = new Integer[books.length];
+        for (int instrument = 0; instrument < books.length; instrument++) {
+            byLoad[instrument] = instrument;
+        }
+        Arrays.sort(byLoad, (a, b) -> Long.compare(messageCounts[b], messageCounts[a]));
+        long[] shardLoads = new long[shards.length];
+        int[] reassigned = new int[books.length];
+        for (int instrument : byLoad) {
+            int lightest = 0;
+            for (int shard = 1; shard < shards.length; shard++) {
+                if (shardLoads[shard] < shardLoads[lightest]) {
+                    lightest = shard;
+                }
+            }
+            reassigned[instrument] = lightest;
+            shardLoads[lightest] += messageCounts[instrument];
+        }
+        assignment = reassigned;
+    }
+
+    /**
+     * Retrieves the book of an instrument. It must only be read from its shard's worker thread, e.g. from a
+     * listener, while the workers are running.
+     *
+     * @param instrument The ID of the instrument.
+     * @return The book.
+     */
+    public LimitOrderBook getBook(int instrument) {
+        return books[instrument];
+    }
+
+    /**
+     * Retrieves the shard an instrument is assigned to.
+     *
+     * @param instrument The ID of the instrument.
+     * @return The shard.
+     */
+    public int getShard(int instrument) {
+        return assignment[instrument];
+    }
+
+    /**
+     * Retrieves the number of instruments.
+     *
+     * @return The number of instruments.
+     */
+    public int getInstrumentCount() {
+        return books.length;
+    }
+
+    /**
+     * Retrieves the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Retrieves the number of messages applied for an instrument. Approximate while the workers are running.
+     *
+     * @param instrument The ID of the instrument.
+     * @return The number of messages applied.
+     */
+    public long getMessageCount(int instrument) {
+        return ShardWorker.readCount(messageCounts, instrument);
+    }
+
+    /**
+     * Retrieves what stopped a shard's worker, if applying a message threw. Later submits to the shard throw
+     * once it is set.
+     *
+     * @param shard The shard.
+     * @return The failure, or null while the worker is healthy.
+     */
+    public Throwable getFailure(int shard) {
+        return shards[shard].getInbound().getFailure();
+    }
+
+    /**
+     * Retrieves the number of messages a shard has applied.
+     *
+     * @param shard The shard.
+     * @return The number of messages applied.
+     */
+    public long getProcessedCount(int shard) {
+        return shards[shard].getInbound().getConsumed();
+    }
+
+    /**
+     * Retrieves the number of messages claimed on a shard but not yet applied.
+     *
+     * @param shard The shard.
+     * @return The depth of the shard's queue.
+     */
+    public long getQueueDepth(int shard) {
+        OrderRing inbound = shards[shard].getInbound();
+        return inbound.getClaimed() - inbound.getConsumed();
+    }
+
+    /**
+     * Retrieves the total message count of the instruments currently assigned to a shard.
+     *
+     * @param shard The shard.
+     * @return The load of the shard in messages.
+     */
+    public long getShardLoad(int shard) {
+        int[] current = assignment;
+        long load = 0;
+        for (int instrument = 0; instrument < books.length; instrument++) {
+            if (current[instrument] == shard) {
+                load += getMessageCount(instrument);
+            }
+        }
+        return load;
+    }
+}
@@ -0,0 +1,171 @@
+package main.pipeline;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.order.OrderMessage;
+
+/**
+ * Represents a single-writer pipeline in front of a {@link LimitOrderBook}.
+ *
+ * Any number of producer threads publish messages into a lock-free {@link OrderRing}. One engine thread
+ * applies them to the book in sequence order, so the book itself needs no locking, and optionally writes
+ * each outcome into a {@link ResultRing} for a result consumer. The engine takes up to {@code batchSize}
+ * messages per pass and releases their slots, and publishes their results, once per batch. Book listeners
+ * run on the engine thread. If applying a message throws, the engine stops and records the failure, and
+ * later submits throw rather than wait for it.
+ */
+public class OrderBookPipeline {
+    public static final String ENGINE_THREAD_NAME = "lob-engine"; // Name of the engine thread, e.g. for pinning
+
+    private final LimitOrderBook book; // The book, only touched by the engine thread once started
+    private final ResultRing results; // Outcomes for the result consumer, or null
+    private final Engine engine; // The engine loop
+    private final OrderRing inbound; // Messages from the producers, the engine's inbound ring
+
+    /**
+     * Constructs an OrderBookPipeline object.
+     *
+     * @param book           The book to apply messages to.
+     * @param ringCapacity   The number of inbound slots, a power of two.
+     * @param resultCapacity The number of result slots, a power of two, or 0 to discard results.
+     * @param batchSize      The maximum number of messages the engine applies per pass.
+     * @param waitStrategy   How producers wait for space and the engine waits for messages.
+     */
+    public OrderBookPipeline(LimitOrderBook book, int ringCapacity, int resultCapacity, int batchSize,
+            WaitStrategy waitStrategy) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.book = book;
+        this.results = resultCapacity > 0 ? new ResultRing(resultCapacity) : null;
+        this.engine = new Engine(ringCapacity, batchSize, waitStrategy);
+        this.inbound = engine.getInbound();
+    }
+
+    /**
+     * Starts the engine thread.
+     *
+     * @throws IllegalStateException If the pipeline was already started.
+     */
+    public synchronized void start() {
+        if (engine.isStarted()) {
+            throw new IllegalStateException("Pipeline already started");
+        }
+        engine.start(ENGINE_THREAD_NAME);
+    }
+
+    /**
+     * Stops the engine thread once it has applied every message claimed so far. Producers should have
+     * stopped submitting before this is called.
+     *
+     * @throws InterruptedException If interrupted while waiting for the engine to finish.
+     */
+    public synchronized void stop() throws InterruptedException {
+        engine.stop();
+    }
+
+    /**
+     * Publishes a message for the engine to apply, waiting while the inbound ring is full. Safe to call
+     * from any number of threads.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots, 0 to cancel.
+     * @param price The price of the order in ticks.
+     * @return The sequence of the message, which its result will carry.
+     * @throws IllegalStateException If the engine has failed.
+     */
+    public long submit(long uid, boolean isBid, long size, long price) {
+        return inbound.publish(uid, isBid, size, price);
+    }
+
+    /**
+     * Publishes a copy of a message for the engine to apply. The caller may reuse the message at once.
+     *
+     * @param message The message to publish.
+     * @return The sequence of the message, which its result will carry.
+     * @throws IllegalStateException If the engine has failed.
+     */
+    public long submit(OrderMessage message) {
+        return inbound.publish(0, message);
+    }
+
+    /**
+     * Retrieves what stopped the engine, if applying a message threw. Later submits throw once it is set.
+     *
+     * @return The failure, or null while the engine is healthy.
+     */
+    public Throwable getFailure() {
+        return inbound.getFailure();
+    }
+
+    /**
+     * Retrieves the number of messages the engine has applied.
+     *
+     * @return The number of applied messages.
+     */
+    public long getProcessedCount() {
+        return inbound.getConsumed();
+    }
+
+    /**
+     * Retrieves the ring the engine writes results to.
+     *
+     * @return The result ring, or null if results are discarded.
+     */
+    public ResultRing getResults() {
+        return results;
+    }
+
+    /**
+     * Retrieves the book. It must only be read from the engine thread, e.g. from a listener, while the
+     * pipeline is running.
+     *
+     * @return The book.
+     */
+    public LimitOrderBook getBook() {
+        return book;
+    }
+
+    /**
+     * Represents the engine loop, applying each message to the book and writing its outcome to the result
+     * ring.
+     */
+    private final class Engine extends EngineLoop {
+
+        /**
+         * Constructs an Engine object.
+         *
+         * @param ringCapacity The number of inbound slots, a power of two.
+         * @param batchSize    The maximum number of messages applied per pass.
+         * @param waitStrategy How producers wait for space and the engine waits for messages and result space.
+         */
+        Engine(int ringCapacity, int batchSize, WaitStrategy waitStrategy) {
+            super(ringCapacity, batchSize, waitStrategy);
+        }
+
+        /**
+         * Applies a message to the book and records its outcome.
+         *
+         * @param sequence The sequence of the message in the inbound ring.
+         */
+        @Override
+        void apply(long sequence) {
+            OrderMessage message = inbound.get(sequence);
+            ProcessResult result = book.process(message);
+            if (results != null) {
+                results.add(sequence, message.getUid(), result, waitStrategy);
+            }
+        }
+
+        /**
+         * Publishes the batch's results to the result consumer.
+         */
+        @Override
+        void endBatch() {
+            if (results != null) {
+                results.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package main.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import main.order.OrderMessage;
+
+/**
+ * Represents a preallocated multi-producer, single-consumer ring of order messages.
+ *
+ * Producers claim a sequence with one atomic add, fill the message in the claimed slot and publish it by
+ * storing the sequence into the slot's availability entry. The consumer reads slots in sequence order once
+ * their availability entry matches, and releases them by advancing its gating sequence, which producers
+ * check before wrapping onto a slot. No locks are taken and no message is ever allocated after construction.
+ * If the consumer fails it marks the ring failed, and publishing then throws instead of waiting forever
+ * for slots that will never be released.
+ */
+public class OrderRing {
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(long[].class); // Ordered slot access
+
+    private final OrderMessage[] messages; // Preallocated message in each slot
+    private final int[] instruments; // Instrument ID of the message in each slot
+    private final long[] available; // Sequence last published into each slot
+    private final int mask; // messages.length - 1
+    private final Sequence claimed = new Sequence(0); // Next sequence to hand to a producer
+    private final Sequence consumed = new Sequence(0); // Next sequence the consumer will read
+    private final WaitStrategy waitStrategy; // How producers wait for a free slot
+    private volatile Throwable failure; // What stopped the consumer, or null while it is healthy
+
+    /**
+     * Constructs an OrderRing object.
+     *
+     * @param capacity     The number of slots, a power of two.
+     * @param waitStrategy How producers wait while the ring is full.
+     */
+    public OrderRing(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two: " + capacity);
+        }
+        this.messages = new OrderMessage[capacity];
+        for (int i = 0; i < capacity; i++) {
+            messages[i] = new OrderMessage();
+        }
+        this.instruments = new int[capacity];
+        this.available = new long[capacity];
+        Arrays.fill(available, -1);
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Claims, fills and publishes one message, waiting while the ring is full. Safe to call from any
+     * number of threads.
+     *
+     * @param uid   The unique identifier for the order.
+     * @param isBid Indicates if the order is a bid (buy) or ask (sell).
+     * @param size  The size of the order in lots, 0 to cancel.
+     * @param price The price of the order in ticks.
+     * @return The sequence of the published message.
+     * @throws IllegalStateException If the consumer has failed.
+     */
+    public long publish(long uid, boolean isBid, long size, long price) {
+        return publish(0, uid, isBid, size, price);
+    }
+
+    /**
+     * Claims, fills and publishes one message for a given instrument, waiting while the ring is full. Safe
+     * to call from any number of threads.
+     *
+     * @param instrument The ID of the instrument the message is for.
+     * @param uid        The unique identifier for the order.
+     * @param isBid      Indicates if the order is a bid (buy) or ask (sell).
+     * @param size       The size of the order in lots, 0 to cancel.
+     * @param price      The price of the order in ticks.
+     * @return The sequence of the published message.
+     * @throws IllegalStateException If the consumer has failed.
+     */
+    public long publish(int instrument, long uid, boolean isBid, long size, long price) {
+        return publish(instrument, uid, isBid, size, price, 0);
+    }
+
+    /**
+     * Claims, fills and publishes one message with a supplied timestamp for a given instrument, waiting
+     * while the ring is full. Safe to call from any number of threads.
+     *
+     * @param instrument The ID of the instrument the message is for.
+     * @param uid        The unique identifier for the order.
+     * @param isBid      Indicates if the order is a bid (buy) or ask (sell).
+     * @param size       The size of the order in lots, 0 to cancel.
+     * @param price      The price of the order in ticks.
+     * @param timestamp  The timestamp of the order, e.g. the exchange's, or 0.
+     * @return The sequence of the published message.
+     * @throws IllegalStateException If the consumer has failed.
+     */
+    public long publish(int instrument, long uid, boolean isBid, long size, long price, long timestamp) {
+        long sequence = claim();
+        int index = (int) sequence & mask;
+        messages[index].set(uid, isBid, size, price, timestamp);
+        instruments[index] = instrument;
+        AVAILABLE.setRelease(available, index, sequence);
+        return sequence;
+    }
+
+    /**
+     * Claims a slot, copies every field of a message into it, type, display size and timestamp included,
+     * and publishes it, waiting while the ring is full. Safe to call from any number of threads.
+     *
+     * @param instrument The ID of the instrument the message is for.
+     * @param message    The message to copy, which the caller may reuse at once.
+     * @return The sequence of the published message.
+     * @throws IllegalStateException If the consumer has failed.
+     */
+    public long publish(int instrument, OrderMessage message) {
+        long sequence = claim();
+        int index = (int) sequence & mask;
+        messages[index].set(message);
+        instruments[index] = instrument;
+        AVAILABLE.setRelease(available, index, sequence);
+        return sequence;
+    }
+
+    /**
+     * Finds the highest sequence the consumer can read without gaps. Consumer thread only.
+     *
+     * @param from  The first sequence to check, normally {@link #getConsumed()}.
+     * @param limit The highest sequence to check.
+     * @return The highest contiguous published sequence in [from, limit], or from - 1 if from is unpublished.
+     */
+    public long getHighestPublished(long from, long limit) {
+        for (long sequence = from; sequence <= limit; sequence++) {
+            if ((long) AVAILABLE.getAcquire(available, (int) sequence & mask) != sequence) {
+                return sequence - 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Retrieves the message in a published slot. Consumer thread only; the message may be overwritten once
+     * the slot is released.
+     *
+     * @param sequence A published sequence that has not been released.
+     * @return The message.
+     */
+    public OrderMessage get(long sequence) {
+        return messages[(int) sequence & mask];
+    }
+
+    /**
+     * Retrieves the instrument ID of the message in a published slot. Consumer thread only.
+     *
+     * @param sequence A published sequence that has not been released.
+     * @return The instrument ID, 0 for messages published without one.
+     */
+    public int getInstrument(long sequence) {
+        return instruments[(int) sequence & mask];
+    }
+
+    /**
+     * Releases every slot before the given sequence back to the producers. Consumer thread only.
+     *
+     * @param nextSequence The next sequence the consumer will read.
+     */
+    public void release(long nextSequence) {
+        consumed.set(nextSequence);
+    }
+
+    /**
+     * Marks the consumer as failed, so that every later publish throws. Consumer thread only.
+     *
+     * @param cause What stopped the consumer.
+     */
+    public void fail(Throwable cause) {
+        failure = cause;
+    }
+
+    /**
+     * Retrieves what stopped the consumer.
+     *
+     * @return The failure, or null while the consumer is healthy.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Retrieves the next sequence the consumer will read.
+     *
+     * @return The consumer's position.
+     */
+    public long getConsumed() {
+        return consumed.get();
+    }
+
+    /**
+     * Retrieves the number of sequences claimed by producers so far.
+     *
+     * @return The producers' position.
+     */
+    public long getClaimed() {
+        return claimed.get();
+    }
+
+    /**
+     * Retrieves the number of slots in the ring.
+     *
+     * @return The capacity of the ring.
+     */
+    public int getCapacity() {
+        return messages.length;
+    }
+
+    /**
+     * Claim the next sequence, waiting until its slot has been released by the consumer.
+     *
+     * @return The claimed sequence.
+     */
+    private long claim() {
+        checkHealthy();
+        long sequence = claimed.getAndAdd(1);
+        long wrapPoint = sequence - messages.length;
+        int idleCount = 0;
+        while (wrapPoint >= consumed.get()) {
+            checkHealthy();
+            idleCount = waitStrategy.idle(idleCount);
+        }
+        return sequence;
+    }
+
+    /**
+     * Throws if the consumer has failed.
+     */
+    private void checkHealthy() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Consumer of the ring has failed", cause);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package main.pipeline;
+
+import main.ProcessResult;
+
+/**
+ * Receives the outcome of messages applied by an {@link OrderBookPipeline}'s engine thread.
+ */
+@FunctionalInterface
+public interface ResultHandler {
+
+    /**
+     * Handles the outcome of one message.
+     *
+     * @param sequence The sequence the message was published at, as returned to its producer.
+     * @param uid      The unique identifier of the order.
+     * @param result   The outcome of the message.
+     */
+    void onResult(long sequence, long uid, ProcessResult result);
+}
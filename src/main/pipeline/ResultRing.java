@@ -0,0 +1,93 @@
+package main.pipeline;
+
+import main.ProcessResult;
+
+/**
+ * Represents a preallocated single-producer, single-consumer ring of message outcomes, written by the
+ * engine thread and read by one result consumer.
+ *
+ * Results are stored in parallel primitive arrays. The writer publishes a batch with one release store of
+ * its position and the reader frees slots with one release store of its own.
+ */
+public class ResultRing {
+    private final long[] sequences; // Inbound sequence of the message in each slot
+    private final long[] uids; // Order ID of the message in each slot
+    private final ProcessResult[] results; // Outcome of the message in each slot
+    private final int mask; // sequences.length - 1
+    private final Sequence written = new Sequence(0); // Next slot the engine will publish
+    private final Sequence read = new Sequence(0); // Next slot the consumer will read
+    private long pending; // Next slot the engine will fill, published on flush; writer only
+
+    /**
+     * Constructs a ResultRing object.
+     *
+     * @param capacity The number of slots, a power of two.
+     */
+    public ResultRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two: " + capacity);
+        }
+        this.sequences = new long[capacity];
+        this.uids = new long[capacity];
+        this.results = new ProcessResult[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Fills the next slot without publishing it, waiting while the ring is full. Writer thread only.
+     *
+     * @param sequence     The inbound sequence of the message.
+     * @param uid          The order ID of the message.
+     * @param result       The outcome of the message.
+     * @param waitStrategy How to wait while the consumer catches up.
+     */
+    void add(long sequence, long uid, ProcessResult result, WaitStrategy waitStrategy) {
+        if (pending - read.get() >= sequences.length) {
+            written.set(pending);
+            int idleCount = 0;
+            while (pending - read.get() >= sequences.length) {
+                idleCount = waitStrategy.idle(idleCount);
+            }
+        }
+        int index = (int) pending & mask;
+        sequences[index] = sequence;
+        uids[index] = uid;
+        results[index] = result;
+        pending++;
+    }
+
+    /**
+     * Publishes every filled slot to the consumer. Writer thread only.
+     */
+    void flush() {
+        written.set(pending);
+    }
+
+    /**
+     * Passes up to the given number of published results to a handler and frees their slots. Consumer
+     * thread only.
+     *
+     * @param handler    The handler to receive the results.
+     * @param maxResults The maximum number of results to drain.
+     * @return The number of results drained.
+     */
+    public int drain(ResultHandler handler, int maxResults) {
+        long from = read.get();
+        long to = Math.min(written.get(), from + maxResults);
+        for (long slot = from; slot < to; slot++) {
+            int index = (int) slot & mask;
+            handler.onResult(sequences[index], uids[index], results[index]);
+        }
+        read.set(to);
+        return (int) (to - from);
+    }
+
+    /**
+     * Retrieves the number of published results not yet drained.
+     *
+     * @return The number of results waiting for the consumer.
+     */
+    public int getPendingCount() {
+        return (int) (written.get() - read.get());
+    }
+}
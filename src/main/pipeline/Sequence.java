@@ -0,0 +1,79 @@
+package main.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Cache line padding in front of {@link Sequence}'s value. Superclass fields are laid out first, so the
+ * padding cannot be reordered around the value.
+ */
+class LhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7; // Padding before the value
+}
+
+/**
+ * The padded value of a {@link Sequence}.
+ */
+class Value extends LhsPadding {
+    protected volatile long value; // The sequence
+}
+
+/**
+ * Cache line padding behind {@link Sequence}'s value.
+ */
+class RhsPadding extends Value {
+    protected long p9, p10, p11, p12, p13, p14, p15; // Padding after the value
+}
+
+/**
+ * Represents a ring buffer position shared between threads, padded so that it does not share a cache
+ * line with other hot fields.
+ */
+public class Sequence extends RhsPadding {
+    private static final VarHandle VALUE; // Access to the value with explicit memory ordering
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Constructs a Sequence object.
+     *
+     * @param initialValue The initial sequence.
+     */
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Retrieves the sequence with acquire semantics.
+     *
+     * @return The sequence.
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Sets the sequence with release semantics, publishing every write made before it.
+     *
+     * @param newValue The new sequence.
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * Atomically adds to the sequence.
+     *
+     * @param delta The amount to add.
+     * @return The sequence before the addition.
+     */
+    public long getAndAdd(long delta) {
+        return (long) VALUE.getAndAdd(this, delta);
+    }
+}
@@ -0,0 +1,58 @@
+package main.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import main.LimitOrderBook;
+
+/**
+ * Represents one engine thread of an {@link OrderBookManager}, applying the messages of its inbound ring to
+ * the books of the instruments assigned to it.
+ *
+ * A book is only ever touched by the worker its instrument is assigned to, so books need no locking.
+ */
+class ShardWorker extends EngineLoop {
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class); // Opaque counter access
+
+    private final LimitOrderBook[] books; // Books of every instrument, indexed by instrument ID
+    private final long[] messageCounts; // Messages applied per instrument, shared by all workers
+
+    /**
+     * Constructs a ShardWorker object.
+     *
+     * @param ringCapacity  The number of inbound slots, a power of two.
+     * @param books         The books of every instrument, indexed by instrument ID.
+     * @param messageCounts The per-instrument message counters to increment.
+     * @param batchSize     The maximum number of messages applied per pass.
+     * @param waitStrategy  How producers and the worker wait.
+     */
+    ShardWorker(int ringCapacity, LimitOrderBook[] books, long[] messageCounts, int batchSize,
+            WaitStrategy waitStrategy) {
+        super(ringCapacity, batchSize, waitStrategy);
+        this.books = books;
+        this.messageCounts = messageCounts;
+    }
+
+    /**
+     * Reads a per-instrument message counter written by a worker thread.
+     *
+     * @param messageCounts The per-instrument message counters.
+     * @param instrument    The instrument ID.
+     * @return The number of messages applied for the instrument.
+     */
+    static long readCount(long[] messageCounts, int instrument) {
+        return (long) COUNTS.getOpaque(messageCounts, instrument);
+    }
+
+    /**
+     * Applies a message to the book of its instrument and counts it.
+     *
+     * @param sequence The sequence of the message in the inbound ring.
+     */
+    @Override
+    void apply(long sequence) {
+        int instrument = inbound.getInstrument(sequence);
+        books[instrument].process(inbound.get(sequence));
+        COUNTS.setOpaque(messageCounts, instrument, messageCounts[instrument] + 1);
+    }
+}
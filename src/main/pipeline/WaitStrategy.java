@@ -0,0 +1,38 @@
+package main.pipeline;
+
+/**
+ * Represents how a pipeline thread waits when it has nothing to do, e.g. an engine with an empty ring or
+ * a producer with a full one.
+ */
+public enum WaitStrategy {
+    /** Spins on the CPU. Lowest latency, but burns a core per waiting thread. */
+    BUSY_SPIN {
+        @Override
+        public int idle(int idleCount) {
+            Thread.onSpinWait();
+            return idleCount + 1;
+        }
+    },
+    /** Spins for a short while, then yields the CPU to other threads between checks. */
+    YIELDING {
+        @Override
+        public int idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return idleCount + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100; // Spins before a yielding wait starts to yield
+
+    /**
+     * Waits once.
+     *
+     * @param idleCount The number of consecutive times the caller has waited, 0 on the first wait.
+     * @return The idle count to pass to the next wait.
+     */
+    public abstract int idle(int idleCount);
+}
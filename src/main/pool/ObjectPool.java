@@ -0,0 +1,144 @@
+package main.pool;
+
+import java.util.function.Supplier;
+
+/**
+ * Represents a pool of reusable objects in a trading system.
+ *
+ * Released objects are kept on an array-backed free stack up to a maximum, so steady-state acquire and
+ * release allocate nothing. The pool is not thread-safe; it belongs to the single thread driving a book.
+ *
+ * @param <T> The type of pooled object.
+ */
+public class ObjectPool<T> {
+    private final Supplier<T> factory; // Creates new objects when the pool is empty
+    private final int maxRetained; // The maximum number of free objects kept for reuse
+    private Object[] free; // Stack of free objects
+    private int available; // The number of free objects on the stack
+    private long created; // The number of objects created by the factory
+    private long acquired; // The number of acquire calls
+    private long released; // The number of release calls
+    private long dropped; // The number of released objects discarded because the pool was full
+
+    /**
+     * Constructs an ObjectPool object.
+     *
+     * @param factory     Creates new objects when the pool is empty.
+     * @param maxRetained The maximum number of free objects kept for reuse.
+     */
+    public ObjectPool(Supplier<T> factory, int maxRetained) {
+        if (maxRetained < 0) {
+            throw new IllegalArgumentException("maxRetained must not be negative: " + maxRetained);
+        }
+        this.factory = factory;
+        this.maxRetained = maxRetained;
+        this.free = new Object[Math.min(maxRetained, 16)];
+    }
+
+    /**
+     * Creates objects up front so that the first acquires do not allocate.
+     *
+     * @param count The number of free objects the pool should hold, capped at the maximum retained.
+     */
+    public void preallocate(int count) {
+        int target = Math.min(count, maxRetained);
+        while (available < target) {
+            push(factory.get());
+            created++;
+        }
+    }
+
+    /**
+     * Takes an object from the pool, creating one if the pool is empty.
+     *
+     * @return A pooled object, which the caller must reinitialise.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        acquired++;
+        if (available == 0) {
+            created++;
+            return factory.get();
+        }
+        T object = (T) free[--available];
+        free[available] = null;
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool. The caller must not use it afterwards.
+     *
+     * @param object The object to release.
+     */
+    public void release(T object) {
+        released++;
+        if (available == maxRetained) {
+            dropped++;
+            return;
+        }
+        push(object);
+    }
+
+    private void push(Object object) {
+        if (available == free.length) {
+            Object[] grown = new Object[(int) Math.min(maxRetained, Math.max(16L, 2L * free.length))];
+            System.arraycopy(free, 0, grown, 0, available);
+            free = grown;
+        }
+        free[available++] = object;
+    }
+
+    /**
+     * Retrieves the number of free objects ready for reuse.
+     *
+     * @return The number of free objects.
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Retrieves the number of objects created by the pool's factory.
+     *
+     * @return The number of objects created.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Retrieves the number of objects handed out by the pool.
+     *
+     * @return The number of acquire calls.
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Retrieves the number of objects returned to the pool.
+     *
+     * @return The number of release calls.
+     */
+    public long getReleased() {
+        return released;
+    }
+
+    /**
+     * Retrieves the number of released objects discarded because the pool already held its maximum.
+     *
+     * @return The number of dropped objects.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Retrieves the number of acquired objects that have not been released yet.
+     *
+     * @return The number of objects in use.
+     */
+    public long getInUse() {
+        return acquired - released;
+    }
+}
@@ -0,0 +1,66 @@
+package main.replay;
+
+import main.LimitOrderBook;
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+import main.offheap.OffHeapOrderBook;
+
+/**
+ * Calculates checksums of a book's price levels.
+ *
+ * The checksum folds in the price, size and order count of every level, bids then asks, each side best
+ * first, followed by each side's level count, so books of different implementations holding the same
+ * levels have the same checksum.
+ */
+public final class BookChecksum {
+    private static final long SEED = 0x6A09E667F3BCC908L; // Initial value of a checksum
+
+    private BookChecksum() {
+    }
+
+    /**
+     * Calculates the checksum of a heap book.
+     *
+     * @param book The book.
+     * @return The checksum.
+     */
+    public static long of(LimitOrderBook book) {
+        return mixSide(mixSide(SEED, book.getBids()), book.getAsks());
+    }
+
+    /**
+     * Calculates the checksum of an off-heap book.
+     *
+     * @param book The book.
+     * @return The checksum.
+     */
+    public static long of(OffHeapOrderBook book) {
+        long hash = SEED;
+        for (boolean isBid : new boolean[] { true, false }) {
+            int levels = book.getLevelCount(isBid);
+            long[] prices = new long[levels];
+            long[] sizes = new long[levels];
+            int[] counts = new int[levels];
+            book.getLevels(isBid, prices, sizes, counts);
+            for (int i = 0; i < levels; i++) {
+                hash = mix(hash, prices[i], sizes[i], counts[i]);
+            }
+            hash = mix(hash, levels, 0, 0);
+        }
+        return hash;
+    }
+
+    private static long mixSide(long hash, LimitLevelTree side) {
+        for (LimitLevel level = side.getRoot(); level != null; level = side.getNextLevel(level)) {
+            hash = mix(hash, level.getPrice(), level.getSize(), level.getLength());
+        }
+        return mix(hash, side.getSize(), 0, 0);
+    }
+
+    private static long mix(long hash, long price, long size, long count) {
+        hash = (hash ^ price) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ size) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ count) * 0x165667B19E3779F9L;
+        return hash ^ (hash >>> 29);
+    }
+}
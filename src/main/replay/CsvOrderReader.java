@@ -0,0 +1,160 @@
+package main.replay;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import main.journal.JournalRecordHandler;
+
+/**
+ * Reads recorded order messages from a CSV file.
+ *
+ * Each line is {@code timestamp,uid,side,size,price}: the timestamp in nanoseconds, the side as {@code B}
+ * or {@code 1} for a bid and {@code S} or {@code 0} for an ask, the size in lots (0 to cancel) and the
+ * price in ticks. A first line that does not start with a digit is taken as a header, and blank lines are
+ * skipped. The file is mapped a region at a time and numbers are parsed straight from its bytes, so no
+ * String is created per line. Records are numbered from 1 in file order.
+ */
+public class CsvOrderReader {
+    private static final int REGION_SIZE = 1 << 26; // Bytes mapped at a time
+
+    private CsvOrderReader() {
+    }
+
+    /**
+     * Reads every line of a CSV order file.
+     *
+     * @param path    The CSV file.
+     * @param handler The handler to receive the records, in file order.
+     * @return The number of records read.
+     * @throws IOException If the file cannot be read or a line is malformed.
+     */
+    public static long read(Path path, JournalRecordHandler handler) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            boolean firstLine = true;
+            while (start < fileSize) {
+                long mapped = Math.min(REGION_SIZE, fileSize - start);
+                boolean lastRegion = start + mapped == fileSize;
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+                Parser parser = new Parser(region, (int) mapped);
+                int lineStart = 0;
+                while (lineStart < mapped) {
+                    int lineEnd = parser.findLineEnd(lineStart);
+                    if (lineEnd == mapped && !lastRegion) {
+                        break;
+                    }
+                    if (firstLine && lineEnd > lineStart && !Parser.isDigit(region.get(lineStart))) {
+                        firstLine = false;
+                    } else if (!parser.isBlank(lineStart, lineEnd)) {
+                        firstLine = false;
+                        parser.parse(lineStart, lineEnd, start);
+                        handler.onRecord(++records, parser.timestamp, parser.uid, parser.isBid, parser.size,
+                                parser.price);
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line at offset " + start + " is longer than " + REGION_SIZE + " bytes");
+                }
+                start += Math.min(lineStart, mapped);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Parses lines of a mapped region into reused fields.
+     */
+    private static final class Parser {
+        private final MappedByteBuffer region; // The mapped bytes
+        private final int limit; // The number of mapped bytes
+        private int position; // The next byte to parse
+        long timestamp; // Fields of the last parsed line
+        long uid;
+        boolean isBid;
+        long size;
+        long price;
+
+        Parser(MappedByteBuffer region, int limit) {
+            this.region = region;
+            this.limit = limit;
+        }
+
+        int findLineEnd(int from) {
+            int index = from;
+            while (index < limit && region.get(index) != '\n') {
+                index++;
+            }
+            return index;
+        }
+
+        boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                byte b = region.get(i);
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void parse(int from, int to, long regionStart) throws IOException {
+            position = from;
+            int end = to > from && region.get(to - 1) == '\r' ? to - 1 : to;
+            timestamp = parseLong(end, regionStart + from);
+            expectComma(end, regionStart + from);
+            uid = parseLong(end, regionStart + from);
+            expectComma(end, regionStart + from);
+            byte side = position < end ? region.get(position++) : 0;
+            if (side == 'B' || side == 'b' || side == '1') {
+                isBid = true;
+            } else if (side == 'S' || side == 's' || side == '0') {
+                isBid = false;
+            } else {
+                throw malformed(regionStart + from);
+            }
+            expectComma(end, regionStart + from);
+            size = parseLong(end, regionStart + from);
+            expectComma(end, regionStart + from);
+            price = parseLong(end, regionStart + from);
+            if (position != end) {
+                throw malformed(regionStart + from);
+            }
+        }
+
+        private long parseLong(int end, long lineOffset) throws IOException {
+            boolean negative = position < end && region.get(position) == '-';
+            if (negative) {
+                position++;
+            }
+            int digitsStart = position;
+            long value = 0;
+            while (position < end && isDigit(region.get(position))) {
+                value = value * 10 + (region.get(position++) - '0');
+            }
+            if (position == digitsStart) {
+                throw malformed(lineOffset);
+            }
+            return negative ? -value : value;
+        }
+
+        private void expectComma(int end, long lineOffset) throws IOException {
+            if (position >= end || region.get(position++) != ',') {
+                throw malformed(lineOffset);
+            }
+        }
+
+        private static IOException malformed(long lineOffset) {
+            return new IOException("Malformed order line at offset " + lineOffset);
+        }
+
+        static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+    }
+}
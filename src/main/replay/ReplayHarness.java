@@ -0,0 +1,245 @@
+package main.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+import main.LimitOrderBook;
+import main.journal.Journal;
+import main.journal.JournalReader;
+import main.journal.JournalRecordHandler;
+import main.limits.LadderLimitLevelTree;
+import main.metrics.BookMetrics;
+import main.metrics.LatencyHistogram;
+import main.offheap.OffHeapOrderBook;
+import main.order.OrderMessage;
+
+/**
+ * Replays a recorded order stream into a book and measures it.
+ *
+ * A recording is either a CSV file, read by {@link CsvOrderReader}, or a binary file in the {@link Journal}
+ * format, read by {@link JournalReader}; {@link #convert(Path, Path)} turns the first into the second. Each
+ * message goes through one reused {@link OrderMessage} and its processing time is recorded in a
+ * {@link LatencyHistogram}. Messages are replayed as fast as possible, or paced so that each is applied no
+ * earlier than its recorded offset from the first message. The final book is summarised by a
+ * {@link BookChecksum}, so implementations can be compared on the same data.
+ *
+ * Run as a tool with
+ * {@code gradle replay -PreplayArgs="<file> [--paced] [--book=treemap|ladder|offheap] [--metrics]"}.
+ */
+public class ReplayHarness implements JournalRecordHandler {
+    private static final long PARK_THRESHOLD = 50_000; // Waits longer than this many nanoseconds park first
+
+    private final ReplayTarget target; // The book being replayed into
+    private final boolean paced; // Whether to keep to the recorded message times
+    private final OrderMessage message = new OrderMessage(); // Reused message
+    private final LatencyHistogram latencies = new LatencyHistogram(); // Processing time per message
+    private long messages; // The number of messages replayed
+    private long firstTimestamp; // Recorded timestamp of the first message
+    private long startNanos; // System.nanoTime() when the first message was replayed
+    private long elapsedNanos; // Wall time of the last replay
+
+    /**
+     * Constructs a ReplayHarness object.
+     *
+     * @param target The book to replay into.
+     * @param paced  Whether to pace messages to their recorded timestamps rather than replay them as fast
+     *               as possible.
+     */
+    public ReplayHarness(ReplayTarget target, boolean paced) {
+        this.target = target;
+        this.paced = paced;
+    }
+
+    /**
+     * Replays a recording into the target, CSV if the file name ends in {@code .csv} and binary otherwise.
+     *
+     * @param path The recording.
+     * @return The number of messages replayed by this call.
+     * @throws IOException If the recording cannot be read.
+     */
+    public long replay(Path path) throws IOException {
+        long before = messages;
+        long start = System.nanoTime();
+        startNanos = start;
+        if (isCsv(path)) {
+            CsvOrderReader.read(path, this);
+        } else {
+            JournalReader.read(path, this);
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return messages - before;
+    }
+
+    @Override
+    public void onRecord(long sequence, long timestamp, long uid, boolean isBid, long size, long price) {
+        onRecord(sequence, timestamp, uid, isBid, size, price, 0);
+    }
+
+    @Override
+    public void onRecord(long sequence, long timestamp, long uid, boolean isBid, long size, long price,
+            long displaySize) {
+        if (paced) {
+            if (messages == 0) {
+                firstTimestamp = timestamp;
+                startNanos = System.nanoTime();
+            } else {
+                awaitOffset(timestamp - firstTimestamp);
+            }
+        }
+        message.set(uid, isBid, size, price, timestamp).setDisplaySize(displaySize);
+        long start = System.nanoTime();
+        target.process(message);
+        latencies.record(System.nanoTime() - start);
+        messages++;
+    }
+
+    /**
+     * Wait until the given time has passed since the first message was replayed.
+     *
+     * @param offset The recorded offset of the next message from the first, in nanoseconds.
+     */
+    private void awaitOffset(long offset) {
+        long deadline = startNanos + offset;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > PARK_THRESHOLD) {
+                LockSupport.parkNanos(remaining - PARK_THRESHOLD);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of messages replayed.
+     *
+     * @return The number of messages.
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * Retrieves the wall time of the last replay, including any pacing.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Retrieves the processing time of every message replayed.
+     *
+     * @return The latency histogram.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Calculates the checksum of the target's price levels.
+     *
+     * @return The checksum.
+     */
+    public long getChecksum() {
+        return target.checksum();
+    }
+
+    /**
+     * Converts a CSV recording into the binary format, keeping the recorded timestamps.
+     *
+     * @param csv    The CSV recording.
+     * @param binary The binary file to write, which should not exist yet.
+     * @return The number of messages converted.
+     * @throws IOException If either file cannot be accessed or the CSV is malformed.
+     */
+    public static long convert(Path csv, Path binary) throws IOException {
+        try (Journal journal = new Journal(binary)) {
+            return CsvOrderReader.read(csv, (sequence, timestamp, uid, isBid, size, price) ->
+                    journal.append(timestamp, uid, isBid, size, price));
+        }
+    }
+
+    private static boolean isCsv(Path path) {
+        return path.getFileName().toString().endsWith(".csv");
+    }
+
+    /**
+     * Replays a recording into a new book and reports throughput, latencies and the final checksum, or
+     * converts a CSV recording to the binary format.
+     *
+     * @param args The recording, then options: {@code --paced}, {@code --book=treemap|ladder|offheap},
+     *             {@code --band=<min>:<max>} and {@code --capacity=<orders>} for the off-heap book,
+     *             {@code --metrics} to report a heap book's {@link BookMetrics}, or
+     *             {@code --convert=<binary file>}.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: ReplayHarness <recording> [--paced] [--book=treemap|ladder|offheap]"
+                    + " [--band=<min>:<max>] [--capacity=<orders>] [--metrics] [--convert=<binary file>]");
+            System.exit(2);
+        }
+        Path path = Path.of(args[0]);
+        boolean paced = false;
+        boolean metered = false;
+        String book = "treemap";
+        long minPrice = 0;
+        long maxPrice = 1 << 20;
+        int capacity = 1 << 22;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--paced")) {
+                paced = true;
+            } else if (arg.equals("--metrics")) {
+                metered = true;
+            } else if (arg.startsWith("--book=")) {
+                book = arg.substring("--book=".length());
+            } else if (arg.startsWith("--band=")) {
+                String[] band = arg.substring("--band=".length()).split(":");
+                minPrice = Long.parseLong(band[0]);
+                maxPrice = Long.parseLong(band[1]);
+            } else if (arg.startsWith("--capacity=")) {
+                capacity = Integer.parseInt(arg.substring("--capacity=".length()));
+            } else if (arg.startsWith("--convert=")) {
+                long converted = convert(path, Path.of(arg.substring("--convert=".length())));
+                System.out.printf("converted %d messages%n", converted);
+                return;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        ReplayTarget target;
+        LimitOrderBook heapBook = null;
+        switch (book) {
+            case "treemap":
+                heapBook = new LimitOrderBook();
+                target = ReplayTarget.of(heapBook);
+                break;
+            case "ladder":
+                heapBook = new LimitOrderBook(new LadderLimitLevelTree(true), new LadderLimitLevelTree(false));
+                target = ReplayTarget.of(heapBook);
+                break;
+            case "offheap":
+                target = ReplayTarget.of(new OffHeapOrderBook(capacity, minPrice, maxPrice));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown book: " + book);
+        }
+        if (metered && heapBook != null) {
+            heapBook.setMetrics(new BookMetrics());
+        }
+        ReplayHarness harness = new ReplayHarness(target, paced);
+        long replayed = harness.replay(path);
+        System.out.printf("book %s, %d messages, %.3f s, %.2f M messages/s%n", book, replayed,
+                harness.getElapsedNanos() / 1e9, replayed * 1e3 / Math.max(harness.getElapsedNanos(), 1));
+        System.out.println("latency ns: " + harness.getLatencies());
+        System.out.printf("checksum %016x%n", harness.getChecksum());
+        if (metered && heapBook != null) {
+            System.out.println(heapBook.snapshotMetrics());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package main.replay;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.offheap.OffHeapOrderBook;
+import main.order.OrderMessage;
+
+/**
+ * Represents a book implementation driven by a {@link ReplayHarness}.
+ *
+ * Every target reports the same checksum for the same resting price levels, so runs of different book
+ * implementations over the same recording can be compared.
+ */
+public interface ReplayTarget {
+
+    /**
+     * Applies one recorded message to the book.
+     *
+     * @param message The message, reused by the caller.
+     * @return The outcome of the message.
+     */
+    ProcessResult process(OrderMessage message);
+
+    /**
+     * Calculates a checksum of the book's price levels with {@link BookChecksum}.
+     *
+     * @return The checksum.
+     */
+    long checksum();
+
+    /**
+     * Wraps a heap book as a replay target.
+     *
+     * @param book The book.
+     * @return The target.
+     */
+    static ReplayTarget of(LimitOrderBook book) {
+        return new ReplayTarget() {
+            @Override
+            public ProcessResult process(OrderMessage message) {
+                return book.process(message);
+            }
+
+            @Override
+            public long checksum() {
+                return BookChecksum.of(book);
+            }
+        };
+    }
+
+    /**
+     * Wraps an off-heap book as a replay target.
+     *
+     * @param book The book.
+     * @return The target.
+     */
+    static ReplayTarget of(OffHeapOrderBook book) {
+        return new ReplayTarget() {
+            @Override
+            public ProcessResult process(OrderMessage message) {
+                return book.process(message);
+            }
+
+            @Override
+            public long checksum() {
+                return BookChecksum.of(book);
+            }
+        };
+    }
+}
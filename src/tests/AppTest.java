@@ -1,6 +1,8 @@
 package tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -11,9 +13,13 @@ import java.util.Map;
 
 import org.junit.Test;
 
+import main.FixedPointScale;
 import main.LimitOrderBook;
+import main.ProcessResult;
 import main.limits.LimitLevel;
+import main.marketdata.DepthSnapshot;
 import main.order.Order;
+import main.order.OrderMessage;
 
 public class AppTest {
 
@@ -96,7 +102,7 @@ public class AppTest {
         assertNull("null", lob.getBestBid().getOrders().getHead().getNextItem());
         assertNull("null", lob.getBestBid().getOrders().getHead().getPreviousItem());
         assertTrue(!lob.getOrders().containsKey(removed_bid_order.getUid()));
-        assertTrue(lob.getPriceLevels().containsKey(removed_bid_order.getPrice()));
+        assertNotNull(lob.getBids().getLevel(removed_bid_order.getPrice()));
 
         // Confirm that removing the last Order in a price level appropriately 
         // removes its corresponding limit level.
@@ -104,7 +110,7 @@ public class AppTest {
         lob.process(removed_bid_order_2);
         assertNull("null", lob.getBestBid());
         assertTrue(!lob.getOrders().containsKey(removed_bid_order_2.getUid()));
-        assertTrue(!lob.getPriceLevels().containsKey(removed_bid_order_2.getPrice()));
+        assertNull(lob.getBids().getLevel(removed_bid_order_2.getPrice()));
     }
 
     @Test
@@ -127,6 +133,31 @@ public class AppTest {
         }
     }
 
+    @Test
+    public void testDepthSnapshot() {
+        LimitOrderBook lob = new LimitOrderBook();
+        loadSampleOrders(lob);
+        DepthSnapshot snapshot = new DepthSnapshot(3);
+        lob.getDepth(snapshot);
+
+        assertEquals(3, snapshot.getLevelCount(true));
+        assertArrayEquals(new long[] { 150, 100, 90 }, snapshot.getPrices(true));
+        assertArrayEquals(new long[] { 10, 20, 5 }, snapshot.getSizes(true));
+        assertArrayEquals(new int[] { 1, 2, 1 }, snapshot.getOrderCounts(true));
+        assertArrayEquals(new long[] { 180, 200, 205 }, snapshot.getPrices(false));
+
+        // Refilling the same snapshot reflects the current book and stops at a shallower side.
+        lob.process(new Order(7, true, 0, 150));
+        lob.process(new Order(8, true, 0, 80));
+        lob.getDepth(snapshot);
+        assertEquals(2, snapshot.getLevelCount(true));
+        assertEquals(100, snapshot.getPrice(true, 0));
+        assertEquals(90, snapshot.getPrice(true, 1));
+        assertEquals(3, snapshot.getLevelCount(false));
+        assertEquals(1, snapshot.getOrderCount(false, 0));
+        assertEquals(10, snapshot.getSize(false, 0));
+    }
+
     @Test
     public void testMatchBid() {
         LimitOrderBook lob = new LimitOrderBook();
@@ -141,11 +172,11 @@ public class AppTest {
         assertEquals(lob.getBestBid().getOrders().getCount(),1);
         assertEquals(lob.getBestAsk().getOrders().getCount(),1);
         assertEquals(lob.getOrders().size(),2);
-        assertEquals(lob.getPriceLevels().size(),2);
-        assertEquals(lob.getPriceLevels().get(90.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(90.0).getSize() == 3);
-        assertEquals(lob.getPriceLevels().get(300.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(300.0).getSize() == 5);
+        assertEquals(lob.getBids().getSize() + lob.getAsks().getSize(),2);
+        assertEquals(lob.getBids().getLevel(90).getLength(),1);
+        assertTrue(null,lob.getBids().getLevel(90).getSize() == 3);
+        assertEquals(lob.getAsks().getLevel(300).getLength(),1);
+        assertTrue(null,lob.getAsks().getLevel(300).getSize() == 5);
         assertEquals(lob.getAsks().getSize(),1);
         assertEquals(lob.getBids().getSize(),1);
         assertEquals(lob.getMidPrice(), 195.0,0);
@@ -167,11 +198,11 @@ public class AppTest {
         assertEquals(lob.getBestBid().getOrders().getCount(),1);
         assertEquals(lob.getBestAsk().getOrders().getCount(),1);
         assertEquals(lob.getOrders().size(),2);
-        assertEquals(lob.getPriceLevels().size(),2);
-        assertEquals(lob.getPriceLevels().get(90.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(90.0).getSize() == 3);
-        assertEquals(lob.getPriceLevels().get(300.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(300.0).getSize() == 5);
+        assertEquals(lob.getBids().getSize() + lob.getAsks().getSize(),2);
+        assertEquals(lob.getBids().getLevel(90).getLength(),1);
+        assertTrue(null,lob.getBids().getLevel(90).getSize() == 3);
+        assertEquals(lob.getAsks().getLevel(300).getLength(),1);
+        assertTrue(null,lob.getAsks().getLevel(300).getSize() == 5);
         assertEquals(lob.getAsks().getSize(),1);
         assertEquals(lob.getBids().getSize(),1);
         assertEquals(lob.getMidPrice(), 195.0,0);
@@ -194,12 +225,12 @@ public class AppTest {
         assertEquals(lob.getBestBid().getOrders().getCount(),1);
         assertEquals(lob.getBestAsk().getOrders().getCount(),1);
         assertEquals(lob.getOrders().size(),3);
-        assertEquals(lob.getPriceLevels().size(),3);
-        assertEquals(lob.getPriceLevels().get(90.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(90.0).getSize() == 3);
-        assertTrue(null,lob.getPriceLevels().get(100.0).getSize() == 3);
-        assertEquals(lob.getPriceLevels().get(300.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(300.0).getSize() == 5);
+        assertEquals(lob.getBids().getSize() + lob.getAsks().getSize(),3);
+        assertEquals(lob.getBids().getLevel(90).getLength(),1);
+        assertTrue(null,lob.getBids().getLevel(90).getSize() == 3);
+        assertTrue(null,lob.getBids().getLevel(100).getSize() == 3);
+        assertEquals(lob.getAsks().getLevel(300).getLength(),1);
+        assertTrue(null,lob.getAsks().getLevel(300).getSize() == 5);
         assertEquals(lob.getAsks().getSize(),1);
         assertEquals(lob.getBids().getSize(),2);
         assertEquals(lob.getMidPrice(), 200.0,0);
@@ -220,18 +251,121 @@ public class AppTest {
         lob.process(a2);
        
         assertEquals(lob.getOrders().size(),3);
-        assertEquals(lob.getPriceLevels().size(),3);
-        assertEquals(lob.getPriceLevels().get(90.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(90.0).getSize() == 3);
-        assertTrue(null,lob.getPriceLevels().get(100.0).getSize() == 7);
-        assertEquals(lob.getPriceLevels().get(300.0).getLength(),1);
-        assertTrue(null,lob.getPriceLevels().get(300.0).getSize() == 5);
+        assertEquals(lob.getBids().getSize() + lob.getAsks().getSize(),3);
+        assertEquals(lob.getBids().getLevel(90).getLength(),1);
+        assertTrue(null,lob.getBids().getLevel(90).getSize() == 3);
+        assertTrue(null,lob.getAsks().getLevel(100).getSize() == 7);
+        assertEquals(lob.getAsks().getLevel(300).getLength(),1);
+        assertTrue(null,lob.getAsks().getLevel(300).getSize() == 5);
         assertEquals(lob.getAsks().getSize(),2);
         assertEquals(lob.getBids().getSize(),1);
         assertEquals(lob.getMidPrice(), 95.0,0);
 
     }
 
+    @Test
+    public void testSweepMultipleLevels() {
+        LimitOrderBook lob = new LimitOrderBook();
+        Order a1 = new Order(1, false, 5, 101);
+        Order a2 = new Order(2, false, 5, 102);
+        Order a3 = new Order(3, false, 5, 102);
+        Order a4 = new Order(4, false, 5, 103);
+        lob.process(a1);
+        lob.process(a2);
+        lob.process(a3);
+        lob.process(a4);
+
+        // Crosses into 102, a price with no bid level, consuming 101 and part of 102 in time priority.
+        assertEquals(ProcessResult.FILLED, lob.process(new Order(5, true, 12, 102)));
+        assertEquals(102, lob.getBestAsk().getPrice());
+        assertEquals(3, lob.getBestAsk().getSize());
+        assertTrue(lob.getBestAsk().getOrders().getHead() == a3);
+        assertEquals(3, a3.getSize());
+        assertNull(lob.getBestBid());
+        assertTrue(!lob.getOrders().containsKey(1) && !lob.getOrders().containsKey(2));
+
+        // The remainder of an order that sweeps every crossing level rests at its own price.
+        assertEquals(ProcessResult.PARTIALLY_FILLED, lob.process(new Order(6, true, 10, 103)));
+        assertEquals(103, lob.getBestBid().getPrice());
+        assertEquals(2, lob.getBestBid().getSize());
+        assertNull(lob.getBestAsk());
+        assertEquals(1, lob.getOrders().size());
+        assertEquals(1, lob.getBids().getSize() + lob.getAsks().getSize());
+    }
+
+    @Test
+    public void testReusedMessageAndPooling() {
+        LimitOrderBook lob = new LimitOrderBook();
+        OrderMessage message = new OrderMessage();
+        for (int round = 0; round < 100; round++) {
+            for (int uid = 1; uid <= 10; uid++) {
+                assertEquals(ProcessResult.ADDED, lob.process(message.set(uid, true, 5, 100 - uid % 3)));
+            }
+            assertEquals(3, lob.getBids().getSize());
+            assertEquals(15, lob.getBestBid().getSize());
+            assertTrue(lob.getBestBid().getOrders().getHead().isPooled());
+
+            // Half are cancelled, the other half are filled by a sweeping ask.
+            for (int uid = 1; uid <= 5; uid++) {
+                assertEquals(ProcessResult.CANCELLED, lob.process(message.set(uid, true, 0, 100 - uid % 3)));
+            }
+            assertEquals(ProcessResult.FILLED, lob.process(message.set(11, false, 25, 98)));
+            assertNull(lob.getBestBid());
+        }
+
+        // Orders and levels are recycled, so the pools only ever created one round's worth.
+        assertEquals(10, lob.getOrderPool().getCreated());
+        assertEquals(10, lob.getOrderPool().getAvailable());
+        assertEquals(1000, lob.getOrderPool().getAcquired());
+        assertEquals(3, lob.getLevelPool().getCreated());
+        assertEquals(0, lob.getLevelPool().getInUse());
+
+        // Caller-owned orders are never recycled into the pool.
+        Order owned = new Order(12, true, 5, 100);
+        lob.process(owned);
+        lob.process(message.set(13, false, 5, 100));
+        assertTrue(!owned.isPooled());
+        assertEquals(10, lob.getOrderPool().getAvailable());
+    }
+
+    @Test
+    public void testProcessResults() {
+        LimitOrderBook lob = new LimitOrderBook();
+        assertEquals(ProcessResult.ADDED, lob.process(new Order(1, true, 5, 100)));
+        assertEquals(ProcessResult.ADDED, lob.process(new Order(2, false, 5, 110)));
+        assertEquals(ProcessResult.UPDATED, lob.process(new Order(1, true, 8, 100)));
+        assertEquals(ProcessResult.FILLED, lob.process(new Order(3, false, 3, 100)));
+        assertEquals(ProcessResult.PARTIALLY_FILLED, lob.process(new Order(4, false, 10, 100)));
+        assertEquals(5, lob.getBestAsk().getSize());
+        assertEquals(ProcessResult.CANCELLED, lob.process(new Order(4, false, 0, 100)));
+        assertEquals(ProcessResult.REJECTED, lob.process(new Order(4, false, 0, 100)));
+        assertEquals(ProcessResult.REJECTED, lob.process(new Order(5, true, -1, 100)));
+        assertEquals(1, lob.getOrders().size());
+    }
+
+    @Test
+    public void testFixedPointScale() {
+        LimitOrderBook lob = new LimitOrderBook(new FixedPointScale(0.01, 0.001));
+        lob.process(lob.newOrder(1, true, 0.5, 99.95));
+        lob.process(lob.newOrder(2, true, 0.25, 99.95));
+        lob.process(lob.newOrder(3, false, 1.5, 100.05));
+
+        // Level aggregates are exact lot counts, with no drift from repeated subtraction.
+        assertEquals(9995, lob.getBestBid().getPrice());
+        assertEquals(750, lob.getBestBid().getSize());
+        for (int i = 0; i < 250; i++) {
+            lob.process(lob.newOrder(1, true, (i % 2 == 0) ? 0.1 : 0.5, 99.95));
+        }
+        assertEquals(750, lob.getBestBid().getSize());
+        assertEquals(0.75, lob.getScale().toSize(lob.getBestBid().getSize()), 1e-12);
+        assertEquals(100.0, lob.getMidPrice(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFixedPointScaleRejectsOffTickPrice() {
+        new LimitOrderBook(new FixedPointScale(0.05, 1)).newOrder(1, true, 1, 100.02);
+    }
+
     public static void loadSampleOrders(LimitOrderBook lob) {
         List<Order> orders = new ArrayList<>();
         orders.add(new Order(1, true, 15, 100));
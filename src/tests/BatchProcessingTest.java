@@ -0,0 +1,113 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.limits.LimitLevel;
+import main.marketdata.TopOfBookSnapshot;
+import main.order.OrderMessage;
+
+public class BatchProcessingTest {
+
+    private static void randomMessage(Random random, OrderMessage message, long uid) {
+        int action = random.nextInt(10);
+        if (action < 6 || uid < 10) {
+            boolean isBid = random.nextBoolean();
+            message.set(uid, isBid, 1 + random.nextInt(50), (isBid ? 995 : 1005) + random.nextInt(21) - 10);
+        } else {
+            message.set(uid - 1 - random.nextInt((int) Math.min(uid - 1, 500)), random.nextBoolean(),
+                    action < 8 ? 0 : 1 + random.nextInt(50), 1000);
+        }
+    }
+
+    private static void assertSameBook(LimitOrderBook expected, LimitOrderBook actual) {
+        assertEquals(expected.getOrders().size(), actual.getOrders().size());
+        for (boolean isBid : new boolean[] { true, false }) {
+            assertEquals((isBid ? expected.getBids() : expected.getAsks()).getSize(),
+                    (isBid ? actual.getBids() : actual.getAsks()).getSize());
+            for (long price = 900; price <= 1100; price++) {
+                LimitLevel level = (isBid ? expected.getBids() : expected.getAsks()).getLevel(price);
+                LimitLevel other = (isBid ? actual.getBids() : actual.getAsks()).getLevel(price);
+                assertEquals(level == null ? 0 : level.getSize(), other == null ? 0 : other.getSize());
+                assertEquals(level == null ? 0 : level.getLength(), other == null ? 0 : other.getLength());
+            }
+        }
+        assertSame(actual.getBids().getRoot(), actual.getBestBid());
+        assertSame(actual.getAsks().getRoot(), actual.getBestAsk());
+    }
+
+    @Test
+    public void testBatchesMatchSequentialProcessing() {
+        LimitOrderBook sequential = new LimitOrderBook();
+        LimitOrderBook batched = new LimitOrderBook();
+        LimitOrderBook packed = new LimitOrderBook();
+        OrderMessage[] batch = new OrderMessage[37];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new OrderMessage();
+        }
+        long[] buffer = new long[batch.length * OrderMessage.LONGS];
+        ProcessResult[] batchResults = new ProcessResult[batch.length];
+        ProcessResult[] packedResults = new ProcessResult[batch.length];
+        Random random = new Random(17);
+        long nextUid = 1;
+        for (int round = 0; round < 5_000; round++) {
+            int count = random.nextInt(batch.length + 1);
+            for (int i = 0; i < count; i++) {
+                randomMessage(random, batch[i], nextUid++);
+                OrderMessage message = batch[i];
+                OrderMessage.write(buffer, i, message.getUid(), message.isBid(), message.getSize(), message.getPrice());
+            }
+            batched.processBatch(batch, count, batchResults);
+            packed.processBatch(buffer, count, packedResults);
+            for (int i = 0; i < count; i++) {
+                ProcessResult expected = sequential.process(batch[i]);
+                assertEquals(expected, batchResults[i]);
+                assertEquals(expected, packedResults[i]);
+            }
+        }
+        assertSameBook(sequential, batched);
+        assertSameBook(sequential, packed);
+    }
+
+    @Test
+    public void testBatchPublishesTopOfBookOnce() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setTopOfBookPublishing(true);
+        long[] buffer = new long[3 * OrderMessage.LONGS];
+        OrderMessage.write(buffer, 0, 1, true, 10, 100);
+        OrderMessage.write(buffer, 1, 2, true, 5, 101);
+        OrderMessage.write(buffer, 2, 3, false, 7, 103);
+        ProcessResult[] results = lob.processBatch(buffer, 3, new ProcessResult[4]);
+        assertEquals(ProcessResult.ADDED, results[2]);
+        TopOfBookSnapshot snapshot = lob.getTopOfBook().read(new TopOfBookSnapshot());
+        assertEquals(1, snapshot.getSequence());
+        assertEquals(101, snapshot.getBidPrice());
+        assertEquals(103, snapshot.getAskPrice());
+    }
+
+    @Test
+    public void testRejectsUnknownType() {
+        LimitOrderBook lob = new LimitOrderBook();
+        long[] buffer = new long[3 * OrderMessage.LONGS];
+        OrderMessage.write(buffer, 0, 1, true, 10, 100);
+        OrderMessage.write(buffer, 1, 2, true, 5, 101);
+        OrderMessage.write(buffer, 2, 3, false, 7, 103);
+        buffer[OrderMessage.LONGS + OrderMessage.SIDE] |= (long) OrderMessage.TYPE_MASK << OrderMessage.TYPE_SHIFT;
+        ProcessResult[] results = lob.processBatch(buffer, 3, new ProcessResult[3]);
+        assertEquals(ProcessResult.ADDED, results[0]);
+        assertEquals(ProcessResult.REJECTED, results[1]);
+        assertEquals(ProcessResult.ADDED, results[2]);
+        assertEquals(2, lob.getOrders().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsShortResults() {
+        new LimitOrderBook().processBatch(new long[2 * OrderMessage.LONGS], 2, new ProcessResult[1]);
+    }
+}
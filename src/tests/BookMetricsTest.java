@@ -0,0 +1,67 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.metrics.BookMetrics;
+import main.metrics.BookMetricsSnapshot;
+import main.metrics.BookOperation;
+import main.order.Order;
+
+public class BookMetricsTest {
+
+    @Test
+    public void testCountersAndGauges() {
+        assertTrue(BookMetrics.ENABLED);
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setMetrics(new BookMetrics());
+        lob.process(new Order(1, false, 5, 101));
+        lob.process(new Order(2, false, 5, 101));
+        lob.process(new Order(3, false, 5, 101));
+        lob.process(new Order(4, false, 5, 102));
+        lob.process(new Order(5, true, 10, 99));
+        lob.process(new Order(5, true, 8, 99));
+        lob.process(new Order(6, true, 0, 99));
+        // Sweeps all of 101 and part of 102.
+        lob.process(new Order(7, true, 17, 102));
+        lob.process(new Order(5, true, 0, 99));
+
+        BookMetricsSnapshot snapshot = lob.snapshotMetrics();
+        assertEquals(9, snapshot.getLatency(BookOperation.PROCESS).getCount());
+        assertEquals(6, snapshot.getLatency(BookOperation.ADD).getCount());
+        assertEquals(1, snapshot.getLatency(BookOperation.UPDATE).getCount());
+        assertEquals(1, snapshot.getLatency(BookOperation.REMOVE).getCount());
+        assertEquals(1, snapshot.getLatency(BookOperation.MATCH).getCount());
+        assertEquals(5, snapshot.getResultCount(ProcessResult.ADDED));
+        assertEquals(1, snapshot.getResultCount(ProcessResult.FILLED));
+        assertEquals(1, snapshot.getResultCount(ProcessResult.UPDATED));
+        assertEquals(1, snapshot.getResultCount(ProcessResult.CANCELLED));
+        assertEquals(1, snapshot.getResultCount(ProcessResult.REJECTED));
+        assertEquals(3, snapshot.getLevelsCreated());
+        assertEquals(2, snapshot.getLevelsRemoved());
+        assertEquals(4, snapshot.getFills());
+        assertEquals(17, snapshot.getFilledVolume());
+        assertEquals(2, snapshot.getMatchLevels().getMax());
+        assertEquals(4, snapshot.getMatchFills().getMax());
+        assertEquals(3, snapshot.getMaxQueueDepth());
+        assertEquals(1, snapshot.getRestingOrders());
+        assertEquals(0, snapshot.getBidLevels());
+        assertEquals(1, snapshot.getAskLevels());
+        assertEquals(1, snapshot.getQueueDepth());
+        assertTrue(snapshot.toString().contains("levels created=3 removed=2"));
+
+        // A snapshot is a copy; resetting the metrics does not change it.
+        lob.getMetrics().reset();
+        assertEquals(9, snapshot.getLatency(BookOperation.PROCESS).getCount());
+        assertEquals(0, lob.snapshotMetrics().getLatency(BookOperation.PROCESS).getCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSnapshotRequiresMetrics() {
+        new LimitOrderBook().snapshotMetrics();
+    }
+}
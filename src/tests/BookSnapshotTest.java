@@ -0,0 +1,176 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.journal.Journal;
+import main.journal.JournalReplay;
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+import main.order.Order;
+import main.order.OrderMessage;
+
+public class BookSnapshotTest {
+
+    private static void randomMessages(LimitOrderBook lob, Random random, int count) {
+        OrderMessage message = new OrderMessage();
+        for (int i = 0; i < count; i++) {
+            long uid = 1 + random.nextInt(5_000);
+            boolean isBid = random.nextBoolean();
+            long price = (isBid ? 995 : 1005) + random.nextInt(21) - 10;
+            lob.process(message.set(uid, isBid, random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(50), price));
+        }
+    }
+
+    private static List<String> queues(LimitLevelTree side) {
+        List<String> queues = new ArrayList<>();
+        for (LimitLevel level = side.getRoot(); level != null; level = side.getNextLevel(level)) {
+            StringBuilder queue = new StringBuilder(level.getPrice() + " " + level.getSize() + ":");
+            for (Order order = level.getOrders().getHead(); order != null; order = order.getNextItem()) {
+                queue.append(' ').append(order.getUid()).append('x').append(order.getSize());
+            }
+            queues.add(queue.toString());
+        }
+        return queues;
+    }
+
+    private static void assertSameBook(LimitOrderBook expected, LimitOrderBook actual) {
+        assertEquals(queues(expected.getBids()), queues(actual.getBids()));
+        assertEquals(queues(expected.getAsks()), queues(actual.getAsks()));
+        assertEquals(expected.getOrders().size(), actual.getOrders().size());
+        expected.getOrders().forEach(order -> assertEquals(order.getSize(), actual.getOrders().get(order.getUid()).getSize()));
+        assertSame(actual.getBids().getRoot(), actual.getBestBid());
+        assertSame(actual.getAsks().getRoot(), actual.getBestAsk());
+    }
+
+    @Test
+    public void testRestoreKeepsQueuePriority() throws IOException {
+        Path path = Files.createTempFile("lob", ".snapshot");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            randomMessages(lob, new Random(3), 50_000);
+            lob.writeSnapshot(path, 42);
+
+            LimitOrderBook restored = new LimitOrderBook();
+            assertEquals(42, restored.restoreSnapshot(path));
+            assertSameBook(lob, restored);
+
+            // The restored book keeps processing like the original.
+            randomMessages(lob, new Random(4), 10_000);
+            randomMessages(restored, new Random(4), 10_000);
+            assertSameBook(lob, restored);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testFailedWriteKeepsPreviousSnapshot() throws IOException {
+        Path path = Files.createTempFile("lob", ".snapshot");
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            lob.process(new Order(1, true, 10, 100));
+            lob.writeSnapshot(path, 1);
+            lob.process(new Order(2, false, 5, 101));
+
+            // The new snapshot cannot be written, as a crash mid-write would leave it unfinished.
+            Files.createDirectory(temporary);
+            boolean failed = false;
+            try {
+                lob.writeSnapshot(path, 2);
+            } catch (IOException expected) {
+                failed = true;
+            }
+            assertTrue(failed);
+            assertFalse(Files.exists(temporary));
+            LimitOrderBook restored = new LimitOrderBook();
+            assertEquals(1, restored.restoreSnapshot(path));
+            assertEquals(1, restored.getOrders().size());
+
+            lob.writeSnapshot(path, 2);
+            assertFalse(Files.exists(temporary));
+            restored = new LimitOrderBook();
+            assertEquals(2, restored.restoreSnapshot(path));
+            assertSameBook(lob, restored);
+        } finally {
+            Files.deleteIfExists(temporary);
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testEmptyBook() throws IOException {
+        Path path = Files.createTempFile("lob", ".snapshot");
+        try {
+            new LimitOrderBook().writeSnapshot(path, 0);
+            LimitOrderBook restored = new LimitOrderBook();
+            assertEquals(0, restored.restoreSnapshot(path));
+            assertNull(restored.getBestBid());
+            assertEquals(0, restored.getOrders().size());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSnapshotAndJournalRestart() throws IOException {
+        Path journalPath = Files.createTempFile("lob", ".journal");
+        Path snapshotPath = Files.createTempFile("lob", ".snapshot");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            Random random = new Random(8);
+            try (Journal journal = new Journal(journalPath)) {
+                lob.setJournal(journal);
+                randomMessages(lob, random, 20_000);
+                lob.writeSnapshot(snapshotPath, journal.getSequence());
+                randomMessages(lob, random, 5_000);
+            }
+
+            LimitOrderBook restarted = new LimitOrderBook();
+            long sequence = restarted.restoreSnapshot(snapshotPath);
+            JournalReplay.replay(journalPath, restarted, sequence);
+            assertSameBook(lob, restarted);
+        } finally {
+            Files.delete(journalPath);
+            Files.delete(snapshotPath);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRestoreRequiresEmptyBook() throws IOException {
+        Path path = Files.createTempFile("lob", ".snapshot");
+        try {
+            new LimitOrderBook().writeSnapshot(path, 0);
+            LimitOrderBook lob = new LimitOrderBook();
+            lob.process(new Order(1, true, 10, 100));
+            lob.restoreSnapshot(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path path = Files.createTempFile("lob", ".snapshot");
+        try {
+            Files.write(path, new byte[64]);
+            new LimitOrderBook().restoreSnapshot(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
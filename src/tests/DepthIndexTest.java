@@ -0,0 +1,240 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.limits.DepthIndex;
+import main.limits.LadderLimitLevelTree;
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+import main.order.Order;
+import main.order.OrderMessage;
+import main.order.OrderType;
+
+public class DepthIndexTest {
+
+    /**
+     * Checks every query of both sides against a level-by-level walk of the book.
+     */
+    private static void assertMatchesWalk(LimitOrderBook lob, long lowPrice, long highPrice) {
+        for (boolean isBid : new boolean[] { true, false }) {
+            LimitLevelTree side = isBid ? lob.getBids() : lob.getAsks();
+            DepthIndex index = lob.getDepthIndex(isBid);
+            long totalSize = 0;
+            long totalNotional = 0;
+            for (LimitLevel level = side.getRoot(); level != null; level = side.getNextLevel(level)) {
+                totalSize += level.getSize();
+                totalNotional += level.getVolume();
+            }
+            assertEquals(totalSize, index.getTotalSize());
+            assertEquals(totalNotional, index.getTotalNotional());
+            for (long price = lowPrice; price <= highPrice; price++) {
+                long size = 0;
+                long notional = 0;
+                for (LimitLevel level = side.getRoot(); level != null
+                        && (isBid ? level.getPrice() >= price : level.getPrice() <= price); level = side.getNextLevel(level)) {
+                    size += level.getSize();
+                    notional += level.getVolume();
+                }
+                assertEquals(size, index.getSizeUpTo(price));
+                assertEquals(notional, index.getNotionalUpTo(price));
+            }
+            long cumulative = 0;
+            long notional = 0;
+            for (LimitLevel level = side.getRoot(); level != null; level = side.getNextLevel(level)) {
+                // The first and the last lot of each level are reached at its price.
+                assertEquals(level.getPrice(), index.getPriceForSize(cumulative + 1));
+                assertEquals(notional + level.getPrice(), index.getNotionalForSize(cumulative + 1));
+                cumulative += level.getSize();
+                notional += level.getVolume();
+                assertEquals(level.getPrice(), index.getPriceForSize(cumulative));
+                assertEquals(notional, index.getNotionalForSize(cumulative));
+            }
+            assertEquals(DepthIndex.NO_PRICE, index.getPriceForSize(cumulative + 1));
+            assertEquals(-1, index.getNotionalForSize(cumulative + 1));
+        }
+    }
+
+    @Test
+    public void testQueries() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setDepthIndexing(true);
+        lob.process(new Order(1, false, 10, 101));
+        lob.process(new Order(2, false, 20, 103));
+        lob.process(new Order(3, false, 5, 103));
+        lob.process(new Order(4, true, 7, 99));
+        DepthIndex asks = lob.getDepthIndex(false);
+        assertEquals(0, asks.getSizeUpTo(100));
+        assertEquals(10, asks.getSizeUpTo(102));
+        assertEquals(35, asks.getSizeUpTo(Long.MAX_VALUE));
+        assertEquals(10 * 101 + 25 * 103, asks.getNotionalUpTo(103));
+        assertEquals(101, asks.getPriceForSize(10));
+        assertEquals(103, asks.getPriceForSize(11));
+        assertEquals(DepthIndex.NO_PRICE, asks.getPriceForSize(36));
+        assertEquals(10 * 101 + 5 * 103, asks.getNotionalForSize(15));
+        assertEquals(7, lob.getDepthIndex(true).getSizeUpTo(Long.MIN_VALUE));
+        assertEquals(0, lob.getDepthIndex(true).getSizeUpTo(100));
+
+        // Matching, updates and cancels keep the index in step.
+        lob.process(new Order(5, true, 12, 103));
+        lob.process(new Order(3, false, 1, 103));
+        lob.process(new Order(4, true, 0, 99));
+        assertEquals(19, asks.getSizeUpTo(103));
+        assertEquals(103, asks.getPriceForSize(1));
+        assertEquals(0, lob.getDepthIndex(true).getTotalSize());
+    }
+
+    @Test
+    public void testRandomStreamAcrossRecentres() {
+        for (boolean ladder : new boolean[] { false, true }) {
+            LimitOrderBook lob = ladder ? new LimitOrderBook(new LadderLimitLevelTree(true, 16),
+                    new LadderLimitLevelTree(false, 16)) : new LimitOrderBook();
+            lob.setDepthIndexing(true);
+            OrderMessage message = new OrderMessage();
+            Random random = new Random(3);
+            long nextUid = 1;
+            long mid = 10_000;
+            for (int i = 0; i < 20_000; i++) {
+                // The mid drifts far enough to move the window many times.
+                mid += random.nextInt(3) - 1;
+                int action = random.nextInt(10);
+                if (action < 6 || nextUid < 10) {
+                    boolean isBid = random.nextBoolean();
+                    message.set(nextUid++, isBid, 1 + random.nextInt(50),
+                            (isBid ? mid - 2 : mid + 2) + random.nextInt(41) - 20);
+                    if (action == 0) {
+                        message.setType(OrderType.FILL_OR_KILL);
+                    }
+                } else {
+                    long uid = nextUid - 1 - random.nextInt((int) Math.min(nextUid - 1, 300));
+                    message.set(uid, random.nextBoolean(), action < 8 ? 0 : 1 + random.nextInt(50), 0);
+                }
+                lob.process(message);
+                if (i % 1_000 == 0) {
+                    assertMatchesWalk(lob, mid - 40, mid + 40);
+                }
+            }
+            assertMatchesWalk(lob, mid - 40, mid + 40);
+        }
+    }
+
+    @Test
+    public void testFarPricesGrowTheWindow() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setDepthIndexing(true);
+        lob.process(new Order(1, false, 10, 1_000));
+        lob.process(new Order(2, false, 10, 1_000 + 5_000));
+        lob.process(new Order(3, false, 10, 1_000 - 3_000));
+        DepthIndex asks = lob.getDepthIndex(false);
+        assertEquals(16384, asks.getCapacity()); // Covers ticks -2000 to 6000 with half the window free
+        assertEquals(20, asks.getSizeUpTo(1_000));
+        assertEquals(6_000, asks.getPriceForSize(21));
+        assertMatchesWalk(lob, -3_000, 7_000);
+    }
+
+    @Test
+    public void testTrendingPricesRebuildRarely() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setDepthIndexing(true);
+        // A thousand levels trail a price rising one tick at a time, nearly filling the initial window.
+        int levels = 1_000;
+        int steps = 100_000;
+        for (int uid = 0; uid < steps; uid++) {
+            lob.process(new Order(uid, false, 1, 10_000 + uid));
+            if (uid >= levels) {
+                lob.process(new Order(uid - levels, false, 0, 0));
+            }
+        }
+        DepthIndex asks = lob.getDepthIndex(false);
+        assertEquals(2048, asks.getCapacity());
+        // Each rebuild leaves hundreds of free ticks ahead of the trend rather than a handful.
+        assertTrue("rebuilds: " + asks.getRebuildCount(), asks.getRebuildCount() < steps / 500);
+        assertEquals(levels, asks.getTotalSize());
+        assertEquals(10_000 + steps - levels, asks.getPriceForSize(1));
+        assertEquals(10_000 + steps - 1, asks.getPriceForSize(levels));
+    }
+
+    @Test
+    public void testOutlyingPricesKeepTheWindowBounded() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setDepthIndexing(true);
+        lob.process(new Order(1, false, 10, 1_000));
+        lob.process(new Order(2, false, 5, 1_000 + (1L << 40)));
+        lob.process(new Order(3, false, 7, -(1L << 40)));
+        lob.process(new Order(4, false, 3, 1_001));
+        DepthIndex asks = lob.getDepthIndex(false);
+        assertEquals(DepthIndex.DEFAULT_CAPACITY, asks.getCapacity());
+        assertEquals(2, asks.getOutlierCount());
+        assertEquals(25, asks.getTotalSize());
+        assertEquals(7, asks.getSizeUpTo(0));
+        assertEquals(20, asks.getSizeUpTo(1_001));
+        assertEquals(-(1L << 40), asks.getPriceForSize(7));
+        assertEquals(1_000, asks.getPriceForSize(8));
+        assertEquals(1_000 + (1L << 40), asks.getPriceForSize(21));
+        assertEquals(-7 * (1L << 40) + 10_000 + 3_003, asks.getNotionalUpTo(1_001));
+        assertEquals(-7 * (1L << 40) + 10_000, asks.getNotionalForSize(17));
+
+        // Once the near levels go, an outlier is folded into the recentred window.
+        lob.process(new Order(1, false, 0, 1_000));
+        lob.process(new Order(4, false, 0, 1_000));
+        lob.process(new Order(3, false, 0, 0));
+        lob.process(new Order(5, false, 1, 1_000 + (1L << 40) + 1));
+        assertEquals(0, asks.getOutlierCount());
+        assertEquals(1_000 + (1L << 40), asks.getPriceForSize(5));
+        assertEquals(5 * (1_000 + (1L << 40)), asks.getNotionalForSize(5));
+        assertEquals(2, lob.getOrders().size());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testNotionalOverflowIsReported() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setDepthIndexing(true);
+        lob.process(new Order(1, true, 1, Long.MAX_VALUE / 2));
+        DepthIndex bids = lob.getDepthIndex(true);
+        assertEquals(Long.MAX_VALUE / 2, bids.getTotalNotional());
+        // The notional of 4 lots at that price does not fit in a long, but the update still applies.
+        lob.process(new Order(1, true, 4, Long.MAX_VALUE / 2));
+        assertEquals(4, bids.getTotalSize());
+        assertEquals(Long.MAX_VALUE / 2, bids.getPriceForSize(4));
+        bids.getTotalNotional();
+    }
+
+    @Test
+    public void testToggleAndRestore() throws Exception {
+        LimitOrderBook lob = new LimitOrderBook();
+        for (int i = 0; i < 50; i++) {
+            lob.process(new Order(1 + i, i % 2 == 0, 1 + i, i % 2 == 0 ? 100 - i : 101 + i));
+        }
+        assertNull(lob.getDepthIndex(true));
+        lob.setDepthIndexing(true);
+        assertMatchesWalk(lob, 40, 160);
+        lob.setDepthIndexing(false);
+        assertNull(lob.getDepthIndex(false));
+        // Detached levels no longer report to the dropped index.
+        lob.process(new Order(1, true, 3, 100));
+        lob.setDepthIndexing(true);
+        assertMatchesWalk(lob, 40, 160);
+        assertEquals(ProcessResult.KILLED, lob.process(new OrderMessage().set(500, true, 10_000, 200)
+                .setType(OrderType.FILL_OR_KILL)));
+
+        Path file = Files.createTempFile("depth", ".snap");
+        try {
+            lob.writeSnapshot(file, 0);
+            LimitOrderBook restored = new LimitOrderBook();
+            restored.setDepthIndexing(true);
+            restored.restoreSnapshot(file);
+            assertMatchesWalk(restored, 40, 160);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
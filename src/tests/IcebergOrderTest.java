@@ -0,0 +1,184 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.event.OrderBookListener;
+import main.event.TradeEvent;
+import main.journal.Journal;
+import main.journal.JournalReplay;
+import main.journal.JournalSync;
+import main.limits.LimitLevel;
+import main.order.Order;
+import main.order.OrderMessage;
+import main.order.OrderType;
+import main.replay.BookChecksum;
+
+public class IcebergOrderTest {
+
+    @Test
+    public void testRestsWithDisplayedAndHiddenSize() {
+        LimitOrderBook lob = new LimitOrderBook();
+        assertEquals(ProcessResult.ADDED, lob.process(new OrderMessage().set(1, false, 100, 101).setDisplaySize(10)));
+        lob.process(new Order(2, false, 5, 101));
+        LimitLevel level = lob.getBestAsk();
+        assertEquals(15, level.getSize());
+        assertEquals(90, level.getHiddenSize());
+        assertEquals(105, level.getTotalSize());
+        Order iceberg = lob.getOrders().get(1);
+        assertEquals(10, iceberg.getSize());
+        assertEquals(90, iceberg.getHiddenSize());
+        assertEquals(10, iceberg.getDisplaySize());
+
+        // An iceberg no larger than its display size is shown in full.
+        lob.process(new OrderMessage().set(3, false, 8, 102).setDisplaySize(10));
+        assertEquals(8, lob.getAsks().getLevel(102).getSize());
+        assertEquals(0, lob.getAsks().getLevel(102).getHiddenSize());
+        assertEquals(ProcessResult.REJECTED, lob.process(new OrderMessage().set(4, false, 8, 102).setDisplaySize(-1)));
+    }
+
+    @Test
+    public void testReplenishesAndLosesPriority() {
+        LimitOrderBook lob = new LimitOrderBook();
+        List<String> trades = new ArrayList<>();
+        lob.setListener(new OrderBookListener() {
+            @Override
+            public void onTrade(TradeEvent event) {
+                trades.add(event.getPassiveUid() + ":" + event.getSize() + ":" + event.getPassiveRemaining());
+            }
+        });
+        OrderMessage message = new OrderMessage();
+        lob.process(message.set(1, false, 25, 101).setDisplaySize(10));
+        lob.process(message.set(2, false, 5, 101));
+        LimitLevel level = lob.getBestAsk();
+
+        // The tip trades in full, is replenished from the reserve and queues behind order 2.
+        lob.process(message.set(3, true, 10, 101));
+        assertEquals(List.of("1:10:15"), trades);
+        assertEquals(2, level.getOrders().getHead().getUid());
+        assertSame(lob.getOrders().get(1), level.getOrders().getTail());
+        assertEquals(15, level.getSize());
+        assertEquals(5, level.getHiddenSize());
+
+        // One aggressor trades order 2, then every replenishment of order 1 in the same pass.
+        trades.clear();
+        assertEquals(ProcessResult.FILLED, lob.process(message.set(4, true, 20, 101)));
+        assertEquals(List.of("2:5:0", "1:10:5", "1:5:0"), trades);
+        assertNull(lob.getOrders().get(1));
+        assertNull(lob.getBestAsk());
+        assertEquals(0, lob.getAsks().getSize());
+    }
+
+    @Test
+    public void testIncomingIcebergMatchesFullSize() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.process(new Order(1, false, 30, 101));
+        Order iceberg = new Order(2, true, 50, 101);
+        iceberg.setDisplaySize(5);
+        assertEquals(ProcessResult.PARTIALLY_FILLED, lob.process(iceberg));
+        assertSame(iceberg, lob.getOrders().get(2));
+        assertEquals(5, iceberg.getSize());
+        assertEquals(15, iceberg.getHiddenSize());
+        assertEquals(5, lob.getBestBid().getSize());
+        assertEquals(20, lob.getBestBid().getTotalSize());
+    }
+
+    @Test
+    public void testUpdateAndCancel() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setDepthIndexing(true);
+        lob.process(new OrderMessage().set(1, true, 50, 99).setDisplaySize(10));
+        assertEquals(50, lob.getDepthIndex(true).getSizeUpTo(99));
+
+        // The new size is the total size; the displayed part is kept while it fits.
+        assertEquals(ProcessResult.UPDATED, lob.process(new OrderMessage().set(1, true, 30, 99)));
+        assertEquals(10, lob.getBestBid().getSize());
+        assertEquals(20, lob.getBestBid().getHiddenSize());
+        lob.process(new OrderMessage().set(1, true, 4, 99));
+        assertEquals(4, lob.getBestBid().getSize());
+        assertEquals(0, lob.getBestBid().getHiddenSize());
+        lob.process(new OrderMessage().set(1, true, 40, 99));
+        assertEquals(4, lob.getBestBid().getSize());
+        assertEquals(36, lob.getBestBid().getHiddenSize());
+        assertEquals(40, lob.getDepthIndex(true).getTotalSize());
+
+        // Fill-or-kill feasibility counts hidden size, with and without the depth index.
+        for (boolean indexed : new boolean[] { true, false }) {
+            lob.setDepthIndexing(indexed);
+            assertEquals(ProcessResult.KILLED, lob.process(new OrderMessage().set(2, false, 41, 99)
+                    .setType(OrderType.FILL_OR_KILL)));
+        }
+        assertEquals(ProcessResult.FILLED, lob.process(new OrderMessage().set(2, false, 12, 99)
+                .setType(OrderType.FILL_OR_KILL)));
+        // 4 displayed lots trade, 10 are replenished from the reserve and 8 of those trade.
+        assertEquals(2, lob.getBestBid().getSize());
+        assertEquals(26, lob.getBestBid().getHiddenSize());
+
+        assertEquals(ProcessResult.CANCELLED, lob.process(new OrderMessage().set(1, true, 0, 99)));
+        assertNull(lob.getBestBid());
+    }
+
+    @Test
+    public void testJournalAndSnapshotKeepIcebergs() throws Exception {
+        Path journalPath = Files.createTempFile("iceberg", ".journal");
+        Path snapshotPath = Files.createTempFile("iceberg", ".snap");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            try (Journal journal = new Journal(journalPath, JournalSync.NONE, 64, 1_000)) {
+                lob.setJournal(journal);
+                OrderMessage message = new OrderMessage();
+                Random random = new Random(17);
+                for (int uid = 1; uid <= 20_000; uid++) {
+                    boolean isBid = random.nextBoolean();
+                    message.set(uid, isBid, 1 + random.nextInt(100), (isBid ? 995 : 1005) + random.nextInt(31) - 15);
+                    if (random.nextInt(3) == 0) {
+                        message.setDisplaySize(1 + random.nextInt(10));
+                    }
+                    lob.process(message);
+                }
+            }
+            LimitOrderBook replayed = new LimitOrderBook();
+            JournalReplay.replay(journalPath, replayed);
+            assertBooksEqual(lob, replayed);
+
+            lob.writeSnapshot(snapshotPath, 0);
+            LimitOrderBook restored = new LimitOrderBook();
+            restored.restoreSnapshot(snapshotPath);
+            assertBooksEqual(lob, restored);
+        } finally {
+            Files.delete(journalPath);
+            Files.delete(snapshotPath);
+        }
+    }
+
+    private static void assertBooksEqual(LimitOrderBook expected, LimitOrderBook actual) {
+        assertEquals(BookChecksum.of(expected), BookChecksum.of(actual));
+        for (boolean isBid : new boolean[] { true, false }) {
+            LimitLevel level = isBid ? expected.getBestBid() : expected.getBestAsk();
+            LimitLevel other = isBid ? actual.getBestBid() : actual.getBestAsk();
+            for (; level != null; level = (isBid ? expected.getBids() : expected.getAsks()).getNextLevel(level),
+                    other = (isBid ? actual.getBids() : actual.getAsks()).getNextLevel(other)) {
+                assertEquals(level.getHiddenSize(), other.getHiddenSize());
+                Order order = level.getOrders().getHead();
+                Order copy = other.getOrders().getHead();
+                for (; order != null; order = order.getNextItem(), copy = copy.getNextItem()) {
+                    assertEquals(order.getUid(), copy.getUid());
+                    assertEquals(order.getHiddenSize(), copy.getHiddenSize());
+                    assertEquals(order.getDisplaySize(), copy.getDisplaySize());
+                }
+            }
+            assertNull(other);
+        }
+    }
+}
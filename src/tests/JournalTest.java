@@ -0,0 +1,136 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.journal.Journal;
+import main.journal.JournalReader;
+import main.journal.JournalReplay;
+import main.journal.JournalSync;
+import main.limits.LimitLevel;
+import main.order.Order;
+import main.order.OrderMessage;
+
+public class JournalTest {
+
+    @Test
+    public void testReplayRebuildsBook() throws IOException {
+        Path path = Files.createTempFile("lob", ".journal");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            long journaled = 0;
+            // A small region makes the journal map many regions.
+            try (Journal journal = new Journal(path, JournalSync.BATCH, 64, 100)) {
+                lob.setJournal(journal);
+                OrderMessage message = new OrderMessage();
+                Random random = new Random(5);
+                long nextUid = 1;
+                for (int i = 0; i < 20_000; i++) {
+                    int action = random.nextInt(10);
+                    if (action < 6 || nextUid < 10) {
+                        boolean isBid = random.nextBoolean();
+                        message.set(nextUid++, isBid, 1 + random.nextInt(50),
+                                (isBid ? 995 : 1005) + random.nextInt(21) - 10);
+                    } else {
+                        long uid = nextUid - 1 - random.nextInt((int) Math.min(nextUid - 1, 500));
+                        message.set(uid, random.nextBoolean(), action < 8 ? 0 : 1 + random.nextInt(50), 1000);
+                    }
+                    if (lob.process(message) != ProcessResult.REJECTED) {
+                        journaled++;
+                    }
+                }
+                assertEquals(journaled, journal.getSequence());
+            }
+
+            LimitOrderBook replayed = new LimitOrderBook();
+            assertEquals(journaled, JournalReplay.replay(path, replayed));
+            assertEquals(lob.getOrders().size(), replayed.getOrders().size());
+            for (boolean isBid : new boolean[] { true, false }) {
+                assertEquals((isBid ? lob.getBids() : lob.getAsks()).getSize(),
+                        (isBid ? replayed.getBids() : replayed.getAsks()).getSize());
+                for (long price = 980; price <= 1020; price++) {
+                    LimitLevel level = (isBid ? lob.getBids() : lob.getAsks()).getLevel(price);
+                    LimitLevel other = (isBid ? replayed.getBids() : replayed.getAsks()).getLevel(price);
+                    assertEquals(level == null ? 0 : level.getSize(), other == null ? 0 : other.getSize());
+                    assertEquals(level == null ? 0 : level.getLength(), other == null ? 0 : other.getLength());
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testReopenContinuesSequence() throws IOException {
+        Path path = Files.createTempFile("lob", ".journal");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            try (Journal journal = new Journal(path, JournalSync.EVERY_RECORD, 1, 2)) {
+                lob.setJournal(journal);
+                lob.process(new Order(1, true, 10, 100));
+                lob.process(new Order(2, true, 0, 100)); // Rejected, not journaled
+                lob.process(new Order(3, false, 4, 100));
+            }
+            try (Journal journal = new Journal(path, JournalSync.NONE, 1, 2)) {
+                assertEquals(2, journal.getSequence());
+                lob.setJournal(journal);
+                lob.process(new Order(1, true, 0, 100));
+                assertEquals(3, journal.getSequence());
+            }
+
+            List<String> records = new ArrayList<>();
+            long before = System.currentTimeMillis() * 1_000_000;
+            assertEquals(3, JournalReader.read(path, (sequence, timestamp, uid, isBid, size, price) -> {
+                assertTrue(timestamp > 0 && timestamp <= before + 1_000_000_000L);
+                records.add(sequence + " " + uid + " " + isBid + " " + size + " " + price);
+            }));
+            assertEquals(List.of("1 1 true 10 100", "2 3 false 4 100", "3 1 true 0 100"), records);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testTornRecordEndsJournal() throws IOException {
+        Path path = Files.createTempFile("lob", ".journal");
+        try {
+            try (Journal journal = new Journal(path, JournalSync.EVERY_RECORD, 1, 64)) {
+                for (long uid = 1; uid <= 3; uid++) {
+                    journal.append(uid, true, 10, 100);
+                }
+            }
+            // A crash kept the last record's sequence but lost its price.
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES), 2 * Journal.RECORD_SIZE + 24);
+            }
+            List<Long> uids = new ArrayList<>();
+            assertEquals(2, JournalReader.read(path, (sequence, timestamp, uid, isBid, size, price) -> uids.add(uid)));
+            assertEquals(List.of(1L, 2L), uids);
+
+            // Reopening continues after the last whole record, overwriting the torn one.
+            try (Journal journal = new Journal(path, JournalSync.NONE, 1, 64)) {
+                assertEquals(2, journal.getSequence());
+                assertEquals(3, journal.append(4, false, 5, 101));
+            }
+            uids.clear();
+            assertEquals(3, JournalReader.read(path, (sequence, timestamp, uid, isBid, size, price) -> uids.add(uid)));
+            assertEquals(List.of(1L, 2L, 4L), uids);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.metrics.LatencyHistogram;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean(), 1e-9);
+        for (double percentile : new double[] { 1, 50, 90, 99, 99.9 }) {
+            long exact = (long) Math.ceil(percentile * 1_000);
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported, reported >= exact && reported <= exact + exact / 64 + 1);
+        }
+        assertEquals(100_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testExtremesAndMerge() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(100);
+        histogram.add(other);
+        assertEquals(3, histogram.getCount());
+        assertEquals(100, histogram.getValueAtPercentile(60));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+}
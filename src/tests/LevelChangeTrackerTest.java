@@ -0,0 +1,85 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.marketdata.LevelChangeTracker;
+import main.order.Order;
+
+public class LevelChangeTrackerTest {
+
+    private static List<String> drain(LimitOrderBook lob) {
+        List<String> deltas = new ArrayList<>();
+        int emitted = lob.drainChangedLevels((action, isBid, price, size, orderCount) ->
+                deltas.add(action + " " + (isBid ? "bid" : "ask") + " " + price + " " + size + " " + orderCount));
+        assertEquals(deltas.size(), emitted);
+        return deltas;
+    }
+
+    @Test
+    public void testCreatedChangedDeleted() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setLevelTracking(true);
+        lob.process(new Order(1, true, 10, 100));
+        lob.process(new Order(2, false, 5, 105));
+        assertEquals(List.of("CREATED bid 100 10 1", "CREATED ask 105 5 1"), drain(lob));
+        assertEquals(List.of(), drain(lob));
+
+        // Several changes to one level collapse into a single delta.
+        lob.process(new Order(3, true, 5, 100));
+        lob.process(new Order(1, true, 4, 100));
+        assertEquals(List.of("CHANGED bid 100 9 2"), drain(lob));
+
+        // A sell that sweeps the bid level deletes it and rests its remainder on a new ask level.
+        lob.process(new Order(4, false, 12, 100));
+        assertEquals(List.of("DELETED bid 100 0 0", "CREATED ask 100 3 1"), drain(lob));
+    }
+
+    @Test
+    public void testNetZeroChangesAreSuppressed() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.process(new Order(1, true, 10, 100));
+        lob.setLevelTracking(true);
+
+        // A level created and emptied within a cycle, and an add cancelled again, leave nothing to publish.
+        lob.process(new Order(2, true, 5, 99));
+        lob.process(new Order(2, true, 0, 99));
+        lob.process(new Order(3, true, 5, 100));
+        lob.process(new Order(3, true, 0, 100));
+        assertEquals(List.of(), drain(lob));
+
+        // A level deleted and recreated within a cycle is reported once, as a change.
+        lob.process(new Order(1, true, 0, 100));
+        lob.process(new Order(4, true, 7, 100));
+        assertEquals(List.of("CHANGED bid 100 7 1"), drain(lob));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDrainRequiresTracking() {
+        new LimitOrderBook().drainChangedLevels((action, isBid, price, size, orderCount) -> { });
+    }
+
+    @Test
+    public void testTrackerGrowsPastCapacity() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setLevelTracking(true);
+        for (int i = 0; i < 1000; i++) {
+            lob.process(new Order(i + 1, i % 2 == 0, 1, i % 2 == 0 ? 1000 - i : 2000 + i));
+        }
+        assertEquals(1000, drain(lob).size());
+
+        LevelChangeTracker tracker = new LevelChangeTracker(1);
+        tracker.markCreated(true, 1);
+        tracker.markCreated(true, 1);
+        tracker.markCreated(false, 1);
+        tracker.markCreated(true, -1);
+        assertEquals(3, tracker.getPendingCount());
+        tracker.clear();
+        assertEquals(0, tracker.getPendingCount());
+    }
+}
@@ -0,0 +1,160 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.limits.LadderLimitLevelTree;
+import main.limits.LimitLevel;
+import main.limits.LimitLevelTree;
+import main.limits.TreeMapLimitLevelTree;
+import main.order.Order;
+
+public class LimitLevelTreeTest {
+
+    private static LimitLevel level(long price) {
+        return new LimitLevel(new Order(price, true, 1, price));
+    }
+
+    private void checkBestLevelOrdering(LimitLevelTree bids, LimitLevelTree asks) {
+        for (long price : new long[] { 100, 98, 101, 99 }) {
+            bids.insert(level(price));
+            asks.insert(level(price));
+        }
+        assertEquals(4, bids.getSize());
+        assertEquals(101, bids.getRoot().getPrice());
+        assertEquals(98, asks.getRoot().getPrice());
+        assertEquals(100, bids.getNextLevel(bids.getRoot()).getPrice());
+        assertEquals(99, asks.getNextLevel(asks.getRoot()).getPrice());
+        assertEquals(98, bids.getNextLevel(bids.getLevel(99)).getPrice());
+        assertNull(bids.getNextLevel(bids.getLevel(98)));
+        assertNull(asks.getNextLevel(asks.getLevel(101)));
+
+        bids.removeLimitLevel(101);
+        asks.removeLimitLevel(98);
+        assertEquals(100, bids.getRoot().getPrice());
+        assertEquals(99, asks.getRoot().getPrice());
+        assertNull(bids.getLevel(101));
+        assertNull(bids.removeLimitLevel(101));
+        assertEquals(99, bids.getLevel(99).getPrice());
+
+        for (long price : new long[] { 100, 99, 98 }) {
+            bids.removeLimitLevel(price);
+        }
+        assertEquals(0, bids.getSize());
+        assertNull(bids.getRoot());
+    }
+
+    @Test
+    public void testTreeMapOrdering() {
+        checkBestLevelOrdering(new TreeMapLimitLevelTree(true), new TreeMapLimitLevelTree(false));
+    }
+
+    @Test
+    public void testLadderOrdering() {
+        checkBestLevelOrdering(new LadderLimitLevelTree(true), new LadderLimitLevelTree(false));
+    }
+
+    @Test
+    public void testLadderRecentresAndGrows() {
+        LadderLimitLevelTree asks = new LadderLimitLevelTree(false, 8);
+
+        // Walking the market up through many multiples of the capacity only reuses the ring.
+        for (int price = 0; price < 1000; price++) {
+            asks.insert(level(price));
+            if (price > 0) {
+                asks.removeLimitLevel(price - 1);
+            }
+            assertEquals(price, asks.getRoot().getPrice());
+        }
+        assertEquals(8, asks.getCapacity());
+
+        // A level outside the covered range forces the ring to grow.
+        asks.insert(level(1020));
+        assertEquals(32, asks.getCapacity());
+        assertEquals(2, asks.getSize());
+        assertEquals(999, asks.getRoot().getPrice());
+        asks.removeLimitLevel(999);
+        assertEquals(1020, asks.getRoot().getPrice());
+    }
+
+    @Test
+    public void testLadderKeepsFarLevelsInFallback() {
+        for (boolean isBid : new boolean[] { true, false }) {
+            LadderLimitLevelTree side = new LadderLimitLevelTree(isBid, 8);
+            long far = 1L << 40;
+            for (long price : new long[] { 100, 103, -far, 101, far, Long.MAX_VALUE, Long.MIN_VALUE + 1 }) {
+                side.insert(level(price));
+            }
+            assertEquals(7, side.getSize());
+            assertEquals(4, side.getFallbackSize());
+            assertEquals(8, side.getCapacity());
+            long[] expected = { Long.MIN_VALUE + 1, -far, 100, 101, 103, far, Long.MAX_VALUE };
+            LimitLevel level = side.getRoot();
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[isBid ? expected.length - 1 - i : i], level.getPrice());
+                level = side.getNextLevel(level);
+            }
+            assertNull(level);
+            assertEquals(far, side.getLevel(far).getPrice());
+            assertNull(side.getLevel(far + 1));
+
+            // Once the ring empties, a level near a fallback price brings it back into the ring.
+            for (long price : new long[] { 100, 101, 103 }) {
+                side.removeLimitLevel(price);
+            }
+            assertEquals(isBid ? Long.MAX_VALUE : Long.MIN_VALUE + 1, side.getRoot().getPrice());
+            side.insert(level(far + 2));
+            side.insert(level(far - 2));
+            assertEquals(3, side.getFallbackSize());
+            assertEquals(far, side.getNextLevel(side.getLevel(isBid ? far + 2 : far - 2)).getPrice());
+            assertEquals(far, side.removeLimitLevel(far).getPrice());
+            assertEquals(5, side.getSize());
+        }
+    }
+
+    @Test
+    public void testLadderSkipsWideGaps() {
+        LadderLimitLevelTree bids = new LadderLimitLevelTree(true, 1 << 16);
+        for (long price : new long[] { 5, 70, 200, 60_000 }) {
+            bids.insert(level(price));
+        }
+        assertEquals(200, bids.getNextLevel(bids.getRoot()).getPrice());
+        assertEquals(70, bids.getNextLevel(bids.getLevel(200)).getPrice());
+        assertEquals(5, bids.getNextLevel(bids.getLevel(70)).getPrice());
+        bids.removeLimitLevel(60_000);
+        bids.removeLimitLevel(5);
+        assertEquals(200, bids.getRoot().getPrice());
+        assertEquals(70, bids.getNextLevel(bids.getRoot()).getPrice());
+        assertNull(bids.getNextLevel(bids.getLevel(70)));
+    }
+
+    @Test
+    public void testLadderBookSurvivesFarPrices() {
+        LimitOrderBook lob = new LimitOrderBook(new LadderLimitLevelTree(true), new LadderLimitLevelTree(false));
+        lob.process(new Order(1, false, 5, 100));
+        lob.process(new Order(2, false, 5, 1L << 40));
+        lob.process(new Order(3, true, 8, 1L << 40));
+        assertEquals(1, lob.getOrders().size());
+        assertNull(lob.getBestBid());
+        assertEquals(2, lob.getBestAsk().getSize());
+        assertEquals(1L << 40, lob.getBestAsk().getPrice());
+    }
+
+    @Test
+    public void testLadderBackedBookMatches() {
+        LimitOrderBook lob = new LimitOrderBook(new LadderLimitLevelTree(true), new LadderLimitLevelTree(false));
+        lob.process(new Order(1, true, 3, 90));
+        lob.process(new Order(2, true, 15, 100));
+        lob.process(new Order(3, false, 22, 100));
+        lob.process(new Order(4, false, 5, 300));
+
+        assertEquals(90, lob.getBestBid().getPrice());
+        assertEquals(100, lob.getBestAsk().getPrice());
+        assertEquals(7, lob.getBestAsk().getSize());
+        assertEquals(2, lob.getAsks().getSize());
+        assertEquals(95.0, lob.getMidPrice(), 0);
+    }
+}
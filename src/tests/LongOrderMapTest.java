@@ -0,0 +1,64 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.order.LongOrderMap;
+import main.order.Order;
+
+public class LongOrderMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        LongOrderMap map = new LongOrderMap();
+        Order order = new Order(7, true, 5, 100);
+        assertNull(map.put(7, order));
+        assertSame(order, map.get(7));
+        assertTrue(map.containsKey(7));
+        assertFalse(map.containsKey(8));
+
+        Order replacement = new Order(7, true, 6, 100);
+        assertSame(order, map.put(7, replacement));
+        assertEquals(1, map.size());
+
+        assertSame(replacement, map.remove(7));
+        assertNull(map.remove(7));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        // Keys from a small range force long probe runs, wrap-around and backward shifting on removal.
+        LongOrderMap map = new LongOrderMap(4);
+        Map<Long, Order> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long uid = random.nextInt(5_000) - 2_500;
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(uid), map.remove(uid));
+            } else {
+                Order order = new Order(uid, true, 1, 1);
+                assertSame(expected.put(uid, order), map.put(uid, order));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long uid = -2_500; uid < 2_500; uid++) {
+            assertSame(expected.get(uid), map.get(uid));
+        }
+        int[] visited = new int[1];
+        map.forEach(order -> {
+            assertSame(expected.get(order.getUid()), order);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+}
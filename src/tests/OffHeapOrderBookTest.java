@@ -0,0 +1,147 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.limits.LimitLevel;
+import main.offheap.OffHeapOrderBook;
+import main.order.OrderClock;
+import main.order.OrderMessage;
+import main.order.OrderType;
+
+public class OffHeapOrderBookTest {
+
+    @Test
+    public void testBasicQueries() {
+        OffHeapOrderBook book = new OffHeapOrderBook(16, 50, 150);
+        OrderMessage message = new OrderMessage();
+        assertEquals(ProcessResult.ADDED, book.process(message.set(1, true, 3, 90)));
+        assertEquals(ProcessResult.ADDED, book.process(message.set(2, true, 15, 100)));
+        assertEquals(ProcessResult.PARTIALLY_FILLED, book.process(message.set(3, false, 22, 100)));
+        assertEquals(ProcessResult.ADDED, book.process(message.set(4, false, 5, 300 - 160)));
+
+        assertEquals(90, book.getBestBidPrice());
+        assertEquals(100, book.getBestAskPrice());
+        assertEquals(7, book.getLevelSize(false, 100));
+        assertEquals(1, book.getLevelOrderCount(false, 100));
+        assertEquals(2, book.getLevelCount(false));
+        assertEquals(95.0, book.getMidPrice(), 0);
+        assertEquals(3, book.getOrderCount());
+        assertEquals(7, book.getOrderSize(3));
+        assertEquals(100, book.getOrderPrice(3));
+
+        long[] prices = new long[4];
+        long[] sizes = new long[4];
+        int[] counts = new int[4];
+        assertEquals(2, book.getLevels(false, prices, sizes, counts));
+        assertEquals(100, prices[0]);
+        assertEquals(140, prices[1]);
+        assertEquals(5, sizes[1]);
+
+        assertEquals(ProcessResult.REJECTED, book.process(message.set(5, true, 1, 151)));
+        assertEquals(ProcessResult.CANCELLED, book.process(message.set(1, true, 0, 90)));
+        assertEquals(OffHeapOrderBook.NO_PRICE, book.getBestBidPrice());
+    }
+
+    @Test
+    public void testImmediateOrders() {
+        OffHeapOrderBook book = new OffHeapOrderBook(16, 50, 150);
+        OrderMessage message = new OrderMessage();
+        book.process(message.set(1, false, 5, 100));
+        book.process(message.set(2, false, 5, 102));
+        assertEquals(ProcessResult.KILLED, book.process(message.set(3, true, 11, 102).setType(OrderType.FILL_OR_KILL)));
+        assertEquals(10, book.getLevelSize(false, 100) + book.getLevelSize(false, 102));
+        assertEquals(ProcessResult.EXPIRED,
+                book.process(message.set(4, true, 7, 101).setType(OrderType.IMMEDIATE_OR_CANCEL)));
+        assertEquals(ProcessResult.FILLED, book.process(message.set(5, true, 3, 102).setType(OrderType.FILL_OR_KILL)));
+        // A market order ignores its price, which may lie outside the band, and never rests.
+        assertEquals(ProcessResult.EXPIRED, book.process(message.set(6, true, 9, 0).setType(OrderType.MARKET)));
+        assertEquals(0, book.getOrderCount());
+        assertEquals(OffHeapOrderBook.NO_PRICE, book.getBestBidPrice());
+        assertEquals(ProcessResult.KILLED, book.process(message.set(7, true, 1, 0).setType(OrderType.MARKET)));
+        assertEquals(ProcessResult.REJECTED, book.process(message.set(8, true, 10, 100).setDisplaySize(2)));
+    }
+
+    @Test
+    public void testClocksMatchHeapBook() {
+        for (OrderClock clock : new OrderClock[] { OrderClock.SEQUENCE, OrderClock.EXCHANGE }) {
+            OffHeapOrderBook book = new OffHeapOrderBook(16, 50, 150);
+            LimitOrderBook heap = new LimitOrderBook();
+            book.setClock(clock);
+            heap.setClock(clock);
+            OrderMessage message = new OrderMessage();
+            for (long uid = 1; uid <= 4; uid++) {
+                message.set(uid, uid % 2 == 1, 10 - uid, uid % 2 == 1 ? 100 - uid : 100 + uid, uid * 1_000);
+                assertEquals(heap.process(message), book.process(message));
+            }
+            message.set(5, true, 1, 102, 5_000);
+            assertEquals(heap.process(message), book.process(message)); // Trades without resting
+            assertEquals(heap.getSequence(), book.getSequence());
+            for (long uid = 1; uid <= 4; uid++) {
+                assertEquals(heap.getOrders().get(uid).getTime(), book.getOrderTimestamp(uid));
+            }
+        }
+    }
+
+    @Test
+    public void testMidPriceOfOneSidedBook() {
+        OffHeapOrderBook book = new OffHeapOrderBook(16, 50, 150);
+        assertTrue(Double.isNaN(book.getMidPrice()));
+        book.process(new OrderMessage().set(1, true, 3, 90));
+        assertTrue(Double.isNaN(book.getMidPrice()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityFitsBuffers() {
+        new OffHeapOrderBook(OffHeapOrderBook.MAX_CAPACITY + 1, 0, 10);
+    }
+
+    @Test
+    public void testRejectsWhenFull() {
+        OffHeapOrderBook book = new OffHeapOrderBook(2, 0, 10);
+        OrderMessage message = new OrderMessage();
+        book.process(message.set(1, true, 1, 5));
+        book.process(message.set(2, true, 1, 5));
+        assertEquals(ProcessResult.REJECTED, book.process(message.set(3, true, 1, 4)));
+        book.process(message.set(1, true, 0, 5));
+        assertEquals(ProcessResult.ADDED, book.process(message.set(3, true, 1, 4)));
+    }
+
+    @Test
+    public void testMatchesHeapBook() {
+        OffHeapOrderBook offHeap = new OffHeapOrderBook(200_000, 900, 1100);
+        LimitOrderBook heap = new LimitOrderBook();
+        OrderMessage message = new OrderMessage();
+        Random random = new Random(11);
+        long nextUid = 1;
+        for (int i = 0; i < 200_000; i++) {
+            int action = random.nextInt(10);
+            if (action < 6 || nextUid < 10) {
+                boolean isBid = random.nextBoolean();
+                long price = (isBid ? 995 : 1005) + random.nextInt(21) - 10;
+                message.set(nextUid++, isBid, 1 + random.nextInt(50), price);
+            } else {
+                long uid = nextUid - 1 - random.nextInt((int) Math.min(nextUid - 1, 500));
+                message.set(uid, random.nextBoolean(), action < 8 ? 0 : 1 + random.nextInt(50), 1000);
+            }
+            assertEquals(heap.process(message), offHeap.process(message));
+            assertEquals(heap.getOrders().size(), offHeap.getOrderCount());
+        }
+
+        for (boolean isBid : new boolean[] { true, false }) {
+            assertEquals((isBid ? heap.getBids() : heap.getAsks()).getSize(), offHeap.getLevelCount(isBid));
+            for (long price = 900; price <= 1100; price++) {
+                LimitLevel level = (isBid ? heap.getBids() : heap.getAsks()).getLevel(price);
+                assertEquals(level == null ? 0 : level.getSize(), offHeap.getLevelSize(isBid, price));
+                assertEquals(level == null ? 0 : level.getLength(), offHeap.getLevelOrderCount(isBid, price));
+            }
+        }
+        heap.getOrders().forEach(order -> assertEquals(order.getSize(), offHeap.getOrderSize(order.getUid())));
+    }
+}
@@ -0,0 +1,145 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.event.LevelEvent;
+import main.event.OrderBookListener;
+import main.event.OrderEvent;
+import main.event.TradeEvent;
+import main.order.Order;
+import main.order.OrderMessage;
+
+public class OrderBookListenerTest {
+
+    private static class RecordingListener implements OrderBookListener {
+        final List<String> events = new ArrayList<>();
+        final List<Object> instances = new ArrayList<>();
+
+        @Override
+        public void onOrderAccepted(OrderEvent event) {
+            record("accepted " + event, event);
+        }
+
+        @Override
+        public void onOrderUpdated(OrderEvent event) {
+            record("updated " + event, event);
+        }
+
+        @Override
+        public void onOrderCancelled(OrderEvent event) {
+            record("cancelled " + event, event);
+        }
+
+        @Override
+        public void onTrade(TradeEvent event) {
+            record("trade " + event, event);
+        }
+
+        @Override
+        public void onLevelChanged(LevelEvent event) {
+            record("level " + event, event);
+        }
+
+        private void record(String event, Object instance) {
+            events.add(event);
+            instances.add(instance);
+        }
+    }
+
+    @Test
+    public void testEventSequence() {
+        LimitOrderBook lob = new LimitOrderBook();
+        RecordingListener listener = new RecordingListener();
+        lob.setListener(listener);
+
+        lob.process(new Order(1, true, 10, 100));
+        lob.process(new Order(2, true, 5, 100));
+        lob.process(new Order(1, true, 4, 100));
+        assertEquals(List.of(
+                "accepted (1, true, 100, 10, 0)",
+                "level (true, 100, 10, 1)",
+                "accepted (2, true, 100, 5, 0)",
+                "level (true, 100, 15, 2)",
+                "updated (1, true, 100, 4, 10)",
+                "level (true, 100, 9, 2)"), listener.events);
+        listener.events.clear();
+
+        // A sell that sweeps the bid level trades in time priority and rests its remainder.
+        lob.process(new OrderMessage().set(3, false, 12, 99));
+        assertEquals(List.of(
+                "accepted (3, false, 99, 12, 0)",
+                "trade (3, 1, false, 100, 4, 0)",
+                "trade (3, 2, false, 100, 5, 0)",
+                "level (true, 100, 0, 0)",
+                "level (false, 99, 3, 1)"), listener.events);
+        listener.events.clear();
+
+        lob.process(new Order(3, false, 0, 99));
+        assertEquals(List.of(
+                "cancelled (3, false, 99, 0, 3)",
+                "level (false, 99, 0, 0)"), listener.events);
+    }
+
+    @Test
+    public void testPartialFillAndFlyweightReuse() {
+        LimitOrderBook lob = new LimitOrderBook();
+        RecordingListener listener = new RecordingListener();
+        lob.process(new Order(1, false, 10, 100));
+        lob.setListener(listener);
+
+        OrderMessage message = new OrderMessage();
+        lob.process(message.set(2, true, 3, 100));
+        lob.process(message.set(3, true, 3, 101));
+        assertEquals("trade (3, 1, true, 100, 3, 4)", listener.events.get(4));
+        assertEquals("level (false, 100, 4, 1)", listener.events.get(5));
+
+        // Every event of a kind is delivered through the same instance.
+        assertSame(listener.instances.get(0), listener.instances.get(3));
+        assertSame(listener.instances.get(1), listener.instances.get(4));
+        assertSame(listener.instances.get(2), listener.instances.get(5));
+
+        lob.setListener(null);
+        lob.process(message.set(4, true, 4, 100));
+        assertEquals(6, listener.events.size());
+    }
+
+    @Test
+    public void testBatchDefersLevelEvents() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.process(new Order(1, false, 10, 100));
+        RecordingListener listener = new RecordingListener();
+        lob.setListener(listener);
+
+        // Level events are delivered once per changed level, after the order and trade events of the batch.
+        OrderMessage[] batch = new OrderMessage[4];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new OrderMessage();
+        }
+        batch[0].set(2, true, 4, 100);
+        batch[1].set(3, true, 6, 100);
+        batch[2].set(4, false, 5, 101);
+        batch[3].set(4, false, 0, 101);
+        lob.processBatch(batch, batch.length, new ProcessResult[batch.length]);
+        assertEquals(List.of(
+                "accepted (2, true, 100, 4, 0)",
+                "trade (2, 1, true, 100, 4, 6)",
+                "accepted (3, true, 100, 6, 0)",
+                "trade (3, 1, true, 100, 6, 0)",
+                "accepted (4, false, 101, 5, 0)",
+                "cancelled (4, false, 101, 0, 5)",
+                "level (false, 100, 0, 0)"), listener.events);
+        listener.events.clear();
+
+        // Outside a batch level events follow each message again.
+        lob.process(new Order(5, true, 2, 99));
+        assertEquals(List.of("accepted (5, true, 99, 2, 0)", "level (true, 99, 2, 1)"), listener.events);
+    }
+}
@@ -0,0 +1,176 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.event.OrderBookListener;
+import main.event.OrderEvent;
+import main.order.OrderClock;
+import main.order.OrderMessage;
+import main.order.OrderType;
+import main.pipeline.OrderBookManager;
+import main.pipeline.WaitStrategy;
+
+public class OrderBookManagerTest {
+
+    private static OrderBookManager newManager(int instruments, int shards) {
+        return new OrderBookManager(instruments, shards, 64, 16, WaitStrategy.YIELDING, id -> new LimitOrderBook());
+    }
+
+    @Test(timeout = 60000)
+    public void testShardedProducers() throws InterruptedException {
+        final int instruments = 10;
+        final int ordersPerInstrument = 5_000;
+        OrderBookManager manager = newManager(instruments, 3);
+        assertEquals(0, manager.getShard(0));
+        assertEquals(2, manager.getShard(5));
+
+        // One producer per instrument; every instrument keeps one resting bid in four.
+        List<Thread> producers = new ArrayList<>();
+        for (int instrument = 0; instrument < instruments; instrument++) {
+            final int id = instrument;
+            producers.add(new Thread(() -> {
+                for (int uid = 0; uid < ordersPerInstrument; uid++) {
+                    manager.submit(id, uid, true, 5, 100 - uid % 20);
+                    if (uid % 4 != 0) {
+                        manager.submit(id, uid, true, 0, 100 - uid % 20);
+                    }
+                }
+            }));
+        }
+        manager.start();
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        manager.stop();
+
+        long total = 0;
+        for (int instrument = 0; instrument < instruments; instrument++) {
+            assertEquals(ordersPerInstrument / 4, manager.getBook(instrument).getOrders().size());
+            assertEquals(ordersPerInstrument / 4 * 7, manager.getMessageCount(instrument));
+            total += manager.getMessageCount(instrument);
+        }
+        long processed = 0;
+        for (int shard = 0; shard < manager.getShardCount(); shard++) {
+            assertEquals(0, manager.getQueueDepth(shard));
+            assertEquals(manager.getShardLoad(shard), manager.getProcessedCount(shard));
+            processed += manager.getProcessedCount(shard);
+        }
+        assertEquals(total, processed);
+    }
+
+    @Test(timeout = 60000)
+    public void testRebalanceSpreadsHotInstruments() throws InterruptedException {
+        OrderBookManager manager = newManager(4, 2);
+        assertEquals(manager.getShard(0), manager.getShard(2));
+
+        // Instruments 0 and 2 start on the same shard but carry almost all of the flow.
+        manager.start();
+        for (int uid = 0; uid < 1000; uid++) {
+            manager.submit(0, uid, true, 1, 100);
+            manager.submit(2, uid, false, 1, 200);
+        }
+        manager.submit(1, 1, true, 1, 100);
+        manager.submit(3, 1, true, 1, 100);
+        manager.stop();
+        assertEquals(2000, manager.getShardLoad(0));
+
+        manager.rebalance();
+        assertNotEquals(manager.getShard(0), manager.getShard(2));
+        assertEquals(1001, manager.getShardLoad(0));
+        assertEquals(1001, manager.getShardLoad(1));
+
+        // Books keep their state across the move.
+        manager.start();
+        manager.submit(2, 5000, true, 1000, 200);
+        manager.stop();
+        assertEquals(0, manager.getBook(2).getOrders().size());
+    }
+
+    @Test
+    public void testSubmitKeepsOrderType() throws InterruptedException {
+        OrderBookManager manager = newManager(2, 2);
+        manager.start();
+        manager.submit(1, 1, false, 4, 100);
+        manager.submit(1, new OrderMessage().set(2, true, 10, 100).setType(OrderType.IMMEDIATE_OR_CANCEL));
+        manager.stop();
+        assertEquals(0, manager.getBook(1).getOrders().size());
+    }
+
+    @Test
+    public void testSubmitKeepsDisplaySize() throws InterruptedException {
+        OrderBookManager manager = newManager(2, 2);
+        manager.start();
+        manager.submit(0, new OrderMessage().set(1, false, 100, 100).setDisplaySize(10));
+        manager.stop();
+        assertEquals(10, manager.getBook(0).getBestAsk().getSize());
+        assertEquals(90, manager.getBook(0).getBestAsk().getHiddenSize());
+    }
+
+    @Test
+    public void testSubmitKeepsTimestamps() throws InterruptedException {
+        OrderBookManager manager = new OrderBookManager(2, 2, 64, 16, WaitStrategy.YIELDING, id -> {
+            LimitOrderBook book = new LimitOrderBook();
+            book.setClock(OrderClock.EXCHANGE);
+            return book;
+        });
+        manager.start();
+        manager.submit(0, 1, true, 10, 100, 1_000);
+        manager.submit(1, new OrderMessage().set(2, false, 10, 105, 2_000).setDisplaySize(5));
+        manager.stop();
+        assertEquals(1_000, manager.getBook(0).getOrders().get(1).getTime());
+        assertEquals(2_000, manager.getBook(1).getOrders().get(2).getTime());
+        assertEquals(5, manager.getBook(1).getBestAsk().getSize());
+    }
+
+    @Test(timeout = 60000)
+    public void testWorkerFailureStopsProducers() throws InterruptedException {
+        RuntimeException failure = new RuntimeException("listener failed");
+        OrderBookManager manager = new OrderBookManager(2, 2, 4, 4, WaitStrategy.YIELDING, id -> {
+            LimitOrderBook book = new LimitOrderBook();
+            if (id == 1) {
+                book.setListener(new OrderBookListener() {
+                    @Override
+                    public void onOrderAccepted(OrderEvent event) {
+                        throw failure;
+                    }
+                });
+            }
+            return book;
+        });
+        manager.start();
+        try {
+            for (long uid = 1;; uid++) {
+                manager.submit(1, uid, true, 1, 100);
+            }
+        } catch (IllegalStateException expected) {
+            assertSame(failure, expected.getCause());
+        }
+        // The other shard keeps working.
+        manager.submit(0, 1, true, 1, 100);
+        manager.stop();
+        assertSame(failure, manager.getFailure(1));
+        assertNull(manager.getFailure(0));
+        assertEquals(1, manager.getBook(0).getOrders().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAssignWhileRunning() throws InterruptedException {
+        OrderBookManager manager = newManager(2, 2);
+        manager.start();
+        try {
+            manager.assign(0, 1);
+        } finally {
+            manager.stop();
+        }
+    }
+}
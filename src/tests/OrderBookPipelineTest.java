@@ -0,0 +1,171 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.event.OrderBookListener;
+import main.event.OrderEvent;
+import main.limits.LimitLevel;
+import main.order.OrderClock;
+import main.order.OrderMessage;
+import main.order.OrderType;
+import main.pipeline.OrderBookPipeline;
+import main.pipeline.OrderRing;
+import main.pipeline.WaitStrategy;
+
+public class OrderBookPipelineTest {
+
+    @Test
+    public void testResultsInSequence() throws InterruptedException {
+        OrderBookPipeline pipeline = new OrderBookPipeline(new LimitOrderBook(), 8, 8, 4, WaitStrategy.YIELDING);
+        pipeline.start();
+        pipeline.submit(1, true, 10, 100);
+        pipeline.submit(2, false, 4, 100);
+        pipeline.submit(1, true, 0, 100);
+        pipeline.submit(3, false, 0, 100);
+        pipeline.stop();
+
+        List<String> results = new ArrayList<>();
+        assertEquals(4, pipeline.getResults().drain((sequence, uid, result) ->
+                results.add(sequence + " " + uid + " " + result), 16));
+        assertEquals(List.of("0 1 ADDED", "1 2 FILLED", "2 1 CANCELLED", "3 3 REJECTED"), results);
+        assertNull(pipeline.getBook().getBestBid());
+        assertEquals(0, pipeline.getResults().getPendingCount());
+    }
+
+    @Test
+    public void testSubmitKeepsOrderType() throws InterruptedException {
+        OrderBookPipeline pipeline = new OrderBookPipeline(new LimitOrderBook(), 8, 8, 4, WaitStrategy.YIELDING);
+        pipeline.start();
+        pipeline.submit(1, false, 4, 100);
+        pipeline.submit(new OrderMessage().set(2, true, 10, 100).setType(OrderType.IMMEDIATE_OR_CANCEL));
+        pipeline.submit(new OrderMessage().set(3, true, 10, 0).setType(OrderType.MARKET));
+        pipeline.stop();
+
+        // Neither the unfilled remainder of the IOC nor the market order at price 0 may rest.
+        List<String> results = new ArrayList<>();
+        pipeline.getResults().drain((sequence, uid, result) -> results.add(uid + " " + result), 16);
+        assertEquals(List.of("1 ADDED", "2 EXPIRED", "3 KILLED"), results);
+        assertNull(pipeline.getBook().getBestBid());
+        assertNull(pipeline.getBook().getBestAsk());
+        assertEquals(0, pipeline.getBook().getOrders().size());
+    }
+
+    @Test
+    public void testSubmitKeepsDisplaySize() throws InterruptedException {
+        OrderBookPipeline pipeline = new OrderBookPipeline(new LimitOrderBook(), 8, 8, 4, WaitStrategy.YIELDING);
+        pipeline.start();
+        pipeline.submit(new OrderMessage().set(1, true, 100, 100).setDisplaySize(10));
+        pipeline.stop();
+
+        LimitLevel bid = pipeline.getBook().getBestBid();
+        assertEquals(10, bid.getSize());
+        assertEquals(90, bid.getHiddenSize());
+        assertEquals(100, bid.getTotalSize());
+    }
+
+    @Test
+    public void testSubmitKeepsTimestamps() throws InterruptedException {
+        LimitOrderBook book = new LimitOrderBook();
+        book.setClock(OrderClock.EXCHANGE);
+        OrderBookPipeline pipeline = new OrderBookPipeline(book, 8, 8, 4, WaitStrategy.YIELDING);
+        pipeline.start();
+        pipeline.submit(new OrderMessage().set(1, true, 10, 100, 1_000));
+        pipeline.submit(new OrderMessage().set(2, true, 30, 99, 2_000).setDisplaySize(10));
+        pipeline.stop();
+        assertEquals(1_000, book.getOrders().get(1).getTime());
+        assertEquals(2_000, book.getOrders().get(2).getTime());
+    }
+
+    @Test(timeout = 60000)
+    public void testManyProducers() throws InterruptedException {
+        final int producers = 4;
+        final int ordersPerProducer = 20_000;
+        OrderBookPipeline pipeline = new OrderBookPipeline(new LimitOrderBook(), 64, 64, 16, WaitStrategy.YIELDING);
+        Map<ProcessResult, Integer> counts = new EnumMap<>(ProcessResult.class);
+
+        // A small result ring forces the engine to wait on this consumer, and small rings force producers to wrap.
+        Thread consumer = new Thread(() -> {
+            int drained = 0;
+            while (drained < producers * ordersPerProducer * 2) {
+                int batch = pipeline.getResults().drain((sequence, uid, result) -> counts.merge(result, 1, Integer::sum), 32);
+                if (batch == 0) {
+                    Thread.yield();
+                }
+                drained += batch;
+            }
+        });
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final long firstUid = (long) p * ordersPerProducer;
+            final boolean isBid = p % 2 == 0;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < ordersPerProducer; i++) {
+                    long uid = firstUid + i;
+                    long price = isBid ? 100 - i % 50 : 200 + i % 50;
+                    pipeline.submit(uid, isBid, 1 + i % 7, price);
+                    if (i % 4 != 0) {
+                        pipeline.submit(uid, isBid, 0, price);
+                    } else {
+                        pipeline.submit(uid, isBid, 2 + i % 7, price);
+                    }
+                }
+            }));
+        }
+        pipeline.start();
+        consumer.start();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pipeline.stop();
+        consumer.join();
+
+        int total = producers * ordersPerProducer;
+        int resting = total / 4;
+        assertEquals(total * 2L, pipeline.getProcessedCount());
+        assertEquals(Integer.valueOf(total), counts.get(ProcessResult.ADDED));
+        assertEquals(Integer.valueOf(total - resting), counts.get(ProcessResult.CANCELLED));
+        assertEquals(Integer.valueOf(resting), counts.get(ProcessResult.UPDATED));
+        assertEquals(resting, pipeline.getBook().getOrders().size());
+    }
+
+    @Test(timeout = 60000)
+    public void testEngineFailureStopsProducers() throws InterruptedException {
+        RuntimeException failure = new RuntimeException("listener failed");
+        LimitOrderBook book = new LimitOrderBook();
+        book.setListener(new OrderBookListener() {
+            @Override
+            public void onOrderAccepted(OrderEvent event) {
+                throw failure;
+            }
+        });
+        OrderBookPipeline pipeline = new OrderBookPipeline(book, 4, 0, 4, WaitStrategy.YIELDING);
+        pipeline.start();
+        // Once the engine is gone, a producer facing a full ring throws instead of waiting forever.
+        try {
+            for (long uid = 1;; uid++) {
+                pipeline.submit(uid, true, 1, 100);
+            }
+        } catch (IllegalStateException expected) {
+            assertSame(failure, expected.getCause());
+        }
+        pipeline.stop();
+        assertSame(failure, pipeline.getFailure());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRingCapacityMustBePowerOfTwo() {
+        new OrderRing(12, WaitStrategy.BUSY_SPIN);
+    }
+}
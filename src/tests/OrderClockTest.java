@@ -0,0 +1,128 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.journal.Journal;
+import main.journal.JournalReplay;
+import main.journal.JournalSync;
+import main.order.Order;
+import main.order.OrderClock;
+import main.order.OrderMessage;
+
+public class OrderClockTest {
+
+    @Test
+    public void testNanoTimeIsDefault() {
+        LimitOrderBook lob = new LimitOrderBook();
+        assertEquals(OrderClock.NANO_TIME, lob.getClock());
+        long before = OrderClock.epochNanos();
+        Order order = new Order(1, true, 10, 100);
+        assertEquals(0, order.getTime());
+        lob.process(order);
+        lob.process(new OrderMessage().set(2, true, 10, 100));
+        long after = OrderClock.epochNanos();
+
+        assertTrue(order.getTime() >= before && order.getTime() <= after);
+        long pooled = lob.getOrders().get(2).getTime();
+        assertTrue(pooled >= order.getTime() && pooled <= after);
+        // The epoch anchor keeps the instant close to the wall clock.
+        long millis = order.getTimestamp().toEpochMilli();
+        assertTrue(Math.abs(millis - System.currentTimeMillis()) < 60_000);
+    }
+
+    @Test
+    public void testSequence() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setClock(OrderClock.SEQUENCE);
+        lob.process(new Order(1, true, 10, 100));
+        lob.process(new Order(1, true, 0, 100));
+        lob.process(new Order(2, false, 5, 101));
+        lob.process(new OrderMessage().set(3, false, 5, 102));
+        lob.process(new Order(4, true, 2, 101)); // Fills without resting
+
+        assertEquals(5, lob.getSequence());
+        assertEquals(3, lob.getOrders().get(2).getTime());
+        assertEquals(4, lob.getOrders().get(3).getTime());
+    }
+
+    @Test
+    public void testExchangeKeepsSuppliedTimestamps() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setClock(OrderClock.EXCHANGE);
+        lob.process(new Order(1, true, 10, 100, 1_000));
+        lob.process(new OrderMessage().set(2, true, 10, 99, 2_000));
+        long[] buffer = new long[OrderMessage.LONGS];
+        OrderMessage.write(buffer, 0, 3, false, 10, 105, 3_000);
+        lob.processBatch(buffer, 1, new ProcessResult[1]);
+
+        assertEquals(1_000, lob.getOrders().get(1).getTime());
+        assertEquals(2_000, lob.getOrders().get(2).getTime());
+        assertEquals(3_000, lob.getOrders().get(3).getTime());
+        assertEquals(Instant.ofEpochSecond(0, 3_000), lob.getOrders().get(3).getTimestamp());
+
+        // A size update keeps the order's place in the queue and its timestamp.
+        lob.process(new Order(1, true, 4, 100, 9_000));
+        assertEquals(1_000, lob.getOrders().get(1).getTime());
+    }
+
+    @Test
+    public void testInstantConstructor() {
+        Instant instant = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+        Order order = new Order(1, true, 10, 100, null, instant, null, null);
+        assertEquals(1_700_000_000_123_456_789L, order.getTime());
+        assertEquals(instant, order.getTimestamp());
+        assertEquals(0, new Order(2, true, 10, 100, null, null, null, null).getTime());
+    }
+
+    @Test
+    public void testSnapshotKeepsTimestamps() throws Exception {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setClock(OrderClock.EXCHANGE);
+        lob.process(new Order(1, true, 10, 100, 11));
+        lob.process(new Order(2, false, 10, 105, 22));
+        Path file = Files.createTempFile("clock", ".snap");
+        try {
+            lob.writeSnapshot(file, 2);
+            LimitOrderBook restored = new LimitOrderBook();
+            restored.restoreSnapshot(file);
+            assertEquals(11, restored.getOrders().get(1).getTime());
+            assertEquals(22, restored.getOrders().get(2).getTime());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testJournalKeepsTimestamps() throws Exception {
+        Path file = Files.createTempFile("clock", ".journal");
+        try {
+            try (Journal journal = new Journal(file, JournalSync.NONE, 1, 64)) {
+                LimitOrderBook lob = new LimitOrderBook();
+                lob.setClock(OrderClock.EXCHANGE);
+                lob.setJournal(journal);
+                lob.process(new Order(1, true, 10, 100, 11));
+                lob.process(new OrderMessage().set(2, false, 30, 105, 22).setDisplaySize(10));
+                lob.process(new Order(3, false, 5, 106, 33));
+                lob.process(new Order(3, false, 0, 106, 44));
+            }
+            LimitOrderBook replayed = new LimitOrderBook();
+            replayed.setClock(OrderClock.EXCHANGE);
+            JournalReplay.replay(file, replayed);
+            assertEquals(2, replayed.getOrders().size());
+            assertEquals(11, replayed.getOrders().get(1).getTime());
+            assertEquals(22, replayed.getOrders().get(2).getTime());
+            assertEquals(10, replayed.getOrders().get(2).getSize());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.limits.LimitLevel;
+import main.order.Order;
+import main.order.OrderList;
+
+public class OrderListTest {
+    private static final int DEEP_LEVEL = 1_000_000;
+
+    @Test
+    public void testUnlinkFromMiddle() {
+        Order first = new Order(1, true, 1, 100);
+        Order second = new Order(2, true, 2, 100);
+        Order third = new Order(3, true, 4, 100);
+        LimitLevel level = new LimitLevel(first);
+        level.append(second);
+        level.append(third);
+        assertEquals(7, level.getSize());
+
+        OrderList orders = level.getOrders();
+        orders.remove(second);
+        assertSame(third, first.getNextItem());
+        assertSame(first, third.getPreviousItem());
+        assertNull(second.getNextItem());
+        assertNull(second.getPreviousItem());
+        assertEquals(2, orders.getCount());
+        assertEquals(5, level.getSize());
+
+        orders.remove(first);
+        orders.remove(third);
+        assertNull(orders.getHead());
+        assertNull(orders.getTail());
+        assertEquals(0, level.getSize());
+    }
+
+    @Test(timeout = 30_000)
+    public void testMillionOrdersAtOneLevel() {
+        LimitOrderBook lob = new LimitOrderBook();
+        for (int uid = 1; uid <= DEEP_LEVEL; uid++) {
+            lob.process(new Order(uid, true, 1, 100));
+        }
+        LimitLevel level = lob.getBestBid();
+        assertEquals(DEEP_LEVEL, level.getLength());
+        assertEquals(DEEP_LEVEL, level.getSize());
+
+        // Appending through a stale element of the queue is still O(1).
+        Order head = level.getOrders().getHead();
+        Order appended = new Order(DEEP_LEVEL + 1, true, 1, 100);
+        head.append(appended);
+        assertSame(appended, level.getOrders().getTail());
+
+        // Cancel every other order, front to back, then the rest back to front.
+        for (int uid = 1; uid <= DEEP_LEVEL; uid += 2) {
+            lob.process(new Order(uid, true, 0, 100));
+        }
+        assertEquals(DEEP_LEVEL / 2 + 1, level.getLength());
+        assertEquals(2, level.getOrders().getHead().getUid());
+        assertSame(appended, level.getOrders().getTail());
+
+        level.getOrders().remove(appended);
+        for (int uid = DEEP_LEVEL; uid >= 2; uid -= 2) {
+            lob.process(new Order(uid, true, 0, 100));
+        }
+        assertNull(lob.getBestBid());
+        assertEquals(0, lob.getOrders().size());
+    }
+}
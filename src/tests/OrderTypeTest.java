@@ -0,0 +1,179 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.ProcessResult;
+import main.event.OrderBookListener;
+import main.event.OrderEvent;
+import main.event.TradeEvent;
+import main.journal.Journal;
+import main.journal.JournalReplay;
+import main.journal.JournalSync;
+import main.order.Order;
+import main.order.OrderMessage;
+import main.order.OrderType;
+import main.replay.BookChecksum;
+
+public class OrderTypeTest {
+
+    /**
+     * Builds a book with asks of 10 lots at each of 100..(100 + levels - 1) and bids of 10 lots at
+     * each of 99 down to (99 - levels + 1).
+     */
+    private static LimitOrderBook ladder(int levels) {
+        LimitOrderBook lob = new LimitOrderBook();
+        for (int i = 0; i < levels; i++) {
+            lob.process(new Order(1 + i, false, 10, 100 + i));
+            lob.process(new Order(1_000 + i, true, 10, 99 - i));
+        }
+        return lob;
+    }
+
+    @Test
+    public void testMarketSweepsAllLevelsItNeeds() {
+        LimitOrderBook lob = ladder(150);
+        OrderMessage message = new OrderMessage();
+        assertEquals(ProcessResult.FILLED, lob.process(message.set(5_000, true, 1_205, 0).setType(OrderType.MARKET)));
+        assertNull(lob.getOrders().get(5_000));
+        assertEquals(220, lob.getBestAsk().getPrice());
+        assertEquals(5, lob.getBestAsk().getSize());
+        assertEquals(150 - 120, lob.getAsks().getSize());
+
+        // A market order larger than the side trades it all and cancels the rest.
+        assertEquals(ProcessResult.EXPIRED, lob.process(message.set(5_001, false, 2_000, 0)
+                .setType(OrderType.MARKET)));
+        assertEquals(0, lob.getBids().getSize());
+        assertNull(lob.getBestBid());
+        assertNull(lob.getOrders().get(5_001));
+        assertEquals(ProcessResult.KILLED, lob.process(message.set(5_002, false, 10, 0)
+                .setType(OrderType.MARKET)));
+    }
+
+    @Test
+    public void testImmediateOrCancelStopsAtItsPrice() {
+        LimitOrderBook lob = ladder(10);
+        OrderMessage message = new OrderMessage();
+        assertEquals(ProcessResult.EXPIRED, lob.process(message.set(5_000, true, 100, 104)
+                .setType(OrderType.IMMEDIATE_OR_CANCEL)));
+        assertEquals(105, lob.getBestAsk().getPrice());
+        assertEquals(99, lob.getBestBid().getPrice());
+        assertNull(lob.getOrders().get(5_000));
+        assertEquals(ProcessResult.KILLED, lob.process(message.set(5_001, true, 10, 104)
+                .setType(OrderType.IMMEDIATE_OR_CANCEL)));
+        assertEquals(ProcessResult.FILLED, lob.process(message.set(5_002, true, 15, 106)
+                .setType(OrderType.IMMEDIATE_OR_CANCEL)));
+        assertEquals(106, lob.getBestAsk().getPrice());
+        assertEquals(5, lob.getBestAsk().getSize());
+    }
+
+    @Test
+    public void testFillOrKillChecksBeforeTrading() {
+        LimitOrderBook lob = ladder(10);
+        List<String> events = new ArrayList<>();
+        lob.setListener(new OrderBookListener() {
+            @Override
+            public void onOrderAccepted(OrderEvent event) {
+                events.add("accepted " + event.getUid());
+            }
+
+            @Override
+            public void onOrderCancelled(OrderEvent event) {
+                events.add("cancelled " + event.getUid() + " " + event.getPreviousSize());
+            }
+
+            @Override
+            public void onTrade(TradeEvent event) {
+                events.add("trade " + event.getPrice() + " " + event.getSize());
+            }
+        });
+        OrderMessage message = new OrderMessage();
+        // 51 lots are not available up to 104, so nothing trades.
+        assertEquals(ProcessResult.KILLED, lob.process(message.set(5_000, true, 51, 104)
+                .setType(OrderType.FILL_OR_KILL)));
+        assertEquals(List.of("accepted 5000", "cancelled 5000 51"), events);
+        assertEquals(10, lob.getAsks().getSize());
+        assertEquals(100, lob.getBestAsk().getPrice());
+        assertEquals(10, lob.getBestAsk().getSize());
+
+        events.clear();
+        assertEquals(ProcessResult.FILLED, lob.process(message.set(5_001, false, 25, 97)
+                .setType(OrderType.FILL_OR_KILL)));
+        assertEquals(List.of("accepted 5001", "trade 99 10", "trade 98 10", "trade 97 5"), events);
+        assertEquals(97, lob.getBestBid().getPrice());
+        assertEquals(5, lob.getBestBid().getSize());
+    }
+
+    @Test
+    public void testImmediateMessagesCannotUpdateOrCancel() {
+        LimitOrderBook lob = ladder(2);
+        OrderMessage message = new OrderMessage();
+        assertEquals(ProcessResult.REJECTED, lob.process(message.set(1, false, 5, 100)
+                .setType(OrderType.IMMEDIATE_OR_CANCEL)));
+        assertEquals(ProcessResult.REJECTED, lob.process(message.set(5_000, true, 0, 100)
+                .setType(OrderType.MARKET)));
+        assertEquals(10, lob.getOrders().get(1).getSize());
+        // set resets the type to a limit order.
+        assertEquals(ProcessResult.UPDATED, lob.process(message.set(1, false, 5, 100)));
+    }
+
+    @Test
+    public void testBatchCarriesTypes() {
+        LimitOrderBook lob = ladder(5);
+        long[] buffer = new long[3 * OrderMessage.LONGS];
+        OrderMessage.write(buffer, 0, 5_000, true, 15, 0, 0, OrderType.MARKET);
+        OrderMessage.write(buffer, 1, 5_001, false, 100, 90, 0, OrderType.FILL_OR_KILL);
+        OrderMessage.write(buffer, 2, 5_002, false, 5, 98, 0, OrderType.IMMEDIATE_OR_CANCEL);
+        ProcessResult[] results = lob.processBatch(buffer, 3, new ProcessResult[3]);
+        assertEquals(ProcessResult.FILLED, results[0]);
+        assertEquals(ProcessResult.KILLED, results[1]);
+        assertEquals(ProcessResult.FILLED, results[2]);
+        assertEquals(101, lob.getBestAsk().getPrice());
+        assertEquals(99, lob.getBestBid().getPrice());
+        assertEquals(5, lob.getBestBid().getSize());
+        assertNull(lob.getOrders().get(5_002));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsUnknownOrdinal() {
+        OrderType.of(OrderType.values().length);
+    }
+
+    @Test
+    public void testJournalReplaysImmediateOrders() throws IOException {
+        Path path = Files.createTempFile("lob", ".journal");
+        try {
+            LimitOrderBook lob = new LimitOrderBook();
+            try (Journal journal = new Journal(path, JournalSync.NONE, 64, 1_000)) {
+                lob.setJournal(journal);
+                OrderMessage message = new OrderMessage();
+                OrderType[] types = OrderType.values();
+                Random random = new Random(11);
+                for (int uid = 1; uid <= 20_000; uid++) {
+                    boolean isBid = random.nextBoolean();
+                    message.set(uid, isBid, 1 + random.nextInt(50), (isBid ? 995 : 1005) + random.nextInt(31) - 15);
+                    if (random.nextInt(4) == 0) {
+                        message.setType(types[1 + random.nextInt(types.length - 1)]);
+                    }
+                    lob.process(message);
+                }
+            }
+            LimitOrderBook replayed = new LimitOrderBook();
+            JournalReplay.replay(path, replayed);
+            assertEquals(lob.getOrders().size(), replayed.getOrders().size());
+            assertEquals(BookChecksum.of(lob), BookChecksum.of(replayed));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.limits.LadderLimitLevelTree;
+import main.offheap.OffHeapOrderBook;
+import main.order.OrderMessage;
+import main.replay.BookChecksum;
+import main.replay.ReplayHarness;
+import main.replay.ReplayTarget;
+
+public class ReplayHarnessTest {
+
+    private static String randomCsv(LimitOrderBook reference, int messages) {
+        StringBuilder csv = new StringBuilder("timestamp,uid,side,size,price\r\n");
+        OrderMessage message = new OrderMessage();
+        Random random = new Random(9);
+        for (int i = 0; i < messages; i++) {
+            long uid = 1 + random.nextInt(2_000);
+            boolean isBid = random.nextBoolean();
+            long size = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(50);
+            long price = (isBid ? 995 : 1005) + random.nextInt(21) - 10;
+            csv.append(1_000 * i).append(',').append(uid).append(',').append(isBid ? 'B' : 'S').append(',')
+                    .append(size).append(',').append(price).append(i % 100 == 0 ? "\r\n\n" : "\n");
+            reference.process(message.set(uid, isBid, size, price));
+        }
+        return csv.toString();
+    }
+
+    @Test
+    public void testBooksAgreeOnRecording() throws IOException {
+        Path csv = Files.createTempFile("orders", ".csv");
+        Path binary = Files.createTempFile("orders", ".journal");
+        try {
+            LimitOrderBook reference = new LimitOrderBook();
+            Files.write(csv, randomCsv(reference, 30_000).getBytes(StandardCharsets.US_ASCII));
+            long expected = BookChecksum.of(reference);
+
+            ReplayHarness treeMap = new ReplayHarness(ReplayTarget.of(new LimitOrderBook()), false);
+            assertEquals(30_000, treeMap.replay(csv));
+            assertEquals(expected, treeMap.getChecksum());
+            assertEquals(30_000, treeMap.getLatencies().getCount());
+
+            ReplayHarness ladder = new ReplayHarness(ReplayTarget.of(new LimitOrderBook(
+                    new LadderLimitLevelTree(true), new LadderLimitLevelTree(false))), false);
+            ladder.replay(csv);
+            assertEquals(expected, ladder.getChecksum());
+
+            Files.delete(binary);
+            assertEquals(30_000, ReplayHarness.convert(csv, binary));
+            ReplayHarness offHeap = new ReplayHarness(ReplayTarget.of(new OffHeapOrderBook(10_000, 900, 1100)), false);
+            assertEquals(30_000, offHeap.replay(binary));
+            assertEquals(expected, offHeap.getChecksum());
+            assertNotEquals(BookChecksum.of(new LimitOrderBook()), expected);
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    @Test
+    public void testPacedReplayKeepsRecordedTimes() throws IOException {
+        Path csv = Files.createTempFile("orders", ".csv");
+        try {
+            Files.write(csv, ("0,1,B,10,100\n20000000,2,S,10,101\n40000000,1,1,0,100").getBytes(StandardCharsets.US_ASCII));
+            ReplayHarness harness = new ReplayHarness(ReplayTarget.of(new LimitOrderBook()), true);
+            assertEquals(3, harness.replay(csv));
+            assertTrue(harness.getElapsedNanos() >= 40_000_000);
+        } finally {
+            Files.delete(csv);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsMalformedLine() throws IOException {
+        Path csv = Files.createTempFile("orders", ".csv");
+        try {
+            Files.write(csv, "0,1,B,10,100\n1,2,X,10,100\n".getBytes(StandardCharsets.US_ASCII));
+            new ReplayHarness(ReplayTarget.of(new LimitOrderBook()), false).replay(csv);
+        } finally {
+            Files.delete(csv);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import main.LimitOrderBook;
+import main.marketdata.TopOfBook;
+import main.marketdata.TopOfBookSnapshot;
+import main.order.Order;
+
+public class TopOfBookTest {
+
+    @Test
+    public void testPublishesOnChange() {
+        LimitOrderBook lob = new LimitOrderBook();
+        assertNull(lob.getTopOfBook());
+        lob.setTopOfBookPublishing(true);
+        TopOfBook top = lob.getTopOfBook();
+        TopOfBookSnapshot snapshot = top.read(new TopOfBookSnapshot());
+        assertEquals(0, snapshot.getSequence());
+        assertFalse(snapshot.hasBid());
+        assertTrue(Double.isNaN(snapshot.getMidPrice()));
+
+        lob.process(new Order(1, true, 10, 100));
+        lob.process(new Order(2, false, 5, 104));
+        top.read(snapshot);
+        assertEquals(2, snapshot.getSequence());
+        assertEquals("(2, 100, 10, 1, 104, 5, 1)", snapshot.toString());
+        assertEquals(102.0, snapshot.getMidPrice(), 0.0);
+
+        // An order behind the best levels does not publish a new record.
+        lob.process(new Order(3, true, 10, 99));
+        assertEquals(2, top.getSequence());
+
+        lob.process(new Order(4, false, 10, 100));
+        top.read(snapshot);
+        assertEquals(3, snapshot.getSequence());
+        assertEquals(99, snapshot.getBidPrice());
+        assertEquals(10, snapshot.getBidSize());
+        assertEquals(1, snapshot.getBidCount());
+        assertEquals(104, snapshot.getAskPrice());
+    }
+
+    @Test(timeout = 60000)
+    public void testReadersSeeConsistentRecords() throws InterruptedException {
+        final int readers = 4;
+        final int messages = 200_000;
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.setTopOfBookPublishing(true);
+        TopOfBook top = lob.getTopOfBook();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        // The writer keeps every bid order at size 10 and every ask order at size 7, so a consistent record
+        // always has size = 10 * count on the bid side and 7 * count on the ask side.
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                TopOfBookSnapshot snapshot = new TopOfBookSnapshot();
+                long lastSequence = 0;
+                while (!done.get()) {
+                    top.read(snapshot);
+                    if (snapshot.getSequence() < lastSequence || snapshot.getBidSize() != 10L * snapshot.getBidCount()
+                            || snapshot.getAskSize() != 7L * snapshot.getAskCount()) {
+                        failure.compareAndSet(null, snapshot.toString());
+                        return;
+                    }
+                    lastSequence = snapshot.getSequence();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (int i = 0; i < messages; i++) {
+            long uid = i % 64;
+            boolean isBid = uid % 2 == 0;
+            long price = isBid ? 100 - uid % 4 : 101 + uid % 4;
+            lob.process(new Order(uid, isBid, (i / 64) % 2 == 0 ? (isBid ? 10 : 7) : 0, price));
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        TopOfBookSnapshot snapshot = top.read(new TopOfBookSnapshot());
+        assertEquals(top.getSequence(), snapshot.getSequence());
+        assertTrue(snapshot.getSequence() > 0);
+    }
+
+    @Test
+    public void testDisablingStopsPublishing() {
+        LimitOrderBook lob = new LimitOrderBook();
+        lob.process(new Order(1, true, 10, 100));
+        lob.setTopOfBookPublishing(true);
+        TopOfBook top = lob.getTopOfBook();
+        assertEquals(1, top.getSequence());
+        assertEquals(100, top.read(new TopOfBookSnapshot()).getBidPrice());
+
+        lob.setTopOfBookPublishing(false);
+        assertNull(lob.getTopOfBook());
+        lob.process(new Order(2, true, 10, 101));
+        assertEquals(100, top.read(new TopOfBookSnapshot()).getBidPrice());
+    }
+}